@@ -0,0 +1,57 @@
+package com.graduate.management.config;
+
+import com.graduate.management.repository.UserRepository;
+import com.graduate.management.security.LoginAttemptTracker;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 账号自动解锁定时任务
+ * 实现需求中的：登录失败超过限制次数后锁定账号，锁定时间到期后自动解锁
+ * 通过(accountNonLocked, lockedTime)索引只扫描已锁定的账号，使用一条UPDATE批量解锁
+ */
+@Slf4j
+@Configuration
+@EnableScheduling
+@RequiredArgsConstructor
+public class AccountUnlockScheduler {
+    
+    private final UserRepository userRepository;
+    private final LoginAttemptTracker loginAttemptTracker;
+    
+    @Value("${system.password.lock-duration:30}")
+    private int lockDuration;
+    
+    /**
+     * 每分钟检查一次到期的锁定
+     */
+    @Scheduled(fixedDelayString = "${system.password.unlock-interval:60000}")
+    @Transactional
+    public void unlockExpiredAccounts() {
+        try {
+            LocalDateTime cutoff = LocalDateTime.now().minusMinutes(lockDuration);
+            
+            List<String> usernames = userRepository.findUsernamesWithExpiredLock(cutoff);
+            if (usernames.isEmpty()) {
+                return;
+            }
+            
+            int unlocked = userRepository.unlockExpiredAccounts(cutoff);
+            
+            // 同步清除内存中的锁定状态，避免解锁后登录仍被拦截
+            loginAttemptTracker.releaseAll(usernames);
+            
+            log.info("自动解锁{}个锁定到期的账号", unlocked);
+        } catch (Exception e) {
+            log.error("自动解锁账号过程中发生错误: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.graduate.management.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+/**
+ * 当前节点标识
+ * 多节点部署时用于区分定时任务租约的持有者和后台任务的执行节点。
+ * 未配置system.cluster.node-id时使用"主机名:端口"，重启后保持不变，
+ * 同一台机器上按不同端口启动的多个实例也能区分
+ */
+@Slf4j
+@Component
+public class ClusterNode {
+
+    @Value("${system.cluster.node-id:}")
+    private String nodeId;
+
+    @Value("${server.port:8080}")
+    private int serverPort;
+
+    @PostConstruct
+    public void init() {
+        if (nodeId == null || nodeId.isEmpty()) {
+            String host;
+            try {
+                host = InetAddress.getLocalHost().getHostName();
+            } catch (UnknownHostException e) {
+                host = "localhost";
+            }
+            nodeId = host + ":" + serverPort;
+        }
+        log.info("当前节点标识: {}", nodeId);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+}
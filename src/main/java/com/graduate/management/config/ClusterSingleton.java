@@ -0,0 +1,35 @@
+package com.graduate.management.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 集群内只在一个节点执行的定时任务
+ * 标注在@Scheduled方法上，每次触发时先通过{@link JobLeaseManager}获取数据库租约，
+ * 获取失败（其他节点正在执行或刚执行完）时跳过本次执行。
+ * 只适用于处理数据库中共享数据的任务，清理节点本地缓存或文件的任务不应标注
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ClusterSingleton {
+
+    /**
+     * 任务名，集群内唯一
+     */
+    String value();
+
+    /**
+     * 租约时长(秒)，执行期间每隔三分之一时长续期一次；节点宕机后最多经过该时长由其他节点接管
+     */
+    long leaseSeconds() default 60;
+
+    /**
+     * 执行完成后租约至少保留的时长(秒)，从获得租约时算起，
+     * 避免各节点触发时间略有先后时同一次调度被执行多次，应小于任务的调度间隔
+     */
+    long minHoldSeconds() default 30;
+}
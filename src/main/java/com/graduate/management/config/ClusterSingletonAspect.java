@@ -0,0 +1,47 @@
+package com.graduate.management.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * 为标注{@link ClusterSingleton}的方法获取租约
+ * 优先级最高，在事务之外获取和释放租约，未获得租约时不开启事务
+ */
+@Slf4j
+@Aspect
+@Component
+@RequiredArgsConstructor
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ClusterSingletonAspect {
+
+    private final JobLeaseManager jobLeaseManager;
+
+    @Around("@annotation(clusterSingleton)")
+    public Object runOnOneNode(ProceedingJoinPoint joinPoint, ClusterSingleton clusterSingleton) throws Throwable {
+        String jobName = clusterSingleton.value();
+        JobLeaseManager.Lease lease;
+        try {
+            lease = jobLeaseManager.tryAcquire(jobName, clusterSingleton.leaseSeconds(), clusterSingleton.minHoldSeconds());
+        } catch (Exception e) {
+            // 无法确认其他节点是否在执行时跳过本次，等待下次触发
+            log.error("获取任务{}的租约失败，跳过本次执行: {}", jobName, e.getMessage());
+            return null;
+        }
+        if (lease == null) {
+            log.debug("任务{}由其他节点执行，本节点跳过", jobName);
+            return null;
+        }
+
+        try {
+            return joinPoint.proceed();
+        } finally {
+            lease.release();
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.graduate.management.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 定时任务租约管理
+ * 多个节点共用一个数据库时，通过job_leases表保证同一任务同一时刻只有一个节点执行：
+ * 租约不存在或已到期时，以条件UPDATE/INSERT抢占，只有一个节点能成功；
+ * 执行期间后台线程定期续期（心跳），续期失败说明租约已被接管，记录错误日志；
+ * 执行完成后租约保留到获得租约后的最短保留时长，节点宕机时租约到期后由其他节点接管。
+ * 所有时间比较都使用数据库的CURRENT_TIMESTAMP，租约语句在独立事务中立即提交。
+ *
+ * 单机验证多实例：对同一数据库启动两个实例，如
+ * --server.port=8081 --system.cluster.node-id=node-b --system.log.integrity-check-cron="0 * * * * ?"，
+ * 每次触发只有一个实例输出执行日志，停止该实例后租约到期，另一实例接管。
+ * 单节点部署可通过--system.cluster.lock.enabled=false关闭
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class JobLeaseManager {
+
+    private static final String TAKEOVER_SQL = "UPDATE job_leases SET owner = ?, acquired_at = CURRENT_TIMESTAMP, "
+            + "heartbeat_at = CURRENT_TIMESTAMP, lease_until = TIMESTAMPADD(SECOND, ?, CURRENT_TIMESTAMP) "
+            + "WHERE job_name = ? AND lease_until <= CURRENT_TIMESTAMP";
+
+    private static final String INSERT_SQL = "INSERT INTO job_leases (job_name, owner, acquired_at, heartbeat_at, lease_until) "
+            + "VALUES (?, ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, TIMESTAMPADD(SECOND, ?, CURRENT_TIMESTAMP))";
+
+    private static final String HEARTBEAT_SQL = "UPDATE job_leases SET heartbeat_at = CURRENT_TIMESTAMP, "
+            + "lease_until = TIMESTAMPADD(SECOND, ?, CURRENT_TIMESTAMP) "
+            + "WHERE job_name = ? AND owner = ?";
+
+    private static final String RELEASE_SQL = "UPDATE job_leases "
+            + "SET lease_until = GREATEST(CURRENT_TIMESTAMP, TIMESTAMPADD(SECOND, ?, acquired_at)) "
+            + "WHERE job_name = ? AND owner = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ClusterNode clusterNode;
+
+    @Value("${system.cluster.lock.enabled:true}")
+    private boolean enabled;
+
+    private String nodeId;
+    private TransactionTemplate requiresNew;
+    private ScheduledExecutorService heartbeatExecutor;
+
+    @PostConstruct
+    public void init() {
+        nodeId = clusterNode.getNodeId();
+        requiresNew = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        heartbeatExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "job-lease-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (!enabled) {
+            log.info("已关闭定时任务集群互斥");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeatExecutor.shutdownNow();
+    }
+
+    /**
+     * 尝试获取任务租约
+     *
+     * @param jobName 任务名
+     * @param leaseSeconds 租约时长(秒)
+     * @param minHoldSeconds 释放后至少保留的时长(秒)，从获得租约时算起
+     * @return 获得的租约，其他节点持有未到期租约时返回null
+     */
+    public Lease tryAcquire(String jobName, long leaseSeconds, long minHoldSeconds) {
+        if (!enabled) {
+            return new Lease(jobName, minHoldSeconds, false);
+        }
+
+        Integer taken = requiresNew.execute(status -> jdbcTemplate.update(TAKEOVER_SQL, nodeId, leaseSeconds, jobName));
+        if (taken == null || taken == 0) {
+            try {
+                requiresNew.execute(status -> jdbcTemplate.update(INSERT_SQL, jobName, nodeId, leaseSeconds));
+            } catch (DuplicateKeyException e) {
+                // 租约存在且未到期，由其他节点执行
+                return null;
+            }
+        }
+
+        Lease lease = new Lease(jobName, minHoldSeconds, true);
+        long interval = Math.max(1, leaseSeconds / 3);
+        lease.heartbeat = heartbeatExecutor.scheduleWithFixedDelay(
+                () -> renew(lease, leaseSeconds), interval, interval, TimeUnit.SECONDS);
+        return lease;
+    }
+
+    private void renew(Lease lease, long leaseSeconds) {
+        try {
+            Integer renewed = requiresNew.execute(status ->
+                    jdbcTemplate.update(HEARTBEAT_SQL, leaseSeconds, lease.jobName, nodeId));
+            if (renewed == null || renewed == 0) {
+                lease.lost = true;
+                lease.heartbeat.cancel(false);
+                log.error("任务{}的租约已被其他节点接管，本节点仍在执行", lease.jobName);
+            }
+        } catch (Exception e) {
+            // 数据库暂时不可用时下次心跳重试，租约到期前恢复则不受影响
+            log.warn("任务{}的租约续期失败: {}", lease.jobName, e.getMessage());
+        }
+    }
+
+    /**
+     * 任务租约
+     */
+    public class Lease {
+
+        private final String jobName;
+        private final long minHoldSeconds;
+        private final boolean persistent;
+        private volatile ScheduledFuture<?> heartbeat;
+        private volatile boolean lost;
+
+        private Lease(String jobName, long minHoldSeconds, boolean persistent) {
+            this.jobName = jobName;
+            this.minHoldSeconds = minHoldSeconds;
+            this.persistent = persistent;
+        }
+
+        /**
+         * 租约是否仍由本节点持有，长时间运行的任务可据此提前结束
+         */
+        public boolean isHeld() {
+            return !lost;
+        }
+
+        /**
+         * 任务执行完成，停止心跳并释放租约
+         */
+        public void release() {
+            if (!persistent) {
+                return;
+            }
+            heartbeat.cancel(false);
+            if (lost) {
+                return;
+            }
+            try {
+                requiresNew.execute(status -> jdbcTemplate.update(RELEASE_SQL, minHoldSeconds, jobName, nodeId));
+            } catch (Exception e) {
+                // 释放失败时租约到期后自然失效
+                log.warn("任务{}的租约释放失败: {}", jobName, e.getMessage());
+            }
+        }
+    }
+}
@@ -32,9 +32,10 @@ public class LogIntegrityScheduler {
     @Value("${system.log.hmac-key:logSecurityKey}")
     private String hmacKey;
       /**
-     * 每天凌晨2点执行日志完整性校验
+     * 每天凌晨2点执行日志完整性校验，多节点部署时只由一个节点执行
      */
-    @Scheduled(cron = "0 0 2 * * ?")
+    @Scheduled(cron = "${system.log.integrity-check-cron:0 0 2 * * ?}")
+    @ClusterSingleton(value = "log-integrity-check", leaseSeconds = 120, minHoldSeconds = 300)
     @Transactional(readOnly = true)
     public void verifyLogIntegrity() {
         log.info("开始执行日志完整性校验...");
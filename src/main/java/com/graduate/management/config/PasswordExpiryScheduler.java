@@ -0,0 +1,51 @@
+package com.graduate.management.config;
+
+import com.graduate.management.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * 密码过期检查定时任务
+ * 实现需求中的：密码90天需要更换一次
+ * 每晚使用集合UPDATE批量标记密码过期的账号，认证过程不再写数据库
+ */
+@Slf4j
+@Configuration
+@EnableScheduling
+@RequiredArgsConstructor
+public class PasswordExpiryScheduler {
+    
+    private final UserRepository userRepository;
+    
+    @Value("${system.password.expired-days:90}")
+    private int passwordExpiredDays;
+    
+    /**
+     * 每天凌晨1点执行密码过期检查，多节点部署时只由一个节点执行
+     */
+    @Scheduled(cron = "${system.password.expiry-check-cron:0 0 1 * * ?}")
+    @ClusterSingleton(value = "password-expiry-check", minHoldSeconds = 300)
+    @Transactional
+    public void markExpiredPasswords() {
+        log.info("开始执行密码过期检查...");
+        
+        try {
+            // 补全从未修改过密码的账号的密码修改时间
+            int backfilled = userRepository.backfillLastPasswordChangeTime();
+            
+            LocalDateTime cutoff = LocalDateTime.now().minusDays(passwordExpiredDays);
+            int expired = userRepository.markPasswordExpired(cutoff);
+            
+            log.info("密码过期检查完成：补全密码修改时间{}个账号，标记密码过期{}个账号", backfilled, expired);
+        } catch (Exception e) {
+            log.error("密码过期检查过程中发生错误: {}", e.getMessage(), e);
+        }
+    }
+}
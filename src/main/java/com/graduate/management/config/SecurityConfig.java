@@ -40,6 +40,8 @@ public class SecurityConfig {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
         authProvider.setPasswordEncoder(passwordEncoder());
+        // 登录成功时自动升级旧格式密码哈希
+        authProvider.setUserDetailsPasswordService(userDetailsService);
         return authProvider;
     }
       @Bean
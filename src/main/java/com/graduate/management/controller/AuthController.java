@@ -6,12 +6,15 @@ import com.graduate.management.dto.LoginRequest;
 import com.graduate.management.dto.PasswordChangeRequest;
 import com.graduate.management.dto.RegisterRequest;
 import com.graduate.management.entity.User;
+import com.graduate.management.security.LoginAttemptService;
+import com.graduate.management.security.LoginAttemptTracker;
 import com.graduate.management.service.SystemLogService;
 import com.graduate.management.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
@@ -26,23 +29,41 @@ import javax.validation.Valid;
 public class AuthController {
     
     private final UserService userService;
-    private final SystemLogService systemLogService;    @Operation(summary = "用户登录", description = "用户通过用户名和密码登录系统")
+    private final SystemLogService systemLogService;
+    private final LoginAttemptService loginAttemptService;
+    
+    @Operation(summary = "用户登录", description = "用户通过用户名和密码登录系统")
     @PostMapping("/login")
     public ApiResponse<JwtResponse> login(@Parameter(description = "登录请求信息", required = true) @Valid @RequestBody LoginRequest loginRequest, HttpServletRequest request) {
+        String username = loginRequest.getUsername();
+        if (loginAttemptService.isBlocked(username, request)) {
+            return ApiResponse.fail("登录失败: 登录失败次数过多，请"
+                    + loginAttemptService.remainingLockMinutes(username, request) + "分钟后重试");
+        }
+        
         try {
             JwtResponse response = userService.login(loginRequest);
+            loginAttemptService.loginSucceeded(username);
             
             // 记录登录日志
-            User user = userService.findByUsername(loginRequest.getUsername()).orElse(null);
+            User user = userService.findByUsername(username).orElse(null);
             systemLogService.log("LOGIN", "USER", user != null ? user.getId() : null, user,
                     "用户登录", true, null, request);
             
             return ApiResponse.success("登录成功", response);
+        } catch (BadCredentialsException e) {
+            // 密码错误计入失败次数；同一窗口内只记录首次失败日志，达到上限时记录锁定日志
+            LoginAttemptTracker.Outcome outcome = loginAttemptService.loginFailed(username, request);
+            if (outcome == LoginAttemptTracker.Outcome.FIRST_FAILURE) {
+                systemLogService.log("LOGIN", "USER", null, null,
+                        "登录失败: " + username, false, e.getMessage(), request);
+            }
+            return ApiResponse.fail("登录失败: " + e.getMessage());
         } catch (Exception e) {
             // 记录登录失败日志
             systemLogService.log("LOGIN", "USER", null, null,
-                    "登录失败: " + loginRequest.getUsername(), false, e.getMessage(), request);
-              return ApiResponse.fail("登录失败: " + e.getMessage());
+                    "登录失败: " + username, false, e.getMessage(), request);
+            return ApiResponse.fail("登录失败: " + e.getMessage());
         }
     }
   @Operation(summary = "刷新令牌", description = "通过刷新令牌获取新的访问令牌")
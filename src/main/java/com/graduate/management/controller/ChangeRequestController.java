@@ -1,6 +1,8 @@
 package com.graduate.management.controller;
 
 import com.graduate.management.dto.ApiResponse;
+import com.graduate.management.dto.BulkReviewRequest;
+import com.graduate.management.dto.BulkReviewResult;
 import com.graduate.management.dto.ChangeRequestDto;
 import com.graduate.management.entity.ChangeRequest;
 import com.graduate.management.security.UserDetailsImpl;
@@ -90,6 +92,19 @@ public class ChangeRequestController {
         return ApiResponse.success("查询成功", changeRequests);
     }
     
+    /**
+     * 获取待审核变更申请数量，用于页面角标
+     * 研究生院管理员返回全校数量，学院用户返回本学院数量
+     * 
+     * @param userDetails 当前登录用户
+     * @return 待审核数量
+     */
+    @GetMapping("/pending-count")
+    @PreAuthorize("hasAnyRole('ROLE_GRADUATE_ADMIN', 'ROLE_COLLEGE_ADMIN', 'ROLE_COLLEGE_SECRETARY')")
+    public ApiResponse<Long> getPendingCount(@AuthenticationPrincipal UserDetailsImpl userDetails) {
+        return ApiResponse.success("查询成功", changeRequestService.countPendingChangeRequests(userDetails.getUser()));
+    }
+    
     /**
      * 根据ID获取变更申请详情
      * 
@@ -191,6 +206,40 @@ public class ChangeRequestController {
         }
     }
     
+    /**
+     * 批量审核变更申请
+     * 在一个事务中锁定并更新全部申请，返回每个ID的处理结果
+     * 
+     * @param reviewRequest 批量审核请求
+     * @param userDetails 当前登录用户
+     * @param request HTTP请求
+     * @return 逐条审核结果
+     */
+    @PostMapping("/bulk-review")
+    @PreAuthorize("hasRole('ROLE_GRADUATE_ADMIN')")
+    public ApiResponse<BulkReviewResult> bulkReviewChangeRequests(
+            @Valid @RequestBody BulkReviewRequest reviewRequest,
+            @AuthenticationPrincipal UserDetailsImpl userDetails,
+            HttpServletRequest request) {
+        try {
+            if (!reviewRequest.isValidAction()) {
+                return ApiResponse.fail("无效的审核动作，必须为approve或reject");
+            }
+            
+            BulkReviewResult result = changeRequestService.bulkReview(reviewRequest.getIds(),
+                    reviewRequest.isApprove(), userDetails.getUser(), reviewRequest.getComment());
+            
+            // 批量记录审核日志，每个成功的申请一条
+            systemLogService.logAll(reviewRequest.isApprove() ? "APPROVE" : "REJECT", "CHANGE_REQUEST",
+                    result.succeededIds(), userDetails.getUser(),
+                    reviewRequest.isApprove() ? "批量审批通过变更申请" : "批量驳回变更申请", request);
+            
+            return ApiResponse.success("审核完成", result);
+        } catch (Exception e) {
+            return ApiResponse.fail("审核失败: " + e.getMessage());
+        }
+    }
+    
     /**
      * 取消变更申请
      * 
@@ -1,12 +1,14 @@
 package com.graduate.management.controller;
 
 import com.graduate.management.dto.ApiResponse;
+import com.graduate.management.dto.UserCollegeAssignmentDto;
 import com.graduate.management.entity.College;
 import com.graduate.management.entity.Major;
 import com.graduate.management.security.UserDetailsImpl;
 import com.graduate.management.service.CollegeService;
 import com.graduate.management.service.MajorService;
 import com.graduate.management.service.SystemLogService;
+import com.graduate.management.service.UserCollegeService;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -33,6 +35,7 @@ public class CollegeController {
     private final CollegeService collegeService;
     private final MajorService majorService;
     private final SystemLogService systemLogService;
+    private final UserCollegeService userCollegeService;
     
     /**
      * 获取所有学院
@@ -172,6 +175,74 @@ public class CollegeController {
         }
     }
     
+    /**
+     * 获取学院下已分配的人员
+     *
+     * @param id 学院ID
+     * @return 人员分配列表
+     */
+    @GetMapping("/api/colleges/{id}/staff")
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_GRADUATE_ADMIN')")
+    public ApiResponse<List<UserCollegeAssignmentDto>> getCollegeStaff(@PathVariable Long id) {
+        return ApiResponse.success("查询成功", userCollegeService.getAssignments(id));
+    }
+    
+    /**
+     * 为学院管理员、学院秘书或学院领导分配所属学院
+     *
+     * @param id 学院ID
+     * @param userId 用户ID
+     * @param userDetails 当前登录用户
+     * @param request HTTP请求
+     * @return 分配结果
+     */
+    @PutMapping("/api/colleges/{id}/staff/{userId}")
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_GRADUATE_ADMIN')")
+    public ApiResponse<UserCollegeAssignmentDto> assignCollegeStaff(
+            @PathVariable Long id,
+            @PathVariable Long userId,
+            @AuthenticationPrincipal UserDetailsImpl userDetails,
+            HttpServletRequest request) {
+        try {
+            UserCollegeAssignmentDto assignment = userCollegeService.assign(userId, id, userDetails.getUser());
+            
+            systemLogService.log("ASSIGN_COLLEGE", "USER", userId, userDetails.getUser(),
+                    "分配用户" + assignment.getUsername() + "到学院: " + assignment.getCollegeName(), true, null, request);
+            
+            return ApiResponse.success("分配成功", assignment);
+        } catch (Exception e) {
+            return ApiResponse.fail("分配失败: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * 解除用户的学院分配
+     *
+     * @param userId 用户ID
+     * @param userDetails 当前登录用户
+     * @param request HTTP请求
+     * @return 解除结果
+     */
+    @DeleteMapping("/api/colleges/staff/{userId}")
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_GRADUATE_ADMIN')")
+    public ApiResponse<?> unassignCollegeStaff(
+            @PathVariable Long userId,
+            @AuthenticationPrincipal UserDetailsImpl userDetails,
+            HttpServletRequest request) {
+        try {
+            if (!userCollegeService.unassign(userId)) {
+                return ApiResponse.fail("该用户未分配学院");
+            }
+            
+            systemLogService.log("UNASSIGN_COLLEGE", "USER", userId, userDetails.getUser(),
+                    "解除用户学院分配", true, null, request);
+            
+            return ApiResponse.success("解除成功");
+        } catch (Exception e) {
+            return ApiResponse.fail("解除失败: " + e.getMessage());
+        }
+    }
+    
     /**
      * 获取学院下的所有专业
      *
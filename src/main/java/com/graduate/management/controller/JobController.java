@@ -0,0 +1,223 @@
+package com.graduate.management.controller;
+
+import com.graduate.management.dto.ApiResponse;
+import com.graduate.management.dto.BackgroundJobDto;
+import com.graduate.management.entity.BackgroundJob;
+import com.graduate.management.security.UserDetailsImpl;
+import com.graduate.management.service.BackgroundJobService;
+import com.graduate.management.service.StudentRosterExportService;
+import com.graduate.management.service.SystemLogService;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 后台任务控制器
+ * 提交导入/导出任务后立即返回任务ID，前端轮询任务状态和进度
+ */
+@Tag(name = "后台任务", description = "导入导出等长耗时任务的提交、查询和取消")
+@RestController
+@RequestMapping("/api/jobs")
+@RequiredArgsConstructor
+public class JobController {
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final BackgroundJobService backgroundJobService;
+    private final SystemLogService systemLogService;
+
+    /**
+     * 提交学生学籍导入任务
+     *
+     * @param file Excel文件
+     * @param userDetails 当前登录用户
+     * @param request HTTP请求
+     * @return 任务信息
+     */
+    @PostMapping("/student-import")
+    @PreAuthorize("hasAnyRole('ROLE_COLLEGE_SECRETARY', 'ROLE_COLLEGE_ADMIN', 'ROLE_GRADUATE_ADMIN')")
+    public ApiResponse<BackgroundJobDto> submitStudentImport(
+            @RequestParam("file") MultipartFile file,
+            @AuthenticationPrincipal UserDetailsImpl userDetails,
+            HttpServletRequest request) {
+        try {
+            if (file.isEmpty()) {
+                return ApiResponse.fail("文件不能为空");
+            }
+
+            BackgroundJobDto job = backgroundJobService.submitStudentImport(userDetails.getUser(), file);
+
+            systemLogService.log("IMPORT_EXCEL", "STUDENT_PROFILE", null, userDetails.getUser(),
+                    "提交学生学籍导入任务：" + file.getOriginalFilename() + "，任务ID：" + job.getId(),
+                    true, null, request);
+
+            return ApiResponse.success("任务已提交", job);
+        } catch (Exception e) {
+            return ApiResponse.fail("提交失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 提交学生名册导出任务
+     *
+     * @param format 导出格式：xlsx（默认）或csv
+     * @param collegeId 学院ID（可选）
+     * @param majorId 专业ID（可选）
+     * @param userDetails 当前登录用户
+     * @param request HTTP请求
+     * @return 任务信息
+     */
+    @PostMapping("/roster-export")
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_GRADUATE_ADMIN', 'ROLE_COLLEGE_ADMIN', 'ROLE_COLLEGE_SECRETARY', 'ROLE_COLLEGE_LEADER', 'ROLE_GRADUATE_LEADER', 'ROLE_SCHOOL_LEADER', 'ROLE_TEACHER')")
+    public ApiResponse<BackgroundJobDto> submitRosterExport(
+            @RequestParam(defaultValue = StudentRosterExportService.FORMAT_XLSX) String format,
+            @RequestParam(required = false) Long collegeId,
+            @RequestParam(required = false) Long majorId,
+            @AuthenticationPrincipal UserDetailsImpl userDetails,
+            HttpServletRequest request) {
+        try {
+            BackgroundJobDto job = backgroundJobService.submitRosterExport(userDetails.getUser(), collegeId, majorId, format);
+
+            systemLogService.log("EXPORT", "STUDENT_PROFILE", null, userDetails.getUser(),
+                    "提交学生名册导出任务，任务ID：" + job.getId(), true, null, request);
+
+            return ApiResponse.success("任务已提交", job);
+        } catch (Exception e) {
+            return ApiResponse.fail("提交失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 查询当前用户的任务列表
+     *
+     * @param page 页码
+     * @param size 每页大小
+     * @param userDetails 当前登录用户
+     * @return 任务分页列表
+     */
+    @GetMapping
+    public ApiResponse<Page<BackgroundJobDto>> getJobs(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @AuthenticationPrincipal UserDetailsImpl userDetails) {
+        Page<BackgroundJobDto> jobs = backgroundJobService.getJobs(userDetails.getUser(),
+                PageRequest.of(page, Math.min(size, MAX_PAGE_SIZE)));
+        return ApiResponse.success("查询成功", jobs);
+    }
+
+    /**
+     * 查询任务状态和进度
+     *
+     * @param id 任务ID
+     * @param userDetails 当前登录用户
+     * @return 任务信息
+     */
+    @GetMapping("/{id}")
+    public ApiResponse<BackgroundJobDto> getJob(
+            @PathVariable Long id,
+            @AuthenticationPrincipal UserDetailsImpl userDetails) {
+        try {
+            return ApiResponse.success("查询成功", backgroundJobService.getJob(id, userDetails.getUser()));
+        } catch (Exception e) {
+            return ApiResponse.fail("查询失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 取消任务
+     *
+     * @param id 任务ID
+     * @param userDetails 当前登录用户
+     * @param request HTTP请求
+     * @return 任务信息
+     */
+    @PostMapping("/{id}/cancel")
+    public ApiResponse<BackgroundJobDto> cancelJob(
+            @PathVariable Long id,
+            @AuthenticationPrincipal UserDetailsImpl userDetails,
+            HttpServletRequest request) {
+        try {
+            BackgroundJobDto job = backgroundJobService.cancelJob(id, userDetails.getUser());
+
+            systemLogService.log("CANCEL_JOB", "BACKGROUND_JOB", id, userDetails.getUser(),
+                    "取消后台任务", true, null, request);
+
+            return ApiResponse.success("已取消", job);
+        } catch (Exception e) {
+            return ApiResponse.fail("取消失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 续传失败或已取消的导入任务，从最后提交行的下一行继续导入
+     *
+     * @param id 原任务ID
+     * @param userDetails 当前登录用户
+     * @param request HTTP请求
+     * @return 新任务信息
+     */
+    @PostMapping("/{id}/resume")
+    @PreAuthorize("hasAnyRole('ROLE_COLLEGE_SECRETARY', 'ROLE_COLLEGE_ADMIN', 'ROLE_GRADUATE_ADMIN')")
+    public ApiResponse<BackgroundJobDto> resumeJob(
+            @PathVariable Long id,
+            @AuthenticationPrincipal UserDetailsImpl userDetails,
+            HttpServletRequest request) {
+        try {
+            BackgroundJobDto job = backgroundJobService.resumeStudentImport(id, userDetails.getUser());
+
+            systemLogService.log("RESUME_JOB", "BACKGROUND_JOB", id, userDetails.getUser(),
+                    "续传导入任务，新任务ID：" + job.getId(), true, null, request);
+
+            return ApiResponse.success("任务已提交", job);
+        } catch (Exception e) {
+            return ApiResponse.fail("续传失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 下载导出任务的结果文件
+     *
+     * @param id 任务ID
+     * @param userDetails 当前登录用户
+     * @param request HTTP请求
+     * @return 文件内容，无法下载时返回404及原因
+     */
+    @GetMapping("/{id}/result")
+    public ResponseEntity<?> downloadResult(
+            @PathVariable Long id,
+            @AuthenticationPrincipal UserDetailsImpl userDetails,
+            HttpServletRequest request) {
+        BackgroundJob job;
+        try {
+            job = backgroundJobService.getExportResult(id, userDetails.getUser());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ApiResponse.fail(e.getMessage()));
+        }
+
+        systemLogService.log("DOWNLOAD_EXPORT", "BACKGROUND_JOB", id, userDetails.getUser(),
+                "下载导出文件：" + job.getFileName(), true, null, request);
+
+        boolean csv = job.getFileName().endsWith("." + StudentRosterExportService.FORMAT_CSV);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(job.getFileName(), StandardCharsets.UTF_8).build().toString())
+                .contentType(csv ? MediaType.parseMediaType("text/csv;charset=UTF-8")
+                        : MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
+                .body(new FileSystemResource(new File(job.getResultPath())));
+    }
+}
@@ -1,11 +1,24 @@
 package com.graduate.management.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.graduate.management.dto.ApiResponse;
+import com.graduate.management.dto.BackgroundJobDto;
+import com.graduate.management.dto.BulkReviewRequest;
+import com.graduate.management.dto.BulkReviewResult;
+import com.graduate.management.dto.IdNumberSearchRequest;
 import com.graduate.management.dto.StudentProfileDto;
+import com.graduate.management.dto.StudentProfileQuery;
+import com.graduate.management.dto.StudentProfileSummaryDto;
+import com.graduate.management.entity.StudentPhoto;
+import com.graduate.management.entity.StudentPhotoThumbnail;
 import com.graduate.management.entity.StudentProfile;
 import com.graduate.management.entity.User;
+import com.graduate.management.security.DataScope;
+import com.graduate.management.security.SystemRole;
 import com.graduate.management.security.UserDetailsImpl;
+import com.graduate.management.service.BackgroundJobService;
 import com.graduate.management.service.StudentProfileService;
+import com.graduate.management.service.StudentRosterExportService;
 import com.graduate.management.service.SystemLogService;
 import com.graduate.management.service.UserService;
 import com.graduate.management.util.DtoMaskUtil;
@@ -15,17 +28,29 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import org.springframework.web.multipart.MultipartFile;
 
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 学生学籍信息管理控制器
@@ -36,10 +61,15 @@ import java.util.List;
 @RequiredArgsConstructor
 public class StudentProfileController {
     
+    private static final int MAX_PAGE_SIZE = 100;
+    
     private final StudentProfileService studentProfileService;
     private final UserService userService;
     private final SystemLogService systemLogService;
     private final DtoMaskUtil dtoMaskUtil;
+    private final StudentRosterExportService studentRosterExportService;
+    private final BackgroundJobService backgroundJobService;
+    private final ObjectMapper objectMapper;
     
     /**
      * 获取学生学籍信息列表（分页）
@@ -50,18 +80,30 @@ public class StudentProfileController {
      * @param sortDir 排序方向
      * @param collegeId 学院ID（可选）
      * @param majorId 专业ID（可选）
+     * @param supervisorId 导师ID（可选）
+     * @param degreeType 学位类型（可选）
+     * @param enrollmentYear 入学年份（可选）
+     * @param approved 审核状态（可选）
+     * @param graduationFrom 预计毕业日期下限（可选）
+     * @param graduationTo 预计毕业日期上限（可选）
      * @param keyword 关键词（可选）
      * @return 学生学籍信息分页列表
      */
     @GetMapping
     @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_GRADUATE_ADMIN', 'ROLE_COLLEGE_ADMIN', 'ROLE_COLLEGE_SECRETARY')")
-    public ApiResponse<Page<StudentProfileDto>> getAllStudentProfiles(
+    public ApiResponse<Page<StudentProfileSummaryDto>> getAllStudentProfiles(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "id") String sortBy,
             @RequestParam(defaultValue = "asc") String sortDir,
             @RequestParam(required = false) Long collegeId,
             @RequestParam(required = false) Long majorId,
+            @RequestParam(required = false) Long supervisorId,
+            @RequestParam(required = false) String degreeType,
+            @RequestParam(required = false) Integer enrollmentYear,
+            @RequestParam(required = false) Boolean approved,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate graduationFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate graduationTo,
             @RequestParam(required = false) String keyword) {
         
         // 获取当前用户
@@ -77,12 +119,69 @@ public class StudentProfileController {
         Pageable pageable = PageRequest.of(page, size, sort);
         
         // 根据用户角色和请求参数获取学生学籍信息
-        Page<StudentProfileDto> studentProfiles = studentProfileService.getStudentProfiles(
-                currentUser, collegeId, majorId, keyword, pageable);
+        StudentProfileQuery criteria = StudentProfileQuery.builder()
+                .collegeId(collegeId)
+                .majorId(majorId)
+                .supervisorId(supervisorId)
+                .degreeType(degreeType)
+                .enrollmentYear(enrollmentYear)
+                .approved(approved)
+                .graduationFrom(graduationFrom)
+                .graduationTo(graduationTo)
+                .keyword(keyword)
+                .build();
+        Page<StudentProfileSummaryDto> studentProfiles = studentProfileService.getStudentProfiles(
+                currentUser, criteria, pageable);
         
         return ApiResponse.success("查询成功", studentProfiles);
     }
     
+    /**
+     * 分页获取待审核的学生学籍信息（摘要，不含敏感字段）
+     * 学院用户只能查看本学院的待审核记录
+     *
+     * @param collegeId 学院ID（可选，仅管理员有效）
+     * @param page 页码
+     * @param size 每页大小
+     * @param userDetails 当前登录用户
+     * @return 待审核学籍分页列表
+     */
+    @GetMapping("/pending")
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_GRADUATE_ADMIN', 'ROLE_COLLEGE_ADMIN', 'ROLE_COLLEGE_SECRETARY')")
+    public ApiResponse<Page<StudentProfileSummaryDto>> getPendingApprovals(
+            @RequestParam(required = false) Long collegeId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @AuthenticationPrincipal UserDetailsImpl userDetails) {
+        Pageable pageable = PageRequest.of(page, Math.min(size, MAX_PAGE_SIZE));
+        return ApiResponse.success("查询成功",
+                studentProfileService.getPendingApprovals(userDetails.getUser(), collegeId, pageable));
+    }
+    
+    /**
+     * 按身份证号精确查询学生
+     * 身份证号放在请求体中，避免出现在访问日志和浏览器历史里
+     *
+     * @param searchRequest 查询条件
+     * @param userDetails 当前登录用户
+     * @param request HTTP请求
+     * @return 匹配的学生列表
+     */
+    @PostMapping("/search/id-number")
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_GRADUATE_ADMIN')")
+    public ApiResponse<List<StudentProfileSummaryDto>> searchByIdNumber(
+            @Valid @RequestBody IdNumberSearchRequest searchRequest,
+            @AuthenticationPrincipal UserDetailsImpl userDetails,
+            HttpServletRequest request) {
+        List<StudentProfileSummaryDto> result = studentProfileService.findByIdNumber(searchRequest.getIdNumber());
+        
+        // 记录查询日志（不记录身份证号本身）
+        systemLogService.log("SEARCH_ID_NUMBER", "STUDENT_PROFILE", null, userDetails.getUser(),
+                "按身份证号精确查询学生，命中" + result.size() + "条", true, null, request);
+        
+        return ApiResponse.success("查询成功", result);
+    }
+    
     /**
      * 根据ID获取学生学籍信息详情
      * 
@@ -91,13 +190,13 @@ public class StudentProfileController {
      * @return 学生学籍信息详情
      */
     @GetMapping("/{id}")
-    @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_GRADUATE_ADMIN', 'ROLE_COLLEGE_ADMIN', 'ROLE_COLLEGE_SECRETARY', 'ROLE_TEACHER') or #userDetails.user.username == @studentProfileService.findById(#id).student.username")
     public ApiResponse<StudentProfileDto> getStudentProfileById(
             @PathVariable Long id,
             @AuthenticationPrincipal UserDetailsImpl userDetails,
             HttpServletRequest request) {
         try {
-            StudentProfile studentProfile = studentProfileService.findById(id);
+            // 按数据范围查询，范围外的记录不会被加载和解密
+            StudentProfile studentProfile = studentProfileService.findAccessibleById(id, userDetails.getUser());
             StudentProfileDto profileDto = studentProfileService.convertToDto(studentProfile);
             
             // 记录查看学籍信息日志
@@ -105,10 +204,7 @@ public class StudentProfileController {
                     "查看学生学籍信息: " + studentProfile.getStudentId(), true, null, request);
             
             // 根据用户角色进行脱敏处理
-            if (userDetails.getAuthorities().stream()
-                    .anyMatch(auth -> auth.getAuthority().equals("ROLE_GRADUATE_ADMIN")
-                            || auth.getAuthority().equals("ROLE_COLLEGE_ADMIN")
-                            || auth.getAuthority().equals("ROLE_COLLEGE_SECRETARY"))) {
+            if (!userDetails.getScope().isMasked()) {
                 // 管理员不脱敏
                 return ApiResponse.success("查询成功", profileDto);
             } else {
@@ -155,7 +251,7 @@ public class StudentProfileController {
      * @return 更新结果
      */
     @PutMapping("/{id}")
-    @PreAuthorize("hasAnyRole('ROLE_GRADUATE_ADMIN') or (hasAnyRole('ROLE_COLLEGE_SECRETARY', 'ROLE_COLLEGE_ADMIN') and @studentProfileService.isFromSameCollege(#id, #userDetails.user)) or #userDetails.user.username == @studentProfileService.findById(#id).student.username")
+    @PreAuthorize("@perm.hasPermission(#id, 'STUDENT_PROFILE_UPDATE')")
     public ApiResponse<StudentProfileDto> updateStudentProfile(
             @PathVariable Long id,
             @Valid @RequestBody StudentProfile studentProfile,
@@ -165,14 +261,12 @@ public class StudentProfileController {
             StudentProfile existingProfile = studentProfileService.findById(id);
             
             // 根据用户角色决定更新方式
-            if (userDetails.getAuthorities().stream()
-                    .anyMatch(auth -> auth.getAuthority().equals("ROLE_STUDENT"))) {
+            DataScope scope = userDetails.getScope();
+            if (scope.hasRole(SystemRole.STUDENT)) {
                 // 学生只能修改除基础信息外的个人信息
                 studentProfile = studentProfileService.updateStudentProfileByStudent(
                         existingProfile, studentProfile);
-            } else if (userDetails.getAuthorities().stream()
-                    .anyMatch(auth -> auth.getAuthority().equals("ROLE_COLLEGE_SECRETARY")
-                            || auth.getAuthority().equals("ROLE_COLLEGE_ADMIN"))) {
+            } else if (scope.hasAnyRole(SystemRole.COLLEGE_SECRETARY, SystemRole.COLLEGE_ADMIN)) {
                 // 学院管理员可以修改基础信息，但需要研究生院管理员审核
                 studentProfile.setId(id);
                 studentProfile = studentProfileService.updateStudentProfileWithApproval(
@@ -201,7 +295,7 @@ public class StudentProfileController {
      * @return 导入结果
      */    @PostMapping("/batch")
     @PreAuthorize("hasAnyRole('ROLE_COLLEGE_SECRETARY', 'ROLE_COLLEGE_ADMIN', 'ROLE_GRADUATE_ADMIN')")
-    public ApiResponse<List<StudentProfileDto>> batchImportStudentProfiles(
+    public ApiResponse<List<StudentProfileSummaryDto>> batchImportStudentProfiles(
             @Valid @RequestBody List<StudentProfile> studentProfiles,
             @AuthenticationPrincipal UserDetailsImpl userDetails,
             HttpServletRequest request) {
@@ -220,9 +314,9 @@ public class StudentProfileController {
             systemLogService.log("BATCH_IMPORT", "STUDENT_PROFILE", null, userDetails.getUser(),
                     "批量导入学生学籍信息，共" + createdProfiles.size() + "条", true, null, request);
             
-            // 转换为DTO返回
-            List<StudentProfileDto> profileDtos = createdProfiles.stream()
-                    .map(studentProfileService::convertToDto)
+            // 转换为摘要DTO返回
+            List<StudentProfileSummaryDto> profileDtos = createdProfiles.stream()
+                    .map(studentProfileService::convertToSummaryDto)
                     .collect(java.util.stream.Collectors.toList());
             
             return ApiResponse.success("批量导入成功", profileDtos);
@@ -231,6 +325,40 @@ public class StudentProfileController {
         }
     }
     
+    /**
+     * 批量审核学生学籍信息
+     * 在一个事务中锁定并更新全部记录，返回每个ID的处理结果
+     * 
+     * @param reviewRequest 批量审核请求
+     * @param userDetails 当前登录用户
+     * @param request HTTP请求
+     * @return 逐条审核结果
+     */
+    @PostMapping("/bulk-review")
+    @PreAuthorize("hasRole('ROLE_GRADUATE_ADMIN')")
+    public ApiResponse<BulkReviewResult> bulkReviewStudentProfiles(
+            @Valid @RequestBody BulkReviewRequest reviewRequest,
+            @AuthenticationPrincipal UserDetailsImpl userDetails,
+            HttpServletRequest request) {
+        try {
+            if (!reviewRequest.isValidAction()) {
+                return ApiResponse.fail("无效的审核动作，必须为approve或reject");
+            }
+            
+            BulkReviewResult result = studentProfileService.bulkReviewStudentProfiles(reviewRequest.getIds(),
+                    reviewRequest.isApprove(), userDetails.getUser(), reviewRequest.getComment());
+            
+            // 批量记录审核日志，每个成功的学籍记录一条
+            systemLogService.logAll(reviewRequest.isApprove() ? "APPROVE" : "REJECT", "STUDENT_PROFILE",
+                    result.succeededIds(), userDetails.getUser(),
+                    reviewRequest.isApprove() ? "批量审核通过学籍信息" : "批量驳回学籍信息", request);
+            
+            return ApiResponse.success("审核完成", result);
+        } catch (Exception e) {
+            return ApiResponse.fail("审核失败: " + e.getMessage());
+        }
+    }
+    
     /**
      * 获取当前登录学生的学籍信息
      * 
@@ -289,15 +417,16 @@ public class StudentProfileController {
     
     /**
      * 通过Excel文件批量导入学生学籍信息
+     * 导入在后台任务中执行，返回任务信息，进度通过 /api/jobs/{id} 查询
      *
      * @param file Excel文件
      * @param userDetails 当前登录用户
      * @param request HTTP请求
-     * @return 导入结果
+     * @return 导入任务
      */
     @PostMapping("/import")
     @PreAuthorize("hasAnyRole('ROLE_COLLEGE_SECRETARY', 'ROLE_COLLEGE_ADMIN', 'ROLE_GRADUATE_ADMIN')")
-    public ApiResponse<String> importStudentProfilesFromExcel(
+    public ApiResponse<BackgroundJobDto> importStudentProfilesFromExcel(
             @RequestParam("file") MultipartFile file,
             @AuthenticationPrincipal UserDetailsImpl userDetails,
             HttpServletRequest request) {
@@ -306,19 +435,15 @@ public class StudentProfileController {
                 return ApiResponse.fail("文件不能为空");
             }
             
-            // 调用服务导入学生学籍信息
-            boolean success = studentProfileService.importStudentProfiles(file);
+            // 提交后台导入任务
+            BackgroundJobDto job = backgroundJobService.submitStudentImport(userDetails.getUser(), file);
             
             // 记录导入日志
             systemLogService.log("IMPORT_EXCEL", "STUDENT_PROFILE", null, userDetails.getUser(),
-                    "从Excel文件导入学生学籍信息：" + file.getOriginalFilename(), success, 
-                    success ? null : "导入失败", request);
+                    "提交学生学籍导入任务：" + file.getOriginalFilename() + "，任务ID：" + job.getId(),
+                    true, null, request);
             
-            if (success) {
-                return ApiResponse.success("导入成功");
-            } else {
-                return ApiResponse.fail("导入失败：文件格式可能不正确或数据有误");
-            }
+            return ApiResponse.success("导入任务已提交", job);
         } catch (Exception e) {
             // 记录导入异常
             systemLogService.log("IMPORT_EXCEL", "STUDENT_PROFILE", null, userDetails.getUser(),
@@ -328,4 +453,158 @@ public class StudentProfileController {
             return ApiResponse.fail("导入失败: " + e.getMessage());
         }
     }
+    
+    /**
+     * 导出学生名册（Excel/CSV）
+     * 数据范围与列表查询一致，按数据库游标逐行写出，内存占用与导出行数无关
+     *
+     * @param format 导出格式：xlsx（默认）或csv
+     * @param collegeId 学院ID（可选，仅研究生院管理员和校领导有效）
+     * @param majorId 专业ID（可选）
+     * @param userDetails 当前登录用户
+     * @param request HTTP请求
+     * @param response HTTP响应
+     */
+    @GetMapping("/export")
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_GRADUATE_ADMIN', 'ROLE_COLLEGE_ADMIN', 'ROLE_COLLEGE_SECRETARY', 'ROLE_COLLEGE_LEADER', 'ROLE_GRADUATE_LEADER', 'ROLE_SCHOOL_LEADER', 'ROLE_TEACHER')")
+    public void exportStudentProfiles(
+            @RequestParam(defaultValue = StudentRosterExportService.FORMAT_XLSX) String format,
+            @RequestParam(required = false) Long collegeId,
+            @RequestParam(required = false) Long majorId,
+            @AuthenticationPrincipal UserDetailsImpl userDetails,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        boolean csv = StudentRosterExportService.FORMAT_CSV.equalsIgnoreCase(format);
+        String fileName = "学生名册_" + LocalDate.now().format(DateTimeFormatter.BASIC_ISO_DATE) + (csv ? ".csv" : ".xlsx");
+        
+        response.setContentType(csv ? "text/csv;charset=UTF-8"
+                : "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+        response.setHeader("Content-Disposition", "attachment; filename*=UTF-8''"
+                + URLEncoder.encode(fileName, StandardCharsets.UTF_8.name()).replace("+", "%20"));
+        response.setHeader("Cache-Control", "no-store");
+        
+        try {
+            int count = studentRosterExportService.exportRoster(userDetails.getUser(), collegeId, majorId,
+                    csv ? StudentRosterExportService.FORMAT_CSV : StudentRosterExportService.FORMAT_XLSX,
+                    response.getOutputStream());
+            
+            // 记录导出日志
+            systemLogService.log("EXPORT", "STUDENT_PROFILE", null, userDetails.getUser(),
+                    "导出学生名册，共" + count + "条", true, null, request);
+        } catch (Exception e) {
+            systemLogService.log("EXPORT", "STUDENT_PROFILE", null, userDetails.getUser(),
+                    "导出学生名册", false, "导出失败: " + e.getMessage(), request);
+            
+            // 尚未开始写出文件时返回JSON错误信息
+            if (!response.isCommitted()) {
+                response.reset();
+                response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+                objectMapper.writeValue(response.getOutputStream(), ApiResponse.fail("导出失败: " + e.getMessage()));
+            }
+        }
+    }
+    
+    /**
+     * 上传学生照片（同时生成缩略图）
+     *
+     * @param id 学生学籍ID
+     * @param photo 照片文件
+     * @param userDetails 当前登录用户
+     * @param request HTTP请求
+     * @return 上传结果
+     */
+    @PostMapping("/{id}/photo")
+    @PreAuthorize("@perm.hasPermission(#id, 'STUDENT_PHOTO_UPLOAD')")
+    public ApiResponse<StudentProfileDto> uploadPhoto(
+            @PathVariable Long id,
+            @RequestParam("photo") MultipartFile photo,
+            @AuthenticationPrincipal UserDetailsImpl userDetails,
+            HttpServletRequest request) {
+        try {
+            studentProfileService.uploadPhoto(id, photo);
+            
+            // 记录上传照片日志
+            systemLogService.log("UPLOAD_PHOTO", "STUDENT_PROFILE", id, userDetails.getUser(),
+                    "上传学生照片", true, null, request);
+            
+            return ApiResponse.success("上传成功", studentProfileService.getStudentProfileById(id));
+        } catch (Exception e) {
+            return ApiResponse.fail("上传失败: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * 获取学生照片原图
+     *
+     * @param id 学生学籍ID
+     * @param webRequest 用于ETag校验
+     * @return 照片数据
+     */
+    @GetMapping("/{id}/photo")
+    public ResponseEntity<byte[]> getPhoto(
+            @PathVariable Long id,
+            @AuthenticationPrincipal UserDetailsImpl userDetails,
+            WebRequest webRequest) {
+        StudentProfile studentProfile;
+        try {
+            studentProfile = studentProfileService.findAccessibleById(id, userDetails.getUser());
+        } catch (Exception e) {
+            return ResponseEntity.notFound().build();
+        }
+        if (studentProfile.getPhotoHash() == null) {
+            return ResponseEntity.notFound().build();
+        }
+        
+        String etag = "\"" + studentProfile.getPhotoHash() + "\"";
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        
+        StudentPhoto photo;
+        try {
+            photo = studentProfileService.getPhoto(id);
+        } catch (Exception e) {
+            return ResponseEntity.notFound().build();
+        }
+        
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.maxAge(1, TimeUnit.HOURS).cachePrivate())
+                .contentType(MediaType.parseMediaType(photo.getContentType()))
+                .body(photo.getData());
+    }
+    
+    /**
+     * 获取学生照片缩略图（列表使用）
+     * 缩略图内容由照片摘要决定，客户端可按ETag长期缓存
+     *
+     * @param id 学生学籍ID
+     * @param webRequest 用于ETag校验
+     * @return 缩略图数据
+     */
+    @GetMapping("/{id}/photo/thumbnail")
+    @PreAuthorize("@perm.hasPermission(#id, 'STUDENT_PHOTO_VIEW')")
+    public ResponseEntity<byte[]> getPhotoThumbnail(
+            @PathVariable Long id,
+            @AuthenticationPrincipal UserDetailsImpl userDetails,
+            WebRequest webRequest) {
+        StudentPhotoThumbnail thumbnail;
+        try {
+            thumbnail = studentProfileService.getPhotoThumbnail(id);
+        } catch (Exception e) {
+            return ResponseEntity.notFound().build();
+        }
+        
+        String etag = "\"" + thumbnail.getPhotoHash() + "\"";
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.maxAge(1, TimeUnit.DAYS).cachePrivate())
+                .contentType(MediaType.parseMediaType(thumbnail.getContentType()))
+                .body(thumbnail.getData());
+    }
 }
@@ -2,6 +2,7 @@ package com.graduate.management.controller;
 
 import com.graduate.management.dto.ApiResponse;
 import com.graduate.management.dto.StudentProfileDto;
+import com.graduate.management.dto.StudentProfileSummaryDto;
 import com.graduate.management.entity.StudentProfile;
 import com.graduate.management.entity.User;
 import com.graduate.management.security.UserDetailsImpl;
@@ -33,12 +34,12 @@ public class SupervisorController {
      */
     @GetMapping("/students")
     @PreAuthorize("hasRole('TEACHER')")
-    public ResponseEntity<ApiResponse<List<StudentProfileDto>>> getStudents(
+    public ResponseEntity<ApiResponse<List<StudentProfileSummaryDto>>> getStudents(
             @AuthenticationPrincipal UserDetailsImpl userDetails) {
         User currentUser = userDetails.getUser();
         List<StudentProfile> students = studentProfileService.findBySupervisor(currentUser);
-        List<StudentProfileDto> studentDtos = students.stream()
-                .map(student -> studentProfileService.convertToDto(student))
+        List<StudentProfileSummaryDto> studentDtos = students.stream()
+                .map(studentProfileService::convertToSummaryDto)
                 .collect(Collectors.toList());
         
         return ResponseEntity.ok(new ApiResponse<>(true, "获取学生列表成功", studentDtos));
@@ -56,11 +57,11 @@ public class SupervisorController {
     public ResponseEntity<ApiResponse<StudentProfileDto>> getStudentDetail(
             @AuthenticationPrincipal UserDetailsImpl userDetails,
             @PathVariable String studentId) {
-        User currentUser = userDetails.getUser();
-        StudentProfile student = studentProfileService.findByStudentId(studentId);
-        
-        // 验证该学生是否是该导师指导的学生
-        if (!student.getSupervisor().getId().equals(currentUser.getId())) {
+        // 按导师的数据范围查询，非本人指导的学生不会被加载
+        StudentProfile student;
+        try {
+            student = studentProfileService.findAccessibleByStudentId(studentId, userDetails.getUser());
+        } catch (Exception e) {
             return ResponseEntity.badRequest()
                     .body(new ApiResponse<>(false, "您无权查看此学生信息", null));
         }
@@ -1,5 +1,7 @@
 package com.graduate.management.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.graduate.management.dto.ApiResponse;
 import com.graduate.management.dto.UserDto;
 import com.graduate.management.entity.User;
@@ -11,14 +13,18 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
-import java.util.List;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 
 @Tag(name = "用户管理", description = "用户管理相关接口")
 @RestController
@@ -28,6 +34,10 @@ public class UserController {
     
     private final UserService userService;
     private final SystemLogService systemLogService;
+    private final ObjectMapper objectMapper;
+    
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int STREAM_CHUNK_SIZE = 500;
     
     @GetMapping
     @PreAuthorize("hasRole('ROLE_ADMIN') or hasRole('ROLE_SYSTEM_ADMIN') or hasRole('ROLE_GRADUATE_ADMIN')")
@@ -72,15 +82,50 @@ public class UserController {
     
     @GetMapping("/by-role/{role}")
     @PreAuthorize("hasRole('ROLE_ADMIN') or hasRole('ROLE_SYSTEM_ADMIN') or hasRole('ROLE_GRADUATE_ADMIN')")
-    public ApiResponse<List<UserDto>> getUsersByRole(@PathVariable String role) {
+    public ApiResponse<Page<UserDto>> getUsersByRole(
+            @PathVariable String role,
+            @RequestParam(required = false) String namePrefix,
+            @RequestParam(required = false) String usernamePrefix,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
         try {
-            List<UserDto> users = userService.getUsersByRole(role);
+            // 固定按ID排序，保证分页结果稳定
+            Pageable pageable = PageRequest.of(page, Math.min(size, MAX_PAGE_SIZE), Sort.by("id").ascending());
+            Page<UserDto> users = userService.getUsersByRole(role, namePrefix, usernamePrefix, pageable);
             return ApiResponse.success("查询成功", users);
         } catch (Exception e) {
             return ApiResponse.fail("查询失败: " + e.getMessage());
         }
     }
     
+    /**
+     * 按角色流式导出全部用户（JSON数组），服务端分段读取，不在内存中构建完整列表
+     */
+    @GetMapping(value = "/by-role/{role}/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasRole('ROLE_ADMIN') or hasRole('ROLE_SYSTEM_ADMIN') or hasRole('ROLE_GRADUATE_ADMIN')")
+    public ResponseEntity<StreamingResponseBody> streamUsersByRole(
+            @PathVariable String role,
+            @RequestParam(required = false) String namePrefix,
+            @RequestParam(required = false) String usernamePrefix) {
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.writeStartArray();
+                userService.streamUsersByRole(role, namePrefix, usernamePrefix, STREAM_CHUNK_SIZE, chunk -> {
+                    try {
+                        for (UserDto user : chunk) {
+                            generator.writeObject(user);
+                        }
+                        generator.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+    
     @PostMapping
     @PreAuthorize("hasRole('ROLE_ADMIN') or hasRole('ROLE_SYSTEM_ADMIN')")
     public ApiResponse<User> createUser(@Valid @RequestBody User user, HttpServletRequest request) {
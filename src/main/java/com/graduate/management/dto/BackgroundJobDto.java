@@ -0,0 +1,52 @@
+package com.graduate.management.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BackgroundJobDto {
+    
+    private Long id;
+    
+    private String jobType;
+    
+    private String status;
+    
+    private Long ownerId;
+    
+    private String ownerUsername;
+    
+    private String fileName;
+    
+    private String parameters;
+    
+    private Integer totalRows;
+    
+    private Integer processedRows;
+    
+    private Integer failedRows;
+    
+    private Integer lastCommittedRow;
+    
+    private List<String> errorRows;
+    
+    private String errorMessage;
+    
+    private boolean resultAvailable;
+    
+    private boolean resumable;
+    
+    private LocalDateTime createdAt;
+    
+    private LocalDateTime startedAt;
+    
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,44 @@
+package com.graduate.management.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+@Schema(description = "批量审核请求")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkReviewRequest {
+    
+    public static final String ACTION_APPROVE = "approve";
+    
+    public static final String ACTION_REJECT = "reject";
+    
+    @Schema(description = "待审核的ID列表", required = true)
+    @NotEmpty(message = "审核ID列表不能为空")
+    @Size(max = 5000, message = "单次最多审核5000条")
+    private List<Long> ids;
+    
+    @Schema(description = "审核动作：approve或reject", required = true)
+    @NotBlank(message = "审核动作不能为空")
+    private String action;
+    
+    @Schema(description = "审核意见（驳回时为驳回原因）")
+    private String comment;
+    
+    public boolean isValidAction() {
+        return ACTION_APPROVE.equals(action) || ACTION_REJECT.equals(action);
+    }
+    
+    public boolean isApprove() {
+        return ACTION_APPROVE.equals(action);
+    }
+}
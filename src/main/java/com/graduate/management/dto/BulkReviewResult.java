@@ -0,0 +1,52 @@
+package com.graduate.management.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 批量审核结果，逐条返回每个ID的处理结果
+ */
+@Data
+@NoArgsConstructor
+public class BulkReviewResult {
+    
+    private int succeeded;
+    
+    private int failed;
+    
+    private List<Item> results = new ArrayList<>();
+    
+    public void success(Long id) {
+        results.add(new Item(id, true, null));
+        succeeded++;
+    }
+    
+    public void fail(Long id, String message) {
+        results.add(new Item(id, false, message));
+        failed++;
+    }
+    
+    /**
+     * 处理成功的ID
+     */
+    public List<Long> succeededIds() {
+        return results.stream()
+                .filter(Item::isSuccess)
+                .map(Item::getId)
+                .collect(Collectors.toList());
+    }
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        private Long id;
+        private boolean success;
+        private String message;
+    }
+}
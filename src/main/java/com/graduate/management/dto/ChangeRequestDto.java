@@ -25,6 +25,10 @@ public class ChangeRequestDto {
     
     private String studentId;
     
+    private Long collegeId;
+    
+    private String collegeName;
+    
     private Long requesterId;
     
     private String requesterName;
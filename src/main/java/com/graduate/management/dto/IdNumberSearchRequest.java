@@ -0,0 +1,21 @@
+package com.graduate.management.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotBlank;
+
+@Schema(description = "按身份证号精确查询请求")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdNumberSearchRequest {
+    
+    @Schema(description = "身份证号", required = true)
+    @NotBlank(message = "身份证号不能为空")
+    private String idNumber;
+}
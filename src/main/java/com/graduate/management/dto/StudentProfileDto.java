@@ -73,7 +73,11 @@ public class StudentProfileDto {
     
     private String workExperience;
     
-    private byte[] photo;
+    private String photoUrl; // 照片地址，未上传照片时为空
+    
+    private String thumbnailUrl; // 缩略图地址
+    
+    private String photoHash; // 照片摘要，可作为客户端缓存键
     
     private Boolean approved;
     
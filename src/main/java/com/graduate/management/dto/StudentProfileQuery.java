@@ -0,0 +1,37 @@
+package com.graduate.management.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * 学生学籍列表筛选条件
+ * 各条件为空时不限制，非空条件之间为"并且"关系
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StudentProfileQuery {
+
+    private Long collegeId;
+
+    private Long majorId;
+
+    private Long supervisorId;
+
+    private String degreeType; // 学位类型（硕士/博士）
+
+    private Integer enrollmentYear; // 入学年份，按入学日期区间查询
+
+    private Boolean approved;
+
+    private LocalDate graduationFrom; // 预计毕业日期下限（含）
+
+    private LocalDate graduationTo; // 预计毕业日期上限（含）
+
+    private String keyword; // 姓名或学号关键词
+}
@@ -0,0 +1,51 @@
+package com.graduate.management.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * 学生学籍信息摘要（用于列表）
+ * 不包含敏感字段和照片数据，照片通过缩略图地址单独获取
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StudentProfileSummaryDto {
+    
+    private Long id;
+    
+    private String studentId;
+    
+    private String name;
+    
+    private String gender;
+    
+    private Long collegeId;
+    
+    private String collegeName;
+    
+    private Long majorId;
+    
+    private String majorName;
+    
+    private String degreeType;
+    
+    private Long supervisorId;
+    
+    private String supervisorName;
+    
+    private LocalDate enrollmentDate;
+    
+    private LocalDate expectedGraduationDate;
+    
+    private Boolean approved;
+    
+    private String thumbnailUrl; // 缩略图地址，未上传照片时为空
+    
+    private String photoHash; // 照片摘要，可作为客户端缓存键
+}
@@ -0,0 +1,27 @@
+package com.graduate.management.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserCollegeAssignmentDto {
+    
+    private Long userId;
+    
+    private String username;
+    
+    private String name;
+    
+    private Long collegeId;
+    
+    private String collegeName;
+    
+    private LocalDateTime assignedAt;
+}
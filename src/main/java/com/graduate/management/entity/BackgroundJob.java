@@ -0,0 +1,73 @@
+package com.graduate.management.entity;
+
+import lombok.Data;
+import org.hibernate.annotations.CreationTimestamp;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 后台任务
+ * 记录导入/导出等长耗时任务的状态、进度和失败行，供前端轮询
+ */
+@Data
+@Entity
+@Table(name = "background_jobs", indexes = {
+        @Index(name = "idx_jobs_owner", columnList = "owner_id, createdAt"),
+        @Index(name = "idx_jobs_status", columnList = "status"),
+        @Index(name = "idx_jobs_node_status", columnList = "nodeId, status")
+})
+public class BackgroundJob {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false, length = 50)
+    private String jobType; // 任务类型：STUDENT_IMPORT, ROSTER_EXPORT
+    
+    @Column(nullable = false, length = 20)
+    private String status; // 任务状态：PENDING, RUNNING, COMPLETED, FAILED, CANCELLED
+    
+    @ManyToOne
+    @JoinColumn(name = "owner_id", nullable = false)
+    private User owner; // 提交任务的用户
+    
+    private String fileName; // 导入的原始文件名或导出的文件名
+    
+    @Column(length = 500)
+    private String parameters; // 任务参数
+    
+    @Column(length = 500)
+    private String inputPath; // 导入文件路径，任务未完成时保留用于续传
+    
+    @Column(length = 500)
+    private String resultPath; // 导出结果文件路径
+    
+    @Column(length = 128)
+    private String nodeId; // 执行任务的节点，导入导出文件保存在该节点的任务目录中
+    
+    private LocalDateTime heartbeatAt; // 执行节点最近一次心跳时间
+    
+    private Integer totalRows; // 总行数
+    
+    private Integer processedRows; // 已处理行数
+    
+    private Integer failedRows; // 失败行数
+    
+    private Integer lastCommittedRow; // 导入任务最后提交的Excel行号
+    
+    @Lob
+    private String errorRows; // 失败行明细，每行一条
+    
+    @Column(length = 500)
+    private String errorMessage; // 任务失败原因
+    
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt; // 提交时间
+    
+    private LocalDateTime startedAt; // 开始执行时间
+    
+    private LocalDateTime finishedAt; // 结束时间
+}
@@ -9,7 +9,10 @@ import java.time.LocalDateTime;
 
 @Data
 @Entity
-@Table(name = "change_requests")
+@Table(name = "change_requests", indexes = {
+        @Index(name = "idx_change_requests_status_college", columnList = "status, college_id, createdAt"),
+        @Index(name = "idx_change_requests_status_created", columnList = "status, createdAt")
+})
 public class ChangeRequest {
     
     @Id
@@ -19,6 +22,11 @@ public class ChangeRequest {
     @ManyToOne
     @JoinColumn(name = "student_profile_id", nullable = false)
     private StudentProfile studentProfile; // 关联的学生学籍信息
+    
+    @ManyToOne
+    @JoinColumn(name = "college_id")
+    private College college; // 学生所属学院（冗余存储，用于按学院筛选审核队列）
+    
       @ManyToOne
     @JoinColumn(name = "requester_id", nullable = false)
     private User requester; // 发起请求的用户
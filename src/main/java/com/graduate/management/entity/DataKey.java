@@ -0,0 +1,31 @@
+package com.graduate.management.entity;
+
+import lombok.Data;
+import org.hibernate.annotations.CreationTimestamp;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 数据密钥
+ * 信封加密中每批数据使用一个随机SM4数据密钥，数据密钥以SM2公钥加密后保存，
+ * 密文中只记录数据密钥ID，解密时用SM2私钥解开数据密钥
+ */
+@Data
+@Entity
+@Table(name = "data_keys")
+public class DataKey {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 512)
+    private String wrappedKey; // SM2加密的SM4数据密钥（Base64）
+
+    @Column(nullable = false, length = 50)
+    private String purpose; // 用途，如STUDENT_PROFILE
+
+    @CreationTimestamp
+    private LocalDateTime createdAt; // 创建时间
+}
@@ -0,0 +1,128 @@
+package com.graduate.management.entity;
+
+import org.hibernate.annotations.Immutable;
+
+import java.util.Objects;
+import java.util.function.UnaryOperator;
+
+/**
+ * 加密字段值
+ * 实体中类型为EncryptedString的字段由{@link EncryptedStringConverter}自动加解密：
+ * 从数据库读取时只保存密文，首次访问明文时才解密，解密结果保存在该值中，
+ * 同一持久化上下文内重复访问不会再次解密。
+ *
+ * 对Hibernate而言该类型不可变（修改字段时替换为新的值），脏检查只比较引用和明文，
+ * 未修改的字段在写入时沿用原密文，不会重新加密。
+ */
+@Immutable
+public final class EncryptedString {
+
+    private final UnaryOperator<String> decryptor;
+
+    // 密文：从数据库读取的值，或首次写入时加密的结果
+    private volatile String ciphertext;
+
+    private volatile String plaintext;
+    private volatile boolean decrypted;
+
+    private EncryptedString(String ciphertext, String plaintext, boolean decrypted, UnaryOperator<String> decryptor) {
+        this.ciphertext = ciphertext;
+        this.plaintext = plaintext;
+        this.decrypted = decrypted;
+        this.decryptor = decryptor;
+    }
+
+    /**
+     * 由明文创建，写入数据库时加密
+     *
+     * @param plaintext 明文
+     * @return 加密字段值，明文为null时返回null
+     */
+    public static EncryptedString of(String plaintext) {
+        return plaintext != null ? new EncryptedString(null, plaintext, true, null) : null;
+    }
+
+    /**
+     * 由数据库中的密文创建，首次访问明文时解密
+     *
+     * @param ciphertext 密文
+     * @param decryptor 解密函数
+     * @return 加密字段值，密文为null时返回null
+     */
+    public static EncryptedString fromCiphertext(String ciphertext, UnaryOperator<String> decryptor) {
+        return ciphertext != null ? new EncryptedString(ciphertext, null, false, decryptor) : null;
+    }
+
+    /**
+     * 获取明文，允许参数为null
+     */
+    public static String plaintextOf(EncryptedString value) {
+        return value != null ? value.get() : null;
+    }
+
+    /**
+     * 获取明文，首次访问时解密
+     *
+     * @return 明文
+     */
+    public String get() {
+        if (!decrypted) {
+            synchronized (this) {
+                if (!decrypted) {
+                    plaintext = decryptor.apply(ciphertext);
+                    decrypted = true;
+                }
+            }
+        }
+        return plaintext;
+    }
+
+    /**
+     * 密文，新设置且尚未写入的值返回null
+     */
+    public String getCiphertext() {
+        return ciphertext;
+    }
+
+    /**
+     * 是否已解密（或由明文创建）
+     */
+    public boolean isDecrypted() {
+        return decrypted;
+    }
+
+    /**
+     * 记录写入时加密得到的密文，之后再次写入沿用该密文
+     */
+    void ciphertextWritten(String ciphertext) {
+        this.ciphertext = ciphertext;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof EncryptedString)) {
+            return false;
+        }
+        EncryptedString other = (EncryptedString) o;
+        if (ciphertext != null && ciphertext.equals(other.ciphertext)) {
+            return true;
+        }
+        return Objects.equals(get(), other.get());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(get());
+    }
+
+    /**
+     * 不输出明文和密文，避免写入日志
+     */
+    @Override
+    public String toString() {
+        return "EncryptedString[******]";
+    }
+}
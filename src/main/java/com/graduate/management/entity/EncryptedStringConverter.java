@@ -0,0 +1,51 @@
+package com.graduate.management.entity;
+
+import com.graduate.management.util.EnvelopeEncryptor;
+import com.graduate.management.util.SM4Util;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+
+/**
+ * 加密字段转换器，自动应用于所有EncryptedString类型的字段
+ * 读取时只包装密文，不解密；写入时新设置的明文才加密（批量写入时使用当前批次的数据密钥），
+ * 已有密文原样写回。密钥轮换期间，旧版本SM4密钥加密的值在所在记录被写入时改用当前版本密钥加密。
+ * 由Hibernate通过Spring容器创建，注入加解密工具
+ */
+@Slf4j
+@Converter(autoApply = true)
+@RequiredArgsConstructor
+public class EncryptedStringConverter implements AttributeConverter<EncryptedString, String> {
+
+    private final EnvelopeEncryptor envelopeEncryptor;
+    private final SM4Util sm4Util;
+
+    @Override
+    public String convertToDatabaseColumn(EncryptedString attribute) {
+        if (attribute == null) {
+            return null;
+        }
+
+        String ciphertext = attribute.getCiphertext();
+        if (ciphertext == null) {
+            ciphertext = envelopeEncryptor.encrypt(attribute.get());
+            attribute.ciphertextWritten(ciphertext);
+        } else if (sm4Util.needsRotation(ciphertext)) {
+            try {
+                ciphertext = sm4Util.encrypt(attribute.get());
+                attribute.ciphertextWritten(ciphertext);
+            } catch (RuntimeException e) {
+                // 无法解密时原样写回，不影响本次写入，由轮换任务记录
+                log.warn("加密字段无法用当前密钥重新加密: {}", e.getMessage());
+            }
+        }
+        return ciphertext;
+    }
+
+    @Override
+    public EncryptedString convertToEntityAttribute(String dbData) {
+        return EncryptedString.fromCiphertext(dbData, envelopeEncryptor::decrypt);
+    }
+}
@@ -0,0 +1,32 @@
+package com.graduate.management.entity;
+
+import lombok.Data;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 定时任务租约
+ * 多实例部署时每个任务一行，持有未过期租约的节点才执行该任务；
+ * 执行期间由心跳续期，节点宕机后租约到期，其他节点下次触发时接管。
+ * 读写由JobLeaseManager通过SQL完成，时间均取数据库时间，不受各节点时钟偏差影响
+ */
+@Data
+@Entity
+@Table(name = "job_leases")
+public class JobLease {
+
+    @Id
+    @Column(length = 64)
+    private String jobName; // 任务名
+
+    @Column(nullable = false, length = 128)
+    private String owner; // 持有租约的节点
+
+    @Column(nullable = false)
+    private LocalDateTime leaseUntil; // 租约到期时间
+
+    private LocalDateTime acquiredAt; // 获得租约时间
+
+    private LocalDateTime heartbeatAt; // 最近一次心跳时间
+}
@@ -0,0 +1,28 @@
+package com.graduate.management.entity;
+
+import lombok.Data;
+import org.hibernate.annotations.CreationTimestamp;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 密钥指纹
+ * 记录集群使用的密钥的指纹（公钥SM3哈希），各节点启动时比对，
+ * 加载了不同密钥的节点拒绝启动，避免写入其他节点无法解密的数据
+ */
+@Data
+@Entity
+@Table(name = "key_fingerprints")
+public class KeyFingerprint {
+
+    @Id
+    @Column(length = 32)
+    private String keyName; // 密钥名称，如SM2
+
+    @Column(nullable = false, length = 64)
+    private String fingerprint; // 密钥指纹（十六进制）
+
+    @CreationTimestamp
+    private LocalDateTime createdAt; // 首次记录时间
+}
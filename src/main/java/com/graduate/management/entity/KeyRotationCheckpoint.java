@@ -0,0 +1,51 @@
+package com.graduate.management.entity;
+
+import lombok.Data;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 密钥轮换检查点
+ * 记录每张表轮换到目标密钥版本的进度，后台重新加密任务中断后从上次处理到的主键继续
+ */
+@Data
+@Entity
+@Table(name = "key_rotation_checkpoints", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_key_rotation_table_version", columnNames = {"tableName", "targetVersion"})
+})
+public class KeyRotationCheckpoint {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 64)
+    private String tableName; // 表名
+
+    @Column(nullable = false)
+    private Integer targetVersion; // 目标密钥版本
+
+    @Column(nullable = false)
+    private Long lastId = 0L; // 已处理到的主键
+
+    @Column(nullable = false)
+    private Long scannedRows = 0L; // 已扫描行数
+
+    @Column(nullable = false)
+    private Long rotatedValues = 0L; // 已重新加密的字段值数
+
+    @Column(nullable = false)
+    private Long failedValues = 0L; // 无法解密而跳过的字段值数
+
+    @Column(nullable = false)
+    private Boolean completed = false; // 是否已完成
+
+    @CreationTimestamp
+    private LocalDateTime createdAt; // 创建时间
+
+    @UpdateTimestamp
+    private LocalDateTime updatedAt; // 更新时间
+}
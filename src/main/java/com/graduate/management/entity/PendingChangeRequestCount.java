@@ -0,0 +1,22 @@
+package com.graduate.management.entity;
+
+import lombok.Data;
+
+import javax.persistence.*;
+
+/**
+ * 学院待审核变更申请数量
+ * 每个学院一行，与申请的创建、审核、取消和删除在同一事务中增减，所有节点读取同一份计数。
+ * 读写由PendingChangeRequestCounter通过SQL完成
+ */
+@Data
+@Entity
+@Table(name = "pending_change_request_counts")
+public class PendingChangeRequestCount {
+
+    @Id
+    private Long collegeId; // 学院ID，尚未补齐学院字段的历史申请计入0
+
+    @Column(nullable = false)
+    private Long pending; // 待审核数量
+}
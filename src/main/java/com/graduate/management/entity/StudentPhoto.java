@@ -0,0 +1,34 @@
+package com.graduate.management.entity;
+
+import lombok.Data;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 学生照片原图
+ * 与学籍信息分表存放，只在下载原图时加载，列表和详情查询学籍信息时不会读取照片数据
+ */
+@Data
+@Entity
+@Table(name = "student_photos")
+public class StudentPhoto {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false, unique = true)
+    private Long studentProfileId; // 学籍信息ID
+    
+    @Lob
+    @Column(nullable = false)
+    private byte[] data; // 照片数据
+    
+    @Column(nullable = false)
+    private String contentType; // 照片类型
+    
+    @UpdateTimestamp
+    private LocalDateTime updatedAt; // 上传时间
+}
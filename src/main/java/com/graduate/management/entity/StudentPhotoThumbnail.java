@@ -0,0 +1,41 @@
+package com.graduate.management.entity;
+
+import lombok.Data;
+import org.hibernate.annotations.CreationTimestamp;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 学生照片缩略图
+ * 在上传照片时生成，单独存放，列表查询学籍信息时不会加载
+ */
+@Data
+@Entity
+@Table(name = "student_photo_thumbnails")
+public class StudentPhotoThumbnail {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false, unique = true)
+    private Long studentProfileId; // 学籍信息ID
+    
+    @Lob
+    @Column(nullable = false)
+    private byte[] data; // 缩略图数据
+    
+    @Column(nullable = false)
+    private String contentType; // 缩略图类型
+    
+    private Integer width; // 宽度
+    
+    private Integer height; // 高度
+    
+    @Column(nullable = false, length = 64)
+    private String photoHash; // 原图SM3摘要，用于缓存校验
+    
+    @CreationTimestamp
+    private LocalDateTime createdAt; // 创建时间
+}
@@ -1,16 +1,36 @@
 package com.graduate.management.entity;
 
 import lombok.Data;
+import lombok.ToString;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import javax.persistence.*;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Objects;
 
 @Data
 @Entity
-@Table(name = "student_profiles")
+@Table(name = "student_profiles", indexes = {
+        // 身份证号盲索引，用于查重和精确查询
+        @Index(name = "idx_student_id_number_hash", columnList = "idNumberHash"),
+        // 待审核队列，按学院筛选并按提交时间排序
+        @Index(name = "idx_student_pending_college", columnList = "approved, college_id, createdAt"),
+        @Index(name = "idx_student_pending_created", columnList = "approved, createdAt"),
+        // 列表筛选：数据范围（学院/导师）为前导等值列，其后依次为专业、学位类型等值列和入学日期区间列
+        @Index(name = "idx_student_college_major", columnList = "college_id, major_id, degreeType, enrollmentDate"),
+        @Index(name = "idx_student_college_degree", columnList = "college_id, degreeType, enrollmentDate"),
+        @Index(name = "idx_student_college_enrollment", columnList = "college_id, enrollmentDate"),
+        @Index(name = "idx_student_college_graduation", columnList = "college_id, expectedGraduationDate"),
+        @Index(name = "idx_student_supervisor_major", columnList = "supervisor_id, major_id, degreeType, enrollmentDate"),
+        @Index(name = "idx_student_supervisor_enrollment", columnList = "supervisor_id, enrollmentDate"),
+        // 全校范围不带学院和导师条件时的筛选
+        @Index(name = "idx_student_major_degree", columnList = "major_id, degreeType, enrollmentDate"),
+        @Index(name = "idx_student_degree_enrollment", columnList = "degreeType, enrollmentDate"),
+        @Index(name = "idx_student_enrollment", columnList = "enrollmentDate"),
+        @Index(name = "idx_student_graduation", columnList = "expectedGraduationDate")
+})
 public class StudentProfile {
     
     @Id
@@ -31,7 +51,11 @@ public class StudentProfile {
     private String gender; // 性别
     
     @Column(nullable = false)
-    private String idNumber; // 身份证号（加密存储）
+    @ToString.Exclude
+    private EncryptedString idNumber; // 身份证号（加密存储）
+    
+    @Column(length = 64)
+    private String idNumberHash; // 身份证号HMAC-SM3盲索引
     
     @ManyToOne
     @JoinColumn(name = "college_id", nullable = false)
@@ -52,13 +76,18 @@ public class StudentProfile {
     
     private LocalDate expectedGraduationDate; // 预计毕业日期
     
-    private String currentAddress; // 当前住址（加密存储）
+    @Column(length = 512)
+    @ToString.Exclude
+    private EncryptedString currentAddress; // 当前住址（加密存储）
     
-    private String permanentAddress; // 永久住址（加密存储）
+    @Column(length = 512)
+    @ToString.Exclude
+    private EncryptedString permanentAddress; // 永久住址（加密存储）
     
     private String emergencyContact; // 紧急联系人
     
-    private String emergencyPhone; // 紧急联系电话（加密存储）
+    @ToString.Exclude
+    private EncryptedString emergencyPhone; // 紧急联系电话（加密存储）
     
     @Column(length = 1000)
     private String educationBackground; // 教育背景
@@ -66,8 +95,9 @@ public class StudentProfile {
     @Column(length = 1000)
     private String workExperience; // 工作经历
     
-    @Lob
-    private byte[] photo; // 照片
+    // 照片原图和缩略图分别保存在StudentPhoto和StudentPhotoThumbnail中，查询学籍信息时不加载
+    @Column(length = 64)
+    private String photoHash; // 照片SM3摘要（缩略图缓存键），未上传照片时为空
     
     @Column(nullable = false)
     private Boolean approved = false; // 是否已通过审核
@@ -87,4 +117,46 @@ public class StudentProfile {
     
     @UpdateTimestamp
     private LocalDateTime updatedAt; // 更新时间
+    
+    // 加密字段对外读写明文，首次读取时解密，写入数据库时由EncryptedStringConverter加密；
+    // 明文未变化时保留原实例，全字段UPDATE时直接写回原密文，不重新加密
+    public String getIdNumber() {
+        return EncryptedString.plaintextOf(idNumber);
+    }
+    
+    public void setIdNumber(String idNumber) {
+        if (!Objects.equals(EncryptedString.plaintextOf(this.idNumber), idNumber)) {
+            this.idNumber = EncryptedString.of(idNumber);
+        }
+    }
+    
+    public String getCurrentAddress() {
+        return EncryptedString.plaintextOf(currentAddress);
+    }
+    
+    public void setCurrentAddress(String currentAddress) {
+        if (!Objects.equals(EncryptedString.plaintextOf(this.currentAddress), currentAddress)) {
+            this.currentAddress = EncryptedString.of(currentAddress);
+        }
+    }
+    
+    public String getPermanentAddress() {
+        return EncryptedString.plaintextOf(permanentAddress);
+    }
+    
+    public void setPermanentAddress(String permanentAddress) {
+        if (!Objects.equals(EncryptedString.plaintextOf(this.permanentAddress), permanentAddress)) {
+            this.permanentAddress = EncryptedString.of(permanentAddress);
+        }
+    }
+    
+    public String getEmergencyPhone() {
+        return EncryptedString.plaintextOf(emergencyPhone);
+    }
+    
+    public void setEmergencyPhone(String emergencyPhone) {
+        if (!Objects.equals(EncryptedString.plaintextOf(this.emergencyPhone), emergencyPhone)) {
+            this.emergencyPhone = EncryptedString.of(emergencyPhone);
+        }
+    }
 }
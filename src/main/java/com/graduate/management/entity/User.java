@@ -13,7 +13,14 @@ import java.util.Set;
 @Getter
 @Setter
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+        // 自动解锁任务按锁定状态和锁定时间扫描
+        @Index(name = "idx_users_lock", columnList = "accountNonLocked, lockedTime"),
+        // 密码过期批量检查按密码修改时间扫描
+        @Index(name = "idx_users_pwd_change", columnList = "lastPasswordChangeTime"),
+        // 按姓名前缀检索
+        @Index(name = "idx_users_name", columnList = "name")
+})
 public class User {
     
     @Id
@@ -39,7 +46,7 @@ public class User {
     
     private Integer loginAttempts = 0; // 登录失败次数
     
-    private LocalDateTime lockedTime; // 锁定时间
+    private LocalDateTime lockedTime; // 锁定时间（为空表示管理员手动锁定，不会自动解锁）
     
     private LocalDateTime lastPasswordChangeTime; // 最后修改密码时间
     
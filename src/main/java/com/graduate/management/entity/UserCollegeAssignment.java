@@ -0,0 +1,42 @@
+package com.graduate.management.entity;
+
+import lombok.Data;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 用户所属学院
+ * 学院管理员、学院秘书和学院领导各归属一个学院，用于确定其数据访问范围
+ */
+@Data
+@Entity
+@Table(name = "user_college_assignments", indexes = {
+        @Index(name = "idx_user_college_college", columnList = "college_id")
+})
+public class UserCollegeAssignment {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @OneToOne
+    @JoinColumn(name = "user_id", nullable = false, unique = true)
+    private User user; // 用户
+    
+    @ManyToOne
+    @JoinColumn(name = "college_id", nullable = false)
+    private College college; // 所属学院
+    
+    @ManyToOne
+    @JoinColumn(name = "assigned_by")
+    private User assignedBy; // 分配人
+    
+    @CreationTimestamp
+    private LocalDateTime createdAt; // 创建时间
+    
+    @UpdateTimestamp
+    private LocalDateTime updatedAt; // 更新时间
+}
@@ -0,0 +1,125 @@
+package com.graduate.management.repository;
+
+import com.graduate.management.entity.BackgroundJob;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface BackgroundJobRepository extends JpaRepository<BackgroundJob, Long> {
+    
+    Page<BackgroundJob> findByOwnerIdOrderByCreatedAtDesc(Long ownerId, Pageable pageable);
+    
+    long countByOwnerIdAndStatusIn(Long ownerId, Collection<String> statuses);
+    
+    /**
+     * 查询指定节点上已过保留期、仍有导入或导出文件的任务（文件保存在执行节点本地）
+     */
+    @Query("SELECT j FROM BackgroundJob j WHERE j.nodeId = :nodeId " +
+           "AND (j.resultPath IS NOT NULL OR j.inputPath IS NOT NULL) AND j.finishedAt < :cutoff")
+    List<BackgroundJob> findExpiredWithFiles(@Param("nodeId") String nodeId, @Param("cutoff") LocalDateTime cutoff);
+    
+    /**
+     * 任务开始执行，只更新仍在排队的任务，已被取消的返回0
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE BackgroundJob j SET j.status = :status, j.startedAt = :startedAt " +
+           "WHERE j.id = :id AND j.status = :pendingStatus")
+    int markStarted(@Param("id") Long id, @Param("pendingStatus") String pendingStatus,
+                    @Param("status") String status, @Param("startedAt") LocalDateTime startedAt);
+    
+    /**
+     * 查询任务状态，执行节点据此发现在其他节点上提交的取消
+     */
+    @Query("SELECT j.status FROM BackgroundJob j WHERE j.id = :id")
+    String findStatusById(@Param("id") Long id);
+    
+    /**
+     * 按当前状态有条件地修改任务状态，状态已被其他请求改变时返回0，不覆盖已记录的结果
+     *
+     * @param finishedAt 结束时间，执行中的任务被取消时传null，由执行节点停止后写入
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE BackgroundJob j SET j.status = :status, j.errorMessage = :message, j.finishedAt = :finishedAt " +
+           "WHERE j.id = :id AND j.status IN :expectedStatuses")
+    int transition(@Param("id") Long id, @Param("expectedStatuses") Collection<String> expectedStatuses,
+                   @Param("status") String status, @Param("message") String message,
+                   @Param("finishedAt") LocalDateTime finishedAt);
+    
+    /**
+     * 执行节点停止已被取消的任务后记录结束时间
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE BackgroundJob j SET j.finishedAt = :now WHERE j.id = :id AND j.finishedAt IS NULL")
+    int markStopped(@Param("id") Long id, @Param("now") LocalDateTime now);
+    
+    /**
+     * 定期刷新执行进度，不加载实体
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE BackgroundJob j SET j.totalRows = :totalRows, j.processedRows = :processedRows, " +
+           "j.failedRows = :failedRows WHERE j.id = :id")
+    int updateProgress(@Param("id") Long id, @Param("totalRows") Integer totalRows,
+                       @Param("processedRows") Integer processedRows, @Param("failedRows") Integer failedRows);
+    
+    /**
+     * 记录导入任务的提交位置，在导入数据的事务中执行
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE BackgroundJob j SET j.lastCommittedRow = :lastCommittedRow WHERE j.id = :id")
+    int updateCommittedRow(@Param("id") Long id, @Param("lastCommittedRow") Integer lastCommittedRow);
+    
+    /**
+     * 节点重启后，将该节点重启前未完成的任务标记为失败
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE BackgroundJob j SET j.status = :failedStatus, j.errorMessage = :message, j.finishedAt = :now " +
+           "WHERE j.nodeId = :nodeId AND j.status IN :statuses")
+    int failInterruptedJobs(@Param("nodeId") String nodeId, @Param("statuses") Collection<String> statuses,
+                            @Param("failedStatus") String failedStatus, @Param("message") String message,
+                            @Param("now") LocalDateTime now);
+    
+    /**
+     * 刷新本节点执行中任务的心跳
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE BackgroundJob j SET j.heartbeatAt = :now WHERE j.id IN :ids")
+    int touchHeartbeat(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+    
+    /**
+     * 将长时间没有心跳的未完成任务标记为失败（所在节点已停止或下线）
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE BackgroundJob j SET j.status = :failedStatus, j.errorMessage = :message, j.finishedAt = :now " +
+           "WHERE j.status IN :statuses AND (j.heartbeatAt IS NULL OR j.heartbeatAt < :cutoff)")
+    int failStaleJobs(@Param("statuses") Collection<String> statuses, @Param("cutoff") LocalDateTime cutoff,
+                      @Param("failedStatus") String failedStatus, @Param("message") String message,
+                      @Param("now") LocalDateTime now);
+    
+    /**
+     * 已取消但执行节点长时间没有心跳、未能记录结束时间的任务，视为已停止
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE BackgroundJob j SET j.finishedAt = :now WHERE j.status = :cancelledStatus " +
+           "AND j.finishedAt IS NULL AND (j.heartbeatAt IS NULL OR j.heartbeatAt < :cutoff)")
+    int stopStaleCancelledJobs(@Param("cancelledStatus") String cancelledStatus, @Param("cutoff") LocalDateTime cutoff,
+                               @Param("now") LocalDateTime now);
+}
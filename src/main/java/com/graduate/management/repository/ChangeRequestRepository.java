@@ -1,12 +1,20 @@
 package com.graduate.management.repository;
 
 import com.graduate.management.entity.ChangeRequest;
+import com.graduate.management.entity.College;
 import com.graduate.management.entity.StudentProfile;
 import com.graduate.management.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface ChangeRequestRepository extends JpaRepository<ChangeRequest, Long> {
@@ -22,4 +30,67 @@ public interface ChangeRequestRepository extends JpaRepository<ChangeRequest, Lo
     Page<ChangeRequest> findByStatus(String status, Pageable pageable);
     
     Page<ChangeRequest> findByStudentProfileAndStatus(StudentProfile studentProfile, String status, Pageable pageable);
+    
+    @EntityGraph(attributePaths = {"studentProfile", "requester", "reviewer", "college"})
+    Page<ChangeRequest> findByCollegeIdAndStatus(Long collegeId, String status, Pageable pageable);
+    
+    @EntityGraph(attributePaths = {"studentProfile", "requester", "reviewer", "college"})
+    Page<ChangeRequest> findByCollegeId(Long collegeId, Pageable pageable);
+    
+    /**
+     * 锁定学生的待审核申请并返回其学院ID（SELECT ... FOR UPDATE），用于学生调整学院时转移待审核计数
+     */
+    @Query(value = "SELECT cr.college_id FROM change_requests cr " +
+                   "WHERE cr.student_profile_id = :studentProfileId AND cr.status = 'PENDING' ORDER BY cr.id FOR UPDATE",
+           nativeQuery = true)
+    List<Number> lockPendingCollegeIds(@Param("studentProfileId") Long studentProfileId);
+    
+    /**
+     * 学生调整学院后，同步其变更申请的冗余学院字段
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE ChangeRequest cr SET cr.college = :college WHERE cr.studentProfile.id = :studentProfileId")
+    int updateCollegeByStudentProfileId(@Param("studentProfileId") Long studentProfileId, @Param("college") College college);
+    
+    /**
+     * 为历史数据补齐冗余学院字段
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE ChangeRequest cr SET cr.college = " +
+           "(SELECT sp.college FROM StudentProfile sp WHERE sp = cr.studentProfile) WHERE cr.college IS NULL")
+    int backfillCollege();
+    
+    /**
+     * 按ID顺序锁定待审核的变更申请（SELECT ... FOR UPDATE），用于批量审核
+     */
+    @Query(value = "SELECT cr.id AS id, cr.status AS status, cr.college_id AS collegeId, " +
+                   "cr.student_profile_id AS studentProfileId, cr.field_name AS fieldName, cr.new_value AS newValue " +
+                   "FROM change_requests cr WHERE cr.id IN (:ids) ORDER BY cr.id FOR UPDATE", nativeQuery = true)
+    List<ReviewRow> lockForReview(@Param("ids") Collection<Long> ids);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE ChangeRequest cr SET cr.status = :status, cr.reviewer = :reviewer, cr.comment = :comment, " +
+           "cr.reviewTime = :reviewTime, cr.updatedAt = :reviewTime WHERE cr.id IN :ids AND cr.status = 'PENDING'")
+    int reviewAll(@Param("ids") Collection<Long> ids, @Param("status") String status, @Param("reviewer") User reviewer,
+                  @Param("comment") String comment, @Param("reviewTime") LocalDateTime reviewTime);
+    
+    /**
+     * 批量审核时锁定的变更申请
+     */
+    interface ReviewRow {
+        Long getId();
+        
+        String getStatus();
+        
+        Long getCollegeId();
+        
+        Long getStudentProfileId();
+        
+        String getFieldName();
+        
+        String getNewValue();
+    }
 }
@@ -0,0 +1,11 @@
+package com.graduate.management.repository;
+
+import com.graduate.management.entity.DataKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface DataKeyRepository extends JpaRepository<DataKey, Long> {
+
+    Optional<DataKey> findTopByOrderByIdDesc();
+}
@@ -0,0 +1,7 @@
+package com.graduate.management.repository;
+
+import com.graduate.management.entity.KeyFingerprint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface KeyFingerprintRepository extends JpaRepository<KeyFingerprint, String> {
+}
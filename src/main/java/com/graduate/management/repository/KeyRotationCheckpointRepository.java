@@ -0,0 +1,11 @@
+package com.graduate.management.repository;
+
+import com.graduate.management.entity.KeyRotationCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface KeyRotationCheckpointRepository extends JpaRepository<KeyRotationCheckpoint, Long> {
+
+    Optional<KeyRotationCheckpoint> findByTableNameAndTargetVersion(String tableName, Integer targetVersion);
+}
@@ -0,0 +1,13 @@
+package com.graduate.management.repository;
+
+import com.graduate.management.entity.StudentPhoto;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface StudentPhotoRepository extends JpaRepository<StudentPhoto, Long> {
+    
+    Optional<StudentPhoto> findByStudentProfileId(Long studentProfileId);
+    
+    void deleteByStudentProfileId(Long studentProfileId);
+}
@@ -0,0 +1,13 @@
+package com.graduate.management.repository;
+
+import com.graduate.management.entity.StudentPhotoThumbnail;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface StudentPhotoThumbnailRepository extends JpaRepository<StudentPhotoThumbnail, Long> {
+    
+    Optional<StudentPhotoThumbnail> findByStudentProfileId(Long studentProfileId);
+    
+    void deleteByStudentProfileId(Long studentProfileId);
+}
@@ -1,77 +1,247 @@
 package com.graduate.management.repository;
 
-import com.graduate.management.entity.College;
+import com.graduate.management.entity.EncryptedString;
 import com.graduate.management.entity.Major;
 import com.graduate.management.entity.StudentProfile;
 import com.graduate.management.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.QueryHint;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface StudentProfileRepository extends JpaRepository<StudentProfile, Long> {
+public interface StudentProfileRepository extends JpaRepository<StudentProfile, Long>,
+        JpaSpecificationExecutor<StudentProfile> {
+    
+    String SUMMARY_COLUMNS = "sp.id AS id, sp.studentId AS studentId, sp.name AS name, sp.gender AS gender, " +
+            "c.id AS collegeId, c.name AS collegeName, m.id AS majorId, m.name AS majorName, " +
+            "sp.degreeType AS degreeType, sup.id AS supervisorId, sup.name AS supervisorName, " +
+            "sp.enrollmentDate AS enrollmentDate, sp.expectedGraduationDate AS expectedGraduationDate, " +
+            "sp.approved AS approved, sp.photoHash AS photoHash";
     
     Optional<StudentProfile> findByStudentId(String studentId);
     
-    Optional<StudentProfile> findByUser(User user);
+    /**
+     * 按条件分页查询，学院、专业和导师随学籍记录一起连接查询
+     */
+    @Override
+    @EntityGraph(attributePaths = {"college", "major", "supervisor"})
+    Page<StudentProfile> findAll(Specification<StudentProfile> spec, Pageable pageable);
     
-    List<StudentProfile> findByCollege(College college);
+    @Override
+    @EntityGraph(attributePaths = {"college", "major", "supervisor"})
+    Optional<StudentProfile> findOne(Specification<StudentProfile> spec);
     
-    List<StudentProfile> findByMajor(Major major);
+    Optional<StudentProfile> findByUser(User user);
     
     List<StudentProfile> findBySupervisor(User supervisor);
     
-    List<StudentProfile> findByCreatedBy(User createdBy);
+    @Query("SELECT sp.college.id FROM StudentProfile sp WHERE sp.id = :id")
+    Optional<Long> findCollegeIdById(@Param("id") Long id);
     
-    Page<StudentProfile> findByCollege(College college, Pageable pageable);
+    @Query("SELECT sp.id FROM StudentProfile sp WHERE sp.user.id = :userId")
+    Optional<Long> findIdByUserId(@Param("userId") Long userId);
     
-    Page<StudentProfile> findByMajor(Major major, Pageable pageable);
+    @Query("SELECT sp.user.id FROM StudentProfile sp WHERE sp.id = :id")
+    Optional<Long> findUserIdById(@Param("id") Long id);
     
-    Page<StudentProfile> findBySupervisor(User supervisor, Pageable pageable);
+    /**
+     * 权限判断所需的学院和导师ID，按主键查询，不加载整条学籍记录
+     */
+    @Query("SELECT sp.college.id AS collegeId, sp.supervisor.id AS supervisorId FROM StudentProfile sp WHERE sp.id = :id")
+    Optional<OwnerRow> findOwnerById(@Param("id") Long id);
     
-    Page<StudentProfile> findByCollegeAndApproved(College college, Boolean approved, Pageable pageable);
+    /**
+     * 每个创建人最早创建的学籍记录所属学院，用于从旧的推断方式迁移用户学院分配
+     */
+    @Query("SELECT sp.createdBy.id, sp.college.id FROM StudentProfile sp WHERE sp.id IN " +
+           "(SELECT MIN(p.id) FROM StudentProfile p WHERE p.createdBy IS NOT NULL GROUP BY p.createdBy)")
+    List<Object[]> findFirstCreatedCollegeByCreator();
     
-    Page<StudentProfile> findBySupervisorAndApproved(User supervisor, Boolean approved, Pageable pageable);
+    @Query("SELECT MAX(CAST(SUBSTRING(s.studentId, LENGTH(s.studentId) - 2, 3) AS int)) FROM StudentProfile s " +
+           "WHERE s.major = ?1 AND s.degreeType = ?2 AND SUBSTRING(s.studentId, 1, 4) = SUBSTRING(CAST(YEAR(CURRENT_DATE) AS string), 1, 4)")
+    Integer findMaxSequenceByMajorAndDegreeType(Major major, String degreeType);
+    
+    boolean existsByStudentId(String studentId);
+    
+    /**
+     * 按身份证号盲索引精确查询
+     */
+    List<StudentProfile> findByIdNumberHash(String idNumberHash);
+    
+    /**
+     * 批量查重：返回已存在的身份证号盲索引
+     */
+    @Query("SELECT sp.idNumberHash FROM StudentProfile sp WHERE sp.idNumberHash IN :hashes")
+    List<String> findExistingIdNumberHashes(@Param("hashes") Collection<String> hashes);
     
-    Page<StudentProfile> findByNameContainingOrStudentIdContaining(String name, String studentId, Pageable pageable);
+    /**
+     * 按ID顺序读取尚未生成盲索引的记录（id, 身份证号EncryptedString），用于回填
+     */
+    @Query("SELECT sp.id, sp.idNumber FROM StudentProfile sp WHERE sp.idNumberHash IS NULL AND sp.id > :afterId ORDER BY sp.id")
+    List<Object[]> findIdNumbersWithoutHash(@Param("afterId") Long afterId, Pageable pageable);
     
-    @Query("SELECT sp FROM StudentProfile sp WHERE sp.supervisor = ?1 AND (sp.name LIKE %?2% OR sp.studentId LIKE %?3%)")
-    Page<StudentProfile> findBySupervisorAndNameContainingOrStudentIdContaining(
-            User supervisor, String name, String studentId, Pageable pageable);
+    @Modifying
+    @Transactional
+    @Query("UPDATE StudentProfile sp SET sp.idNumberHash = :hash WHERE sp.id = :id")
+    int updateIdNumberHash(@Param("id") Long id, @Param("hash") String hash);
+
+    /**
+     * 按范围流式读取名册数据（只读投影，按游标分批从数据库获取，不进入持久化上下文）
+     * 参数为空表示不限制该条件
+     */
+    @QueryHints({
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_READONLY, value = "true")
+    })
+    @Query("SELECT sp.id AS id, sp.studentId AS studentId, sp.name AS name, sp.gender AS gender, " +
+           "sp.idNumber AS idNumber, c.name AS collegeName, m.name AS majorName, sp.degreeType AS degreeType, " +
+           "sup.name AS supervisorName, sp.enrollmentDate AS enrollmentDate, " +
+           "sp.expectedGraduationDate AS expectedGraduationDate, sp.currentAddress AS currentAddress, " +
+           "sp.permanentAddress AS permanentAddress, sp.emergencyContact AS emergencyContact, " +
+           "sp.emergencyPhone AS emergencyPhone, sp.approved AS approved, " +
+           "c.id AS collegeId, sup.id AS supervisorId " +
+           "FROM StudentProfile sp JOIN sp.college c JOIN sp.major m JOIN sp.supervisor sup " +
+           "WHERE (:collegeId IS NULL OR c.id = :collegeId) " +
+           "AND (:majorId IS NULL OR m.id = :majorId) " +
+           "AND (:supervisorId IS NULL OR sup.id = :supervisorId) " +
+           "ORDER BY sp.id")
+    Stream<RosterRow> streamRoster(@Param("collegeId") Long collegeId,
+                                   @Param("majorId") Long majorId,
+                                   @Param("supervisorId") Long supervisorId);
     
-    @Query("SELECT sp FROM StudentProfile sp WHERE sp.major = ?1 AND (sp.name LIKE %?2% OR sp.studentId LIKE %?3%)")
-    Page<StudentProfile> findByMajorAndNameContainingOrStudentIdContaining(
-            Major major, String name, String studentId, Pageable pageable);
+    /**
+     * 待审核队列（摘要投影，不加载照片和加密字段），按提交时间先后排序
+     */
+    @Query(value = "SELECT " + SUMMARY_COLUMNS + " FROM StudentProfile sp JOIN sp.college c JOIN sp.major m " +
+                   "JOIN sp.supervisor sup WHERE sp.approved = false ORDER BY sp.createdAt, sp.id",
+           countQuery = "SELECT COUNT(sp) FROM StudentProfile sp WHERE sp.approved = false")
+    Page<SummaryRow> findPendingApprovals(Pageable pageable);
     
-    Page<StudentProfile> findByCollegeAndNameContainingOrCollegeAndStudentIdContaining(
-            College college1, String name, College college2, String studentId, Pageable pageable);
+    @Query(value = "SELECT " + SUMMARY_COLUMNS + " FROM StudentProfile sp JOIN sp.college c JOIN sp.major m " +
+                   "JOIN sp.supervisor sup WHERE sp.approved = false AND c.id = :collegeId ORDER BY sp.createdAt, sp.id",
+           countQuery = "SELECT COUNT(sp) FROM StudentProfile sp WHERE sp.approved = false AND sp.college.id = :collegeId")
+    Page<SummaryRow> findPendingApprovalsByCollege(@Param("collegeId") Long collegeId, Pageable pageable);
     
-    List<StudentProfile> findByApproved(boolean approved);
+    /**
+     * 按ID顺序锁定学籍记录（SELECT ... FOR UPDATE），用于批量审核
+     */
+    @Query(value = "SELECT sp.id AS id, sp.approved AS approved FROM student_profiles sp " +
+                   "WHERE sp.id IN (:ids) ORDER BY sp.id FOR UPDATE", nativeQuery = true)
+    List<ApprovalRow> lockForApproval(@Param("ids") Collection<Long> ids);
     
-    @Query("SELECT sp FROM StudentProfile sp WHERE sp.name LIKE %?1% OR sp.studentId LIKE %?1%")
-    Page<StudentProfile> searchByNameOrStudentId(String keyword, Pageable pageable);
+    @Modifying
+    @Transactional
+    @Query("UPDATE StudentProfile sp SET sp.approved = true, sp.approver = :approver, sp.approveTime = :approveTime, " +
+           "sp.updatedAt = :approveTime WHERE sp.id IN :ids AND sp.approved = false")
+    int approveAll(@Param("ids") Collection<Long> ids, @Param("approver") User approver,
+                   @Param("approveTime") LocalDateTime approveTime);
     
-    @Query("SELECT sp FROM StudentProfile sp WHERE sp.college = ?1 AND (sp.name LIKE %?2% OR sp.studentId LIKE %?2%)")
-    Page<StudentProfile> searchByCollegeAndNameOrStudentId(College college, String keyword, Pageable pageable);
+    /**
+     * 名册导出行投影
+     */
+    interface RosterRow {
+        Long getId();
+        
+        String getStudentId();
+        
+        String getName();
+        
+        String getGender();
+        
+        EncryptedString getIdNumber();
+        
+        String getCollegeName();
+        
+        String getMajorName();
+        
+        String getDegreeType();
+        
+        String getSupervisorName();
+        
+        LocalDate getEnrollmentDate();
+        
+        LocalDate getExpectedGraduationDate();
+        
+        EncryptedString getCurrentAddress();
+        
+        EncryptedString getPermanentAddress();
+        
+        String getEmergencyContact();
+        
+        EncryptedString getEmergencyPhone();
+        
+        Boolean getApproved();
+        
+        Long getCollegeId();
+        
+        Long getSupervisorId();
+    }
     
-    @Query("SELECT MAX(CAST(SUBSTRING(s.studentId, LENGTH(s.studentId) - 2, 3) AS int)) FROM StudentProfile s " +
-           "WHERE s.major = ?1 AND s.degreeType = ?2 AND SUBSTRING(s.studentId, 1, 4) = SUBSTRING(CAST(YEAR(CURRENT_DATE) AS string), 1, 4)")
-    Integer findMaxSequenceByMajorAndDegreeType(Major major, String degreeType);
+    /**
+     * 列表摘要投影
+     */
+    interface SummaryRow {
+        Long getId();
+        
+        String getStudentId();
+        
+        String getName();
+        
+        String getGender();
+        
+        Long getCollegeId();
+        
+        String getCollegeName();
+        
+        Long getMajorId();
+        
+        String getMajorName();
+        
+        String getDegreeType();
+        
+        Long getSupervisorId();
+        
+        String getSupervisorName();
+        
+        LocalDate getEnrollmentDate();
+        
+        LocalDate getExpectedGraduationDate();
+        
+        Boolean getApproved();
+        
+        String getPhotoHash();
+    }
     
-    boolean existsByStudentId(String studentId);
-
     /**
-     * 查找指定导师和专业下的学生，并按姓名或学号筛选
+     * 学籍记录的归属学院和导师
      */
-    @Query("SELECT sp FROM StudentProfile sp WHERE sp.supervisor = ?1 AND sp.major = ?2 AND (sp.name LIKE %?3% OR sp.studentId LIKE %?4%)")
-    Page<StudentProfile> findBySupervisorAndMajorAndNameOrStudentIdContaining(
-            User supervisor, Major major, String name, String studentId, Pageable pageable);
+    interface OwnerRow {
+        Long getCollegeId();
+        
+        Long getSupervisorId();
+    }
     
     /**
-     * 查找指定导师和专业下的学生
+     * 批量审核时锁定的学籍记录
      */
-    Page<StudentProfile> findBySupervisorAndMajor(User supervisor, Major major, Pageable pageable);
+    interface ApprovalRow {
+        Long getId();
+        
+        Boolean getApproved();
+    }
 }
@@ -0,0 +1,157 @@
+package com.graduate.management.repository;
+
+import com.graduate.management.dto.StudentProfileQuery;
+import com.graduate.management.entity.StudentProfile;
+import com.graduate.management.security.DataScope;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+
+/**
+ * 学生学籍查询条件
+ * 用户的数据范围转换为查询条件与业务筛选条件一起下推到SQL，
+ * 列表、搜索、计数和详情查询都不会加载范围外的记录。
+ * 筛选条件只使用等值和区间比较，与StudentProfile上声明的组合索引对应，
+ * 入学年份转换为入学日期区间，不对列使用函数，以便走索引范围扫描
+ */
+public final class StudentProfileSpecifications {
+
+    private static final char LIKE_ESCAPE = '\\';
+
+    private StudentProfileSpecifications() {
+    }
+
+    /**
+     * 数据范围条件：全校不限制，本学院按学院ID，导师按导师ID，学生只能看到本人
+     *
+     * @param scope 数据范围
+     * @return 查询条件
+     */
+    public static Specification<StudentProfile> visibleTo(DataScope scope) {
+        switch (scope.getLevel()) {
+            case ALL:
+                return (root, query, cb) -> cb.conjunction();
+            case COLLEGE:
+                return scope.getCollegeId() != null
+                        ? (root, query, cb) -> cb.equal(root.get("college").get("id"), scope.getCollegeId())
+                        : none();
+            case SUPERVISED:
+                return (root, query, cb) -> cb.equal(root.get("supervisor").get("id"), scope.getUserId());
+            case SELF:
+                return scope.getStudentProfileId() != null ? idIs(scope.getStudentProfileId()) : none();
+            default:
+                return none();
+        }
+    }
+
+    public static Specification<StudentProfile> idIs(Long id) {
+        return (root, query, cb) -> cb.equal(root.get("id"), id);
+    }
+
+    public static Specification<StudentProfile> studentIdIs(String studentId) {
+        return (root, query, cb) -> cb.equal(root.get("studentId"), studentId);
+    }
+
+    /**
+     * 按学院筛选，参数为空时不限制
+     */
+    public static Specification<StudentProfile> collegeIs(Long collegeId) {
+        return collegeId == null ? null : (root, query, cb) -> cb.equal(root.get("college").get("id"), collegeId);
+    }
+
+    /**
+     * 按专业筛选，参数为空时不限制
+     */
+    public static Specification<StudentProfile> majorIs(Long majorId) {
+        return majorId == null ? null : (root, query, cb) -> cb.equal(root.get("major").get("id"), majorId);
+    }
+
+    /**
+     * 按导师筛选，参数为空时不限制
+     */
+    public static Specification<StudentProfile> supervisorIs(Long supervisorId) {
+        return supervisorId == null ? null : (root, query, cb) -> cb.equal(root.get("supervisor").get("id"), supervisorId);
+    }
+
+    /**
+     * 按学位类型筛选，参数为空时不限制
+     */
+    public static Specification<StudentProfile> degreeTypeIs(String degreeType) {
+        return degreeType == null || degreeType.isEmpty()
+                ? null : (root, query, cb) -> cb.equal(root.get("degreeType"), degreeType);
+    }
+
+    /**
+     * 按入学年份筛选，转换为[当年1月1日, 次年1月1日)的日期区间，参数为空时不限制
+     */
+    public static Specification<StudentProfile> enrolledIn(Integer year) {
+        if (year == null) {
+            return null;
+        }
+        LocalDate from = LocalDate.of(year, 1, 1);
+        LocalDate to = from.plusYears(1);
+        return (root, query, cb) -> cb.and(
+                cb.greaterThanOrEqualTo(root.get("enrollmentDate"), from),
+                cb.lessThan(root.get("enrollmentDate"), to));
+    }
+
+    /**
+     * 按审核状态筛选，参数为空时不限制
+     */
+    public static Specification<StudentProfile> approvedIs(Boolean approved) {
+        return approved == null ? null : (root, query, cb) -> cb.equal(root.get("approved"), approved);
+    }
+
+    /**
+     * 按预计毕业日期区间筛选（两端均包含），任一端为空时该端不限制
+     */
+    public static Specification<StudentProfile> graduatingBetween(LocalDate from, LocalDate to) {
+        Specification<StudentProfile> lower = from == null
+                ? null : (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("expectedGraduationDate"), from);
+        Specification<StudentProfile> upper = to == null
+                ? null : (root, query, cb) -> cb.lessThanOrEqualTo(root.get("expectedGraduationDate"), to);
+        return lower == null ? upper : lower.and(upper);
+    }
+
+    /**
+     * 组合全部筛选条件
+     * 关键词为前后模糊匹配，无法使用索引，在其他条件通过索引缩小范围后再逐行过滤
+     *
+     * @param criteria 筛选条件
+     * @return 查询条件
+     */
+    public static Specification<StudentProfile> matches(StudentProfileQuery criteria) {
+        return Specification.where(collegeIs(criteria.getCollegeId()))
+                .and(majorIs(criteria.getMajorId()))
+                .and(supervisorIs(criteria.getSupervisorId()))
+                .and(degreeTypeIs(criteria.getDegreeType()))
+                .and(enrolledIn(criteria.getEnrollmentYear()))
+                .and(approvedIs(criteria.getApproved()))
+                .and(graduatingBetween(criteria.getGraduationFrom(), criteria.getGraduationTo()))
+                .and(keywordMatches(criteria.getKeyword()));
+    }
+
+    /**
+     * 按姓名或学号模糊匹配，关键词中的通配符按字面匹配，关键词为空时不限制
+     */
+    public static Specification<StudentProfile> keywordMatches(String keyword) {
+        if (keyword == null || keyword.isEmpty()) {
+            return null;
+        }
+        String pattern = "%" + escapeLike(keyword) + "%";
+        return (root, query, cb) -> cb.or(
+                cb.like(root.get("name"), pattern, LIKE_ESCAPE),
+                cb.like(root.get("studentId"), pattern, LIKE_ESCAPE));
+    }
+
+    private static String escapeLike(String value) {
+        return value
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+
+    private static Specification<StudentProfile> none() {
+        return (root, query, cb) -> cb.disjunction();
+    }
+}
@@ -0,0 +1,29 @@
+package com.graduate.management.repository;
+
+import com.graduate.management.entity.UserCollegeAssignment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface UserCollegeAssignmentRepository extends JpaRepository<UserCollegeAssignment, Long> {
+    
+    Optional<UserCollegeAssignment> findByUserId(Long userId);
+    
+    @Query("SELECT a.college.id FROM UserCollegeAssignment a WHERE a.user.id = :userId")
+    Optional<Long> findCollegeIdByUserId(@Param("userId") Long userId);
+    
+    @Query("SELECT a FROM UserCollegeAssignment a JOIN FETCH a.user JOIN FETCH a.college WHERE a.college.id = :collegeId ORDER BY a.user.id")
+    List<UserCollegeAssignment> findByCollegeIdWithUser(@Param("collegeId") Long collegeId);
+    
+    boolean existsByCollegeId(Long collegeId);
+    
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM UserCollegeAssignment a WHERE a.user.id = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+}
@@ -1,12 +1,17 @@
 package com.graduate.management.repository;
 
 import com.graduate.management.entity.User;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
@@ -29,12 +34,94 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @Transactional
     @Query("UPDATE User u SET u.password = ?1, u.lastPasswordChangeTime = ?2, u.firstLogin = false WHERE u.username = ?3")
     void updatePassword(String password, LocalDateTime changeTime, String username);
-      @Modifying
+    
+    // 查询锁定已到期的用户名（走idx_users_lock索引，仅扫描被锁定的账号）
+    @Query("SELECT u.username FROM User u WHERE u.accountNonLocked = false AND u.lockedTime IS NOT NULL AND u.lockedTime <= ?1")
+    List<String> findUsernamesWithExpiredLock(LocalDateTime cutoff);
+    
+    // 批量解除到期锁定
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.accountNonLocked = true, u.lockedTime = null, u.loginAttempts = 0 " +
+           "WHERE u.accountNonLocked = false AND u.lockedTime IS NOT NULL AND u.lockedTime <= ?1")
+    int unlockExpiredAccounts(LocalDateTime cutoff);
+    
+    // 从未修改过密码的账号，以创建时间作为密码修改时间
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.lastPasswordChangeTime = u.createdAt WHERE u.lastPasswordChangeTime IS NULL")
+    int backfillLastPasswordChangeTime();
+    
+    // 批量标记密码已过期的账号（需要修改密码）
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.firstLogin = true WHERE u.lastPasswordChangeTime < ?1 AND u.firstLogin = false")
+    int markPasswordExpired(LocalDateTime cutoff);
+    
+    // 仅替换密码哈希（用于哈希参数升级），不更新密码修改时间
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.password = ?1 WHERE u.username = ?2")
+    void updatePasswordHash(String password, String username);
+    
+    @Modifying
     @Transactional
     @Query("UPDATE User u SET u.lastLoginTime = ?1 WHERE u.username = ?2")
     void updateLastLoginTime(LocalDateTime loginTime, String username);
     
+    // 按角色分页查询用户摘要（只查询列表所需字段，不加载角色集合）
+    @Query(value = "SELECT u.id AS id, u.username AS username, u.name AS name, u.email AS email, u.phone AS phone, " +
+                   "u.enabled AS enabled, u.accountNonLocked AS accountNonLocked, u.firstLogin AS firstLogin " +
+                   "FROM User u JOIN u.roles r WHERE r.name = :role " +
+                   "AND (:namePrefix IS NULL OR u.name LIKE CONCAT(:namePrefix, '%')) " +
+                   "AND (:usernamePrefix IS NULL OR u.username LIKE CONCAT(:usernamePrefix, '%'))",
+           countQuery = "SELECT COUNT(u.id) FROM User u JOIN u.roles r WHERE r.name = :role " +
+                        "AND (:namePrefix IS NULL OR u.name LIKE CONCAT(:namePrefix, '%')) " +
+                        "AND (:usernamePrefix IS NULL OR u.username LIKE CONCAT(:usernamePrefix, '%'))")
+    Page<UserSummary> findSummariesByRole(@Param("role") String role,
+                                          @Param("namePrefix") String namePrefix,
+                                          @Param("usernamePrefix") String usernamePrefix,
+                                          Pageable pageable);
+    
+    // 按角色以主键游标分段查询用户摘要（用于流式导出，不执行COUNT）
+    @Query("SELECT u.id AS id, u.username AS username, u.name AS name, u.email AS email, u.phone AS phone, " +
+           "u.enabled AS enabled, u.accountNonLocked AS accountNonLocked, u.firstLogin AS firstLogin " +
+           "FROM User u JOIN u.roles r WHERE r.name = :role AND u.id > :afterId " +
+           "AND (:namePrefix IS NULL OR u.name LIKE CONCAT(:namePrefix, '%')) " +
+           "AND (:usernamePrefix IS NULL OR u.username LIKE CONCAT(:usernamePrefix, '%')) " +
+           "ORDER BY u.id")
+    List<UserSummary> findSummariesByRoleAfter(@Param("role") String role,
+                                               @Param("namePrefix") String namePrefix,
+                                               @Param("usernamePrefix") String usernamePrefix,
+                                               @Param("afterId") Long afterId,
+                                               Pageable pageable);
+    
+    // 批量查询一组用户的角色名称，返回[用户ID, 角色名称]
+    @Query("SELECT u.id, r.name FROM User u JOIN u.roles r WHERE u.id IN ?1")
+    List<Object[]> findRoleNamesByUserIds(Collection<Long> userIds);
+    
     // 根据姓名和角色查找用户（主要用于查找导师）
     @Query("SELECT u FROM User u JOIN u.roles r WHERE u.name = ?1 AND r.name = ?2")
     Optional<User> findByNameAndRoles_Name(String name, String roleName);
+    
+    /**
+     * 用户列表摘要投影
+     */
+    interface UserSummary {
+        Long getId();
+        
+        String getUsername();
+        
+        String getName();
+        
+        String getEmail();
+        
+        String getPhone();
+        
+        Boolean getEnabled();
+        
+        Boolean getAccountNonLocked();
+        
+        Boolean getFirstLogin();
+    }
 }
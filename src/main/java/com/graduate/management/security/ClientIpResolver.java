@@ -0,0 +1,160 @@
+package com.graduate.management.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.servlet.http.HttpServletRequest;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * 客户端IP解析
+ * 默认使用TCP连接的对端地址；只有对端是配置的可信代理时才读取X-Forwarded-For，
+ * 并从右向左跳过可信代理，取第一个不可信的地址。客户端自行填写的X-Forwarded-For位于最左侧，
+ * 不会被采用，无法通过伪造该请求头绕过或嫁祸按IP的登录失败限制。
+ *
+ * 配置：system.security.trusted-proxies，逗号分隔的IP或CIDR，如 10.0.0.1,192.168.0.0/16
+ */
+@Slf4j
+@Component
+public class ClientIpResolver {
+
+    private static final Pattern IPV4 = Pattern.compile("\\d{1,3}(\\.\\d{1,3}){3}");
+    private static final Pattern IPV6 = Pattern.compile("[0-9a-fA-F:.]*:[0-9a-fA-F:.]*");
+
+    @Value("${system.security.trusted-proxies:}")
+    private String trustedProxies;
+
+    private List<Cidr> trusted = Collections.emptyList();
+
+    @PostConstruct
+    public void init() {
+        List<Cidr> parsed = new ArrayList<>();
+        for (String entry : trustedProxies.split(",")) {
+            String value = entry.trim();
+            if (!value.isEmpty()) {
+                parsed.add(Cidr.parse(value));
+            }
+        }
+        trusted = parsed;
+        if (!parsed.isEmpty()) {
+            log.info("可信代理: {}", trustedProxies);
+        }
+    }
+
+    /**
+     * 获取客户端IP
+     *
+     * @param request HTTP请求
+     * @return 客户端IP，请求为null时返回null
+     */
+    public String resolve(HttpServletRequest request) {
+        if (request == null) {
+            return null;
+        }
+        String remote = request.getRemoteAddr();
+        if (!isTrusted(remote)) {
+            return remote;
+        }
+
+        // 多个X-Forwarded-For头按出现顺序拼接，后面的代理追加在右侧
+        List<String> hops = new ArrayList<>();
+        Enumeration<String> headers = request.getHeaders("X-Forwarded-For");
+        while (headers != null && headers.hasMoreElements()) {
+            for (String hop : headers.nextElement().split(",")) {
+                if (!hop.trim().isEmpty()) {
+                    hops.add(hop.trim());
+                }
+            }
+        }
+
+        String client = remote;
+        for (int i = hops.size() - 1; i >= 0; i--) {
+            client = hops.get(i);
+            if (!isTrusted(client)) {
+                break;
+            }
+        }
+        return client;
+    }
+
+    private boolean isTrusted(String address) {
+        if (trusted.isEmpty() || address == null) {
+            return false;
+        }
+        byte[] bytes = parseLiteral(address);
+        if (bytes == null) {
+            return false;
+        }
+        for (Cidr cidr : trusted) {
+            if (cidr.contains(bytes)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 只解析IP字面量，不做DNS查询
+     */
+    private static byte[] parseLiteral(String address) {
+        if (!IPV4.matcher(address).matches() && !IPV6.matcher(address).matches()) {
+            return null;
+        }
+        try {
+            return InetAddress.getByName(address).getAddress();
+        } catch (UnknownHostException e) {
+            return null;
+        }
+    }
+
+    private static final class Cidr {
+
+        private final byte[] network;
+        private final int prefix;
+
+        private Cidr(byte[] network, int prefix) {
+            this.network = network;
+            this.prefix = prefix;
+        }
+
+        static Cidr parse(String value) {
+            int slash = value.indexOf('/');
+            String address = slash >= 0 ? value.substring(0, slash) : value;
+            byte[] network = parseLiteral(address);
+            if (network == null) {
+                throw new IllegalArgumentException("可信代理地址格式不正确: " + value);
+            }
+            int prefix = slash >= 0 ? Integer.parseInt(value.substring(slash + 1)) : network.length * 8;
+            if (prefix < 0 || prefix > network.length * 8) {
+                throw new IllegalArgumentException("可信代理地址格式不正确: " + value);
+            }
+            return new Cidr(network, prefix);
+        }
+
+        boolean contains(byte[] address) {
+            if (address.length != network.length) {
+                return false;
+            }
+            int fullBytes = prefix / 8;
+            for (int i = 0; i < fullBytes; i++) {
+                if (address[i] != network[i]) {
+                    return false;
+                }
+            }
+            int remaining = prefix % 8;
+            if (remaining == 0) {
+                return true;
+            }
+            int mask = (0xFF << (8 - remaining)) & 0xFF;
+            return (address[fullBytes] & mask) == (network[fullBytes] & mask);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.graduate.management.security;
+
+import lombok.Getter;
+
+import static com.graduate.management.security.SystemRole.*;
+
+/**
+ * 用户的数据范围
+ * 认证时一次性解析角色位掩码、所属学院和本人学籍ID，之后的权限判断不再查询数据库
+ */
+@Getter
+public final class DataScope {
+
+    /**
+     * 学生学籍数据的可见范围
+     */
+    public enum Level {
+        ALL,        // 全校
+        COLLEGE,    // 本学院
+        SUPERVISED, // 指导的学生
+        SELF,       // 本人
+        NONE
+    }
+
+    private static final long ALL_ROLES = mask(ADMIN, GRADUATE_ADMIN);
+    private static final long COLLEGE_ROLES = mask(COLLEGE_ADMIN, COLLEGE_SECRETARY);
+
+    /**
+     * 查看和导出学籍敏感字段（身份证号、地址、紧急联系人电话）时不脱敏的角色
+     */
+    public static final long UNMASKED_ROLES = mask(GRADUATE_ADMIN, COLLEGE_ADMIN, COLLEGE_SECRETARY);
+
+    private final long roleMask;
+    private final Long userId;
+    private final Long collegeId;
+    private final Long studentProfileId;
+    private final Level level;
+
+    public DataScope(long roleMask, Long userId, Long collegeId, Long studentProfileId) {
+        this.roleMask = roleMask;
+        this.userId = userId;
+        this.collegeId = collegeId;
+        this.studentProfileId = studentProfileId;
+        this.level = resolveLevel(roleMask);
+    }
+
+    public boolean hasRole(SystemRole role) {
+        return (roleMask & role.bit()) != 0;
+    }
+
+    public boolean hasAnyRole(long mask) {
+        return (roleMask & mask) != 0;
+    }
+
+    public boolean hasAnyRole(SystemRole... roles) {
+        return hasAnyRole(mask(roles));
+    }
+
+    /**
+     * 学籍敏感字段是否需要脱敏
+     */
+    public boolean isMasked() {
+        return !hasAnyRole(UNMASKED_ROLES);
+    }
+
+    private static Level resolveLevel(long roleMask) {
+        if ((roleMask & ALL_ROLES) != 0) {
+            return Level.ALL;
+        }
+        if ((roleMask & COLLEGE_ROLES) != 0) {
+            return Level.COLLEGE;
+        }
+        if ((roleMask & TEACHER.bit()) != 0) {
+            return Level.SUPERVISED;
+        }
+        if ((roleMask & STUDENT.bit()) != 0) {
+            return Level.SELF;
+        }
+        return Level.NONE;
+    }
+}
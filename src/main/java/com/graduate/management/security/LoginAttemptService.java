@@ -1,113 +1,88 @@
 package com.graduate.management.security;
 
-import com.graduate.management.entity.User;
+import com.graduate.management.repository.UserRepository;
 import com.graduate.management.service.SystemLogService;
-import com.graduate.management.service.UserService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.AuthenticationException;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import javax.servlet.http.HttpServletRequest;
 import java.time.LocalDateTime;
-import java.util.Optional;
 
 /**
  * 登录处理器
- * 负责登录事件的日志记录
+ * 负责登录失败计数与账号锁定，计数在内存中完成（见LoginAttemptTracker），
+ * 只有锁定/解锁状态变化才写入数据库和审计日志
  */
+@Slf4j
 @Component
 @RequiredArgsConstructor
 public class LoginAttemptService {
-    
-    private final UserService userService;
+
+    private final LoginAttemptTracker loginAttemptTracker;
+    private final UserRepository userRepository;
     private final SystemLogService systemLogService;
-      /**
-     * 处理登录失败
+    private final ClientIpResolver clientIpResolver;
+
+    /**
+     * 登录前检查用户名或IP是否处于锁定期
+     * 如果用户的锁定已到期，同时解除数据库中的锁定状态
      *
      * @param username 用户名
-     * @param exception 认证异常
      * @param request HTTP请求
+     * @return 是否禁止登录
      */
-    public void loginFailed(String username, AuthenticationException exception, HttpServletRequest request) {
+    public boolean isBlocked(String username, HttpServletRequest request) {
         if (username == null || username.trim().isEmpty()) {
-            return;
+            return false;
         }
-        
-        try {
-            Optional<User> userOptional = userService.findByUsername(username);
-            
-            if (userOptional.isPresent()) {
-                User user = userOptional.get();
-                
-                // 记录登录失败日志
-                systemLogService.log(
-                        "LOGIN_FAILED",
-                        "USER",
-                        user.getId(),
-                        null,
-                        String.format("登录失败，原因: %s", exception.getMessage()),
-                        false,
-                        exception.getMessage(),
-                        request
-                );
-            }
-        } catch (Exception e) {
-            // 记录系统异常日志
-            systemLogService.log(
-                    "LOGIN_FAILED",
-                    "USER",
-                    null,
-                    null,
-                    String.format("登录失败处理异常，用户名: %s", username),
-                    false,
-                    e.getMessage(),
-                    request
-            );
+
+        if (loginAttemptTracker.releaseIfExpired(username)) {
+            userRepository.updateAccountLockStatus(true, null, username);
+            log.info("用户 {} 锁定到期，已自动解锁", username);
         }
+
+        return loginAttemptTracker.isBlocked(username, clientIpResolver.resolve(request));
+    }
+
+    /**
+     * 剩余锁定时间（分钟）
+     *
+     * @param username 用户名
+     * @param request HTTP请求
+     * @return 剩余分钟数
+     */
+    public long remainingLockMinutes(String username, HttpServletRequest request) {
+        return loginAttemptTracker.remainingLockMinutes(username, clientIpResolver.resolve(request));
     }
-      /**
-     * 处理登录成功
+
+    /**
+     * 处理登录失败（仅限密码错误）
      *
      * @param username 用户名
      * @param request HTTP请求
+     * @return 本次失败后的状态
      */
-    public void loginSucceeded(String username, HttpServletRequest request) {
-        try {
-            Optional<User> userOptional = userService.findByUsername(username);
-            
-            if (userOptional.isPresent()) {
-                User user = userOptional.get();
-                
-                // 更新最后登录时间
-                user.setLastLoginTime(LocalDateTime.now());
-                
-                userService.updateUser(user.getId(), user);
-                
-                // 记录登录成功日志
-                systemLogService.log(
-                        "LOGIN_SUCCESS",
-                        "USER",
-                        user.getId(),
-                        user,
-                        "用户登录成功",
-                        true,
-                        null,
-                        request
-                );
-            }
-        } catch (Exception e) {
-            // 记录系统异常日志
-            systemLogService.log(
-                    "LOGIN_SUCCESS",
-                    "USER",
-                    null,
-                    null,
-                    String.format("登录成功处理异常，用户名: %s", username),
-                    false,
-                    e.getMessage(),
-                    request
-            );
+    public LoginAttemptTracker.Outcome loginFailed(String username, HttpServletRequest request) {
+        LoginAttemptTracker.Outcome outcome = loginAttemptTracker.recordFailure(username, clientIpResolver.resolve(request));
+
+        if (outcome == LoginAttemptTracker.Outcome.LOCKED) {
+            // 仅在锁定状态变化时写数据库和审计日志
+            userRepository.updateAccountLockStatus(false, LocalDateTime.now(), username);
+            systemLogService.log("ACCOUNT_LOCKED", "USER", null, null,
+                    "连续登录失败，账号已锁定: " + username, false, "登录失败次数超过限制", request);
+            log.warn("用户 {} 连续登录失败，账号已锁定", username);
         }
+
+        return outcome;
+    }
+
+    /**
+     * 处理登录成功，清除失败计数
+     *
+     * @param username 用户名
+     */
+    public void loginSucceeded(String username) {
+        loginAttemptTracker.reset(username);
     }
 }
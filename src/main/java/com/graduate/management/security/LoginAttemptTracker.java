@@ -0,0 +1,276 @@
+package com.graduate.management.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 内存登录失败计数器
+ * 按用户名和IP分别维护滑动窗口内的失败时间戳，在本地判定是否锁定，
+ * 仅在状态发生变化（锁定/解锁）时由调用方持久化，避免每次失败都写数据库。
+ * 采用分段锁，不同用户名/IP之间互不阻塞；窗口和锁定时长均为lock-duration，过期条目定时清理。
+ */
+@Slf4j
+@Component
+public class LoginAttemptTracker {
+
+    private static final int STRIPES = 64;
+
+    /**
+     * 记录失败后的状态
+     */
+    public enum Outcome {
+        /** 窗口内首次失败 */
+        FIRST_FAILURE,
+        /** 继续累计失败 */
+        COUNTED,
+        /** 本次失败触发用户锁定（需持久化） */
+        LOCKED,
+        /** 已处于锁定状态 */
+        ALREADY_LOCKED
+    }
+
+    private final Map<String, Window> userWindows = new ConcurrentHashMap<>();
+    private final Map<String, Window> ipWindows = new ConcurrentHashMap<>();
+    private final Object[] stripes = new Object[STRIPES];
+
+    private final int userLimit;
+    private final int ipLimit;
+    private final long windowMillis;
+
+    public LoginAttemptTracker(@Value("${system.password.login-retry-limit:5}") int userLimit,
+                               @Value("${system.password.ip-retry-limit:50}") int ipLimit,
+                               @Value("${system.password.lock-duration:30}") long lockDurationMinutes) {
+        this.userLimit = userLimit;
+        this.ipLimit = ipLimit;
+        this.windowMillis = TimeUnit.MINUTES.toMillis(lockDurationMinutes);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Object();
+        }
+    }
+
+    /**
+     * 记录一次登录失败
+     *
+     * @param username 用户名
+     * @param ip 客户端IP
+     * @return 用户维度的状态变化
+     */
+    public Outcome recordFailure(String username, String ip) {
+        long now = System.currentTimeMillis();
+
+        if (ip != null) {
+            synchronized (stripeFor("ip:" + ip)) {
+                Window ipWindow = ipWindows.computeIfAbsent(ip, k -> new Window());
+                if (ipWindow.record(now, ipLimit, windowMillis)) {
+                    log.warn("IP {} 在{}分钟内登录失败超过{}次，暂时限制登录",
+                            ip, TimeUnit.MILLISECONDS.toMinutes(windowMillis), ipLimit);
+                }
+            }
+        }
+
+        synchronized (stripeFor(username)) {
+            Window userWindow = userWindows.computeIfAbsent(username, k -> new Window());
+            if (userWindow.isLocked(now)) {
+                return Outcome.ALREADY_LOCKED;
+            }
+            if (userWindow.record(now, userLimit, windowMillis)) {
+                return Outcome.LOCKED;
+            }
+            return userWindow.failures.size() == 1 ? Outcome.FIRST_FAILURE : Outcome.COUNTED;
+        }
+    }
+
+    /**
+     * 用户或IP是否处于锁定期
+     *
+     * @param username 用户名
+     * @param ip 客户端IP
+     * @return 是否禁止登录
+     */
+    public boolean isBlocked(String username, String ip) {
+        long now = System.currentTimeMillis();
+        Window userWindow = userWindows.get(username);
+        if (userWindow != null) {
+            synchronized (stripeFor(username)) {
+                if (userWindow.isLocked(now)) {
+                    return true;
+                }
+            }
+        }
+        if (ip != null) {
+            Window ipWindow = ipWindows.get(ip);
+            if (ipWindow != null) {
+                synchronized (stripeFor("ip:" + ip)) {
+                    return ipWindow.isLocked(now);
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 检查用户锁定是否已到期，到期则清除锁定状态
+     *
+     * @param username 用户名
+     * @return 是否发生了解锁（调用方需持久化）
+     */
+    public boolean releaseIfExpired(String username) {
+        Window userWindow = userWindows.get(username);
+        if (userWindow == null) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        synchronized (stripeFor(username)) {
+            if (userWindow.lockedUntil > 0 && userWindow.lockedUntil <= now) {
+                userWindows.remove(username, userWindow);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 剩余锁定时间（分钟，向上取整）
+     *
+     * @param username 用户名
+     * @param ip 客户端IP
+     * @return 剩余分钟数，未锁定时返回0
+     */
+    public long remainingLockMinutes(String username, String ip) {
+        long now = System.currentTimeMillis();
+        long until = 0;
+        Window userWindow = userWindows.get(username);
+        if (userWindow != null) {
+            until = userWindow.lockedUntil;
+        }
+        if (ip != null) {
+            Window ipWindow = ipWindows.get(ip);
+            if (ipWindow != null) {
+                until = Math.max(until, ipWindow.lockedUntil);
+            }
+        }
+        long remaining = until - now;
+        return remaining <= 0 ? 0 : (remaining + 59_999) / 60_000;
+    }
+
+    /**
+     * 窗口内失败次数
+     *
+     * @param username 用户名
+     * @return 失败次数
+     */
+    public int failureCount(String username) {
+        Window userWindow = userWindows.get(username);
+        if (userWindow == null) {
+            return 0;
+        }
+        synchronized (stripeFor(username)) {
+            return userWindow.failures.size();
+        }
+    }
+
+    /**
+     * 登录成功或管理员解锁后清除用户计数
+     *
+     * @param username 用户名
+     */
+    public void reset(String username) {
+        synchronized (stripeFor(username)) {
+            userWindows.remove(username);
+        }
+    }
+
+    /**
+     * 数据库中的锁定已批量解除后，同步清除内存中的锁定状态
+     *
+     * @param usernames 已解锁的用户名
+     */
+    public void releaseAll(Collection<String> usernames) {
+        for (String username : usernames) {
+            reset(username);
+        }
+    }
+
+    /**
+     * 定时清理已过期的条目
+     */
+    @Scheduled(fixedDelayString = "${system.password.attempt-cleanup-interval:60000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        int removed = evict(userWindows, "", now) + evict(ipWindows, "ip:", now);
+        if (removed > 0) {
+            log.debug("清理过期登录失败记录{}条", removed);
+        }
+    }
+
+    private int evict(Map<String, Window> windows, String stripePrefix, long now) {
+        int removed = 0;
+        Iterator<Map.Entry<String, Window>> it = windows.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Window> entry = it.next();
+            Window window = entry.getValue();
+            synchronized (stripeFor(stripePrefix + entry.getKey())) {
+                window.prune(now, windowMillis);
+                // 用户锁定到期须由releaseIfExpired或AccountUnlockScheduler同步解除数据库锁定，这里只清理未锁定的条目
+                boolean userLockPending = stripePrefix.isEmpty() && window.lockedUntil > 0;
+                if (window.failures.isEmpty() && !window.isLocked(now) && !userLockPending) {
+                    it.remove();
+                    removed++;
+                }
+            }
+        }
+        return removed;
+    }
+
+    private Object stripeFor(String key) {
+        return stripes[(key.hashCode() & 0x7fffffff) % STRIPES];
+    }
+
+    /**
+     * 单个用户名/IP的滑动窗口，访问时需持有对应分段锁
+     */
+    private static final class Window {
+        private final ArrayDeque<Long> failures = new ArrayDeque<>();
+        private long lockedUntil;
+
+        /**
+         * 记录失败并判断是否达到上限
+         *
+         * @return 是否由未锁定变为锁定
+         */
+        boolean record(long now, int limit, long windowMillis) {
+            prune(now, windowMillis);
+            failures.addLast(now);
+            // 只保留判定所需的最近limit次
+            while (failures.size() > limit) {
+                failures.pollFirst();
+            }
+            if (failures.size() >= limit && !isLocked(now)) {
+                lockedUntil = now + windowMillis;
+                failures.clear();
+                return true;
+            }
+            return false;
+        }
+
+        void prune(long now, long windowMillis) {
+            long threshold = now - windowMillis;
+            while (!failures.isEmpty() && failures.peekFirst() <= threshold) {
+                failures.pollFirst();
+            }
+        }
+
+        boolean isLocked(long now) {
+            return lockedUntil > now;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.graduate.management.security;
+
+import lombok.Getter;
+
+import static com.graduate.management.security.SystemRole.*;
+
+/**
+ * 学生学籍资源的操作权限
+ * 每个操作按数据范围列出允许的角色位掩码：全校、本学院、指导的学生、本人
+ */
+@Getter
+public enum Permission {
+    STUDENT_PROFILE_VIEW(
+            mask(ADMIN, GRADUATE_ADMIN), mask(COLLEGE_ADMIN, COLLEGE_SECRETARY), mask(TEACHER), mask(STUDENT)),
+    STUDENT_PROFILE_UPDATE(
+            mask(GRADUATE_ADMIN), mask(COLLEGE_ADMIN, COLLEGE_SECRETARY), 0, mask(STUDENT)),
+    STUDENT_PHOTO_VIEW(
+            mask(ADMIN, GRADUATE_ADMIN), mask(COLLEGE_ADMIN, COLLEGE_SECRETARY), mask(TEACHER), mask(STUDENT)),
+    STUDENT_PHOTO_UPLOAD(
+            mask(GRADUATE_ADMIN), mask(COLLEGE_ADMIN, COLLEGE_SECRETARY), 0, mask(STUDENT));
+
+    private final long allRoles;
+    private final long collegeRoles;
+    private final long supervisedRoles;
+    private final long selfRoles;
+
+    Permission(long allRoles, long collegeRoles, long supervisedRoles, long selfRoles) {
+        this.allRoles = allRoles;
+        this.collegeRoles = collegeRoles;
+        this.supervisedRoles = supervisedRoles;
+        this.selfRoles = selfRoles;
+    }
+}
@@ -0,0 +1,153 @@
+package com.graduate.management.security;
+
+import com.graduate.management.entity.Role;
+import com.graduate.management.entity.User;
+import com.graduate.management.repository.StudentProfileRepository;
+import com.graduate.management.service.UserCollegeService;
+import com.graduate.management.util.ExpiringCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+
+/**
+ * 权限引擎
+ * 认证时将用户角色编译为位掩码并解析数据范围（全校、本学院、指导的学生、本人），
+ * 之后按资源操作规则用位运算判断权限。只有按学院或导师判断时需要按主键查询一次学籍的归属。
+ * 所属学院和本人学籍ID在本节点按有效期缓存，缓存命中时解析数据范围不查询数据库。
+ * 在@PreAuthorize中通过@perm引用，如：@perm.hasPermission(#id, 'STUDENT_PROFILE_VIEW')
+ */
+@Component("perm")
+@RequiredArgsConstructor
+public class PermissionEngine {
+
+    private static final long COLLEGE_ROLES = SystemRole.mask(
+            SystemRole.COLLEGE_ADMIN, SystemRole.COLLEGE_SECRETARY, SystemRole.COLLEGE_LEADER);
+
+    private final StudentProfileRepository studentProfileRepository;
+    private final UserCollegeService userCollegeService;
+
+    @Value("${system.security.scope-cache-ttl:60}")
+    private long cacheTtlSeconds;
+
+    @Value("${system.security.scope-cache-size:10000}")
+    private int cacheSize;
+
+    // 学生账号对应的学籍ID，学籍创建和删除时清除
+    private ExpiringCache<Long, Long> studentProfileIdCache;
+
+    @PostConstruct
+    public void init() {
+        studentProfileIdCache = new ExpiringCache<>(cacheTtlSeconds, cacheSize);
+    }
+
+    /**
+     * 解析用户的数据范围
+     *
+     * @param user 用户
+     * @return 数据范围
+     */
+    public DataScope resolve(User user) {
+        long roleMask = 0;
+        for (Role role : user.getRoles()) {
+            SystemRole systemRole = SystemRole.of(role.getName());
+            if (systemRole != null) {
+                roleMask |= systemRole.bit();
+            }
+        }
+
+        Long collegeId = null;
+        if ((roleMask & COLLEGE_ROLES) != 0) {
+            collegeId = userCollegeService.getCollegeId(user.getId());
+        }
+
+        Long studentProfileId = null;
+        if ((roleMask & SystemRole.STUDENT.bit()) != 0) {
+            studentProfileId = findStudentProfileId(user.getId());
+        }
+
+        return new DataScope(roleMask, user.getId(), collegeId, studentProfileId);
+    }
+
+    /**
+     * 获取用户的数据范围，当前登录用户直接使用认证时解析的结果
+     *
+     * @param user 用户
+     * @return 数据范围
+     */
+    public DataScope scopeOf(User user) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserDetailsImpl) {
+            UserDetailsImpl principal = (UserDetailsImpl) authentication.getPrincipal();
+            if (principal.getScope() != null && principal.getId().equals(user.getId())) {
+                return principal.getScope();
+            }
+        }
+        return resolve(user);
+    }
+
+    /**
+     * 判断当前登录用户对学籍记录是否有指定权限，供@PreAuthorize使用
+     *
+     * @param studentProfileId 学籍ID
+     * @param permission 权限名，见{@link Permission}
+     * @return 是否有权限
+     */
+    public boolean hasPermission(Long studentProfileId, String permission) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof UserDetailsImpl)) {
+            return false;
+        }
+        DataScope scope = ((UserDetailsImpl) authentication.getPrincipal()).getScope();
+        return scope != null && check(scope, Permission.valueOf(permission), studentProfileId);
+    }
+
+    /**
+     * 判断数据范围对学籍记录是否有指定权限
+     * 全校和本人范围只做位运算和ID比较，本学院和导师范围按主键查询学籍归属
+     *
+     * @param scope 数据范围
+     * @param permission 权限
+     * @param studentProfileId 学籍ID
+     * @return 是否有权限
+     */
+    public boolean check(DataScope scope, Permission permission, Long studentProfileId) {
+        if (scope.hasAnyRole(permission.getAllRoles())) {
+            return true;
+        }
+        if (studentProfileId == null) {
+            return false;
+        }
+        if (scope.hasAnyRole(permission.getSelfRoles()) && studentProfileId.equals(scope.getStudentProfileId())) {
+            return true;
+        }
+
+        boolean byCollege = scope.hasAnyRole(permission.getCollegeRoles()) && scope.getCollegeId() != null;
+        boolean bySupervisor = scope.hasAnyRole(permission.getSupervisedRoles());
+        if (!byCollege && !bySupervisor) {
+            return false;
+        }
+        return studentProfileRepository.findOwnerById(studentProfileId)
+                .map(owner -> (byCollege && scope.getCollegeId().equals(owner.getCollegeId()))
+                        || (bySupervisor && scope.getUserId().equals(owner.getSupervisorId())))
+                .orElse(false);
+    }
+
+    /**
+     * 学生的学籍创建或删除后清除缓存的学籍ID，在事务中调用时提交后生效
+     *
+     * @param userId 学生用户ID
+     */
+    public void evictStudentProfileId(Long userId) {
+        if (userId != null) {
+            studentProfileIdCache.evictAfterCommit(userId);
+        }
+    }
+
+    private Long findStudentProfileId(Long userId) {
+        return studentProfileIdCache.get(userId, id -> studentProfileRepository.findIdByUserId(id).orElse(null));
+    }
+}
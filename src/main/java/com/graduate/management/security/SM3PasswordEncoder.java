@@ -1,50 +1,77 @@
 package com.graduate.management.security;
 
 import com.graduate.management.util.SM3Util;
-import lombok.RequiredArgsConstructor;
+import org.bouncycastle.crypto.PBEParametersGenerator;
+import org.bouncycastle.crypto.digests.SM3Digest;
+import org.bouncycastle.crypto.generators.PKCS5S2ParametersGenerator;
+import org.bouncycastle.crypto.params.KeyParameter;
+import org.bouncycastle.util.encoders.Hex;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Primary;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.security.SecureRandom;
 import java.util.Base64;
 
 /**
  * 基于SM3国密算法的密码编码器
+ * 采用PBKDF2-HMAC-SM3迭代哈希，迭代次数（工作因子）保存在哈希串中：
+ * $SM3$迭代次数$盐值(Base64)$哈希值(Hex)
+ * 兼容旧格式（盐值:哈希值，单轮SM3），旧哈希在登录成功后自动升级
  */
 @Component
 @Primary
-@RequiredArgsConstructor
 public class SM3PasswordEncoder implements PasswordEncoder {
-    
-    private final SM3Util sm3Util;
+
     private static final int SALT_LENGTH = 16; // 盐值长度
-    
+    private static final int HASH_LENGTH = 32; // 派生密钥长度（字节）
+    private static final String PREFIX = "$SM3$";
+    private static final char SEPARATOR = '$';
+    private static final char LEGACY_SEPARATOR = ':';
+
+    private final SM3Util sm3Util;
+    private final int iterations;
+    private final SecureRandom random = new SecureRandom();
+
+    public SM3PasswordEncoder(SM3Util sm3Util,
+                              @Value("${system.password.hash-iterations:10000}") int iterations) {
+        if (iterations < 1) {
+            throw new IllegalArgumentException("迭代次数必须大于0");
+        }
+        this.sm3Util = sm3Util;
+        this.iterations = iterations;
+    }
+
     /**
-     * 使用SM3算法和随机盐值对密码进行编码
+     * 使用PBKDF2-HMAC-SM3和随机盐值对密码进行编码
      *
      * @param rawPassword 原始密码
-     * @return 编码后的密码（格式：盐值:哈希值）
+     * @return 编码后的密码（格式：$SM3$迭代次数$盐值$哈希值）
      */
     @Override
     public String encode(CharSequence rawPassword) {
         if (rawPassword == null) {
             throw new IllegalArgumentException("密码不能为空");
         }
-        
-        // 生成随机盐值
+
         byte[] salt = generateSalt();
-        String saltBase64 = Base64.getEncoder().encodeToString(salt);
-        
-        // 计算哈希值
-        String hash = sm3Util.hash(saltBase64 + rawPassword.toString());
-        
-        // 拼接盐值和哈希值
-        return saltBase64 + ":" + hash;
+        byte[] hash = derive(rawPassword, salt, iterations);
+
+        return new StringBuilder(PREFIX.length() + 80)
+                .append(PREFIX)
+                .append(iterations)
+                .append(SEPARATOR)
+                .append(Base64.getEncoder().encodeToString(salt))
+                .append(SEPARATOR)
+                .append(Hex.toHexString(hash))
+                .toString();
     }
-    
+
     /**
-     * 验证密码
+     * 验证密码（常量时间比较）
      *
      * @param rawPassword     原始密码
      * @param encodedPassword 编码后的密码
@@ -55,29 +82,117 @@ public class SM3PasswordEncoder implements PasswordEncoder {
         if (rawPassword == null || encodedPassword == null) {
             return false;
         }
-        
-        // 拆分盐值和哈希值
-        String[] parts = encodedPassword.split(":");
-        if (parts.length != 2) {
+
+        if (encodedPassword.startsWith(PREFIX)) {
+            return matchesIterated(rawPassword, encodedPassword);
+        }
+        return matchesLegacy(rawPassword, encodedPassword);
+    }
+
+    /**
+     * 旧格式哈希或迭代次数低于当前配置时需要升级
+     * DaoAuthenticationProvider在登录成功后调用UserDetailsPasswordService完成升级
+     *
+     * @param encodedPassword 编码后的密码
+     * @return 是否需要重新编码
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null || !encodedPassword.startsWith(PREFIX)) {
+            return true;
+        }
+        int end = encodedPassword.indexOf(SEPARATOR, PREFIX.length());
+        if (end < 0) {
+            return true;
+        }
+        try {
+            return Integer.parseInt(encodedPassword.substring(PREFIX.length(), end)) < iterations;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    /**
+     * 当前配置的迭代次数
+     *
+     * @return 迭代次数
+     */
+    public int getIterations() {
+        return iterations;
+    }
+
+    private boolean matchesIterated(CharSequence rawPassword, String encodedPassword) {
+        int iterEnd = encodedPassword.indexOf(SEPARATOR, PREFIX.length());
+        if (iterEnd < 0) {
+            return false;
+        }
+        int saltEnd = encodedPassword.indexOf(SEPARATOR, iterEnd + 1);
+        if (saltEnd < 0) {
+            return false;
+        }
+
+        int cost;
+        byte[] salt;
+        byte[] expected;
+        try {
+            cost = Integer.parseInt(encodedPassword.substring(PREFIX.length(), iterEnd));
+            salt = Base64.getDecoder().decode(encodedPassword.substring(iterEnd + 1, saltEnd));
+            expected = Hex.decode(encodedPassword.substring(saltEnd + 1));
+        } catch (RuntimeException e) {
+            return false;
+        }
+        if (cost < 1) {
             return false;
         }
-        
-        String salt = parts[0];
-        String hash = parts[1];
-        
-        // 计算哈希值并比较
-        String calculatedHash = sm3Util.hash(salt + rawPassword.toString());
-        
-        return hash.equals(calculatedHash);
+
+        return MessageDigest.isEqual(expected, derive(rawPassword, salt, cost));
     }
-    
+
+    private boolean matchesLegacy(CharSequence rawPassword, String encodedPassword) {
+        int sep = encodedPassword.indexOf(LEGACY_SEPARATOR);
+        if (sep < 0 || encodedPassword.indexOf(LEGACY_SEPARATOR, sep + 1) >= 0) {
+            return false;
+        }
+
+        byte[] expected;
+        try {
+            expected = Hex.decode(encodedPassword.substring(sep + 1));
+        } catch (RuntimeException e) {
+            return false;
+        }
+
+        // 旧格式：SM3(盐值Base64 + 密码)
+        String salted = new StringBuilder(encodedPassword.length() + rawPassword.length())
+                .append(encodedPassword, 0, sep)
+                .append(rawPassword)
+                .toString();
+        byte[] actual = sm3Util.hash(salted.getBytes(StandardCharsets.UTF_8));
+
+        return MessageDigest.isEqual(expected, actual);
+    }
+
+    /**
+     * PBKDF2-HMAC-SM3密钥派生
+     */
+    private byte[] derive(CharSequence rawPassword, byte[] salt, int cost) {
+        char[] chars = new char[rawPassword.length()];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = rawPassword.charAt(i);
+        }
+        byte[] passwordBytes = PBEParametersGenerator.PKCS5PasswordToUTF8Bytes(chars);
+
+        PKCS5S2ParametersGenerator generator = new PKCS5S2ParametersGenerator(new SM3Digest());
+        generator.init(passwordBytes, salt, cost);
+        KeyParameter key = (KeyParameter) generator.generateDerivedParameters(HASH_LENGTH * 8);
+        return key.getKey();
+    }
+
     /**
      * 生成随机盐值
      *
      * @return 随机盐值字节数组
      */
     private byte[] generateSalt() {
-        SecureRandom random = new SecureRandom();
         byte[] salt = new byte[SALT_LENGTH];
         random.nextBytes(salt);
         return salt;
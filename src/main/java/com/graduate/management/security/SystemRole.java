@@ -0,0 +1,88 @@
+package com.graduate.management.security;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 系统角色
+ * 每个角色对应一个二进制位，用户的角色在认证时编译为位掩码，权限判断只需位运算
+ */
+public enum SystemRole {
+    ADMIN,
+    SYSTEM_ADMIN,
+    GRADUATE_ADMIN,
+    AUDIT_ADMIN,
+    SCHOOL_LEADER,
+    GRADUATE_LEADER,
+    COLLEGE_LEADER,
+    COLLEGE_ADMIN,
+    COLLEGE_SECRETARY,
+    TEACHER,
+    STUDENT;
+
+    public static final String PREFIX = "ROLE_";
+
+    private static final Map<String, SystemRole> BY_AUTHORITY = new HashMap<>();
+
+    static {
+        for (SystemRole role : values()) {
+            BY_AUTHORITY.put(role.authority(), role);
+        }
+    }
+
+    private final long bit = 1L << ordinal();
+
+    public long bit() {
+        return bit;
+    }
+
+    /**
+     * 带ROLE_前缀的权限名，与数据库中的角色名一致
+     */
+    public String authority() {
+        return PREFIX + name();
+    }
+
+    /**
+     * 统一角色名前缀，兼容不带ROLE_前缀的写法
+     *
+     * @param roleName 角色名
+     * @return 带ROLE_前缀的角色名
+     */
+    public static String normalize(String roleName) {
+        return roleName.startsWith(PREFIX) ? roleName : PREFIX + roleName;
+    }
+
+    /**
+     * 根据角色名查找角色
+     *
+     * @param roleName 角色名，可不带ROLE_前缀
+     * @return 角色，未知角色返回null
+     */
+    public static SystemRole of(String roleName) {
+        return roleName != null ? BY_AUTHORITY.get(normalize(roleName)) : null;
+    }
+
+    public static long mask(SystemRole... roles) {
+        long mask = 0;
+        for (SystemRole role : roles) {
+            mask |= role.bit;
+        }
+        return mask;
+    }
+
+    /**
+     * 将角色名编译为位掩码，忽略未知角色
+     */
+    public static long mask(Collection<String> roleNames) {
+        long mask = 0;
+        for (String roleName : roleNames) {
+            SystemRole role = of(roleName);
+            if (role != null) {
+                mask |= role.bit;
+            }
+        }
+        return mask;
+    }
+}
@@ -31,6 +31,9 @@ public class UserDetailsImpl implements UserDetails {
     @JsonIgnore
     private User user;
     
+    @JsonIgnore
+    private DataScope scope; // 认证时解析的角色位掩码和数据范围
+    
     public UserDetailsImpl(Long id, String username, String name, String password, String email,
                           String phone, Boolean enabled, Boolean accountNonLocked, Boolean firstLogin,
                           Collection<? extends GrantedAuthority> authorities) {
@@ -59,7 +62,7 @@ public class UserDetailsImpl implements UserDetails {
     
     public static UserDetailsImpl build(User user) {
         List<GrantedAuthority> authorities = user.getRoles().stream()
-                .map(role -> new SimpleGrantedAuthority("ROLE_" + role.getName()))
+                .map(role -> new SimpleGrantedAuthority(SystemRole.normalize(role.getName())))
                 .collect(Collectors.toList());
         
         return new UserDetailsImpl(
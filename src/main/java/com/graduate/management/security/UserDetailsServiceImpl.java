@@ -5,6 +5,7 @@ import com.graduate.management.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -15,23 +16,29 @@ import java.time.temporal.ChronoUnit;
 
 @Service
 @RequiredArgsConstructor
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
     
     private final UserRepository userRepository;
+    private final PermissionEngine permissionEngine;
     
     @Value("${system.password.expired-days:90}")
     private int passwordExpiredDays;
     
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("未找到用户: " + username));
         
-        // 检查密码是否过期
-        checkPasswordExpiration(user);
+        UserDetailsImpl userDetails = UserDetailsImpl.build(user);
+        userDetails.setScope(permissionEngine.resolve(user));
+        
+        // 检查密码是否过期（只在内存中判断，数据库标记由PasswordExpiryScheduler每晚批量更新）
+        if (isPasswordExpired(user)) {
+            userDetails.setFirstLogin(true); // 使用firstLogin字段来标记需要修改密码
+        }
         
-        return UserDetailsImpl.build(user);
+        return userDetails;
     }
     
     /**
@@ -39,24 +46,37 @@ public class UserDetailsServiceImpl implements UserDetailsService {
      * 根据需求，密码90天需要更换一次
      * 
      * @param user 用户对象
+     * @return 是否过期
      */
-    private void checkPasswordExpiration(User user) {
-        LocalDateTime lastPasswordChangeTime = user.getLastPasswordChangeTime();
-        
-        // 如果从未修改过密码或最后修改密码时间为空，设置为账号创建时间
+    private boolean isPasswordExpired(User user) {
+        // 如果从未修改过密码，按账号创建时间计算
+        LocalDateTime lastPasswordChangeTime = user.getLastPasswordChangeTime() != null
+                ? user.getLastPasswordChangeTime() : user.getCreatedAt();
         if (lastPasswordChangeTime == null) {
-            lastPasswordChangeTime = user.getCreatedAt();
-            user.setLastPasswordChangeTime(lastPasswordChangeTime);
-            userRepository.save(user);
+            return false;
         }
         
         // 计算密码已使用天数
         long daysElapsed = ChronoUnit.DAYS.between(lastPasswordChangeTime, LocalDateTime.now());
-        
-        // 如果密码已使用天数超过配置的过期天数，标记为需要修改密码
-        if (daysElapsed >= passwordExpiredDays) {
-            user.setFirstLogin(true); // 使用firstLogin字段来标记需要修改密码
-            userRepository.save(user);
+        return daysElapsed >= passwordExpiredDays;
+    }
+    
+    /**
+     * 登录成功后升级旧格式或低迭代次数的密码哈希
+     * 仅替换哈希值，不影响密码修改时间和过期判断
+     * 
+     * @param user 已认证的用户
+     * @param newPassword 按当前参数重新编码后的密码
+     * @return 更新后的用户详情
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        userRepository.updatePasswordHash(newPassword, user.getUsername());
+        if (user instanceof UserDetailsImpl) {
+            ((UserDetailsImpl) user).setPassword(newPassword);
+            return user;
         }
+        return loadUserByUsername(user.getUsername());
     }
 }
@@ -0,0 +1,30 @@
+package com.graduate.management.service;
+
+import com.graduate.management.entity.StudentProfile;
+import com.graduate.management.entity.User;
+
+import java.util.List;
+
+/**
+ * 批量账号开通服务
+ * 将密码哈希计算（CPU密集）与数据库写入分离，哈希计算在并行工作线程池中完成
+ */
+public interface AccountProvisioningService {
+    
+    /**
+     * 并行计算密码哈希
+     *
+     * @param rawPasswords 原始密码列表
+     * @return 编码后的密码列表，顺序与输入一致
+     */
+    List<String> encodePasswords(List<String> rawPasswords);
+    
+    /**
+     * 为学生学籍信息准备待插入的用户账号
+     * 用户名为学号，默认密码为身份证号后8位（要求传入明文身份证号）
+     *
+     * @param profiles 已分配学号的学生学籍信息
+     * @return 未持久化的用户账号，顺序与输入一致
+     */
+    List<User> prepareStudentAccounts(List<StudentProfile> profiles);
+}
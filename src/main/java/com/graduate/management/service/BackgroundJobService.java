@@ -0,0 +1,94 @@
+package com.graduate.management.service;
+
+import com.graduate.management.dto.BackgroundJobDto;
+import com.graduate.management.entity.BackgroundJob;
+import com.graduate.management.entity.User;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * 后台任务服务
+ * 导入/导出在有界线程池中执行，请求线程只负责提交任务，前端通过任务ID轮询进度
+ */
+public interface BackgroundJobService {
+    
+    String TYPE_STUDENT_IMPORT = "STUDENT_IMPORT";
+    
+    String TYPE_ROSTER_EXPORT = "ROSTER_EXPORT";
+    
+    String STATUS_PENDING = "PENDING";
+    
+    String STATUS_RUNNING = "RUNNING";
+    
+    String STATUS_COMPLETED = "COMPLETED";
+    
+    String STATUS_FAILED = "FAILED";
+    
+    String STATUS_CANCELLED = "CANCELLED";
+    
+    /**
+     * 提交学生学籍导入任务
+     *
+     * @param owner 提交用户
+     * @param file Excel文件
+     * @return 任务信息
+     */
+    BackgroundJobDto submitStudentImport(User owner, MultipartFile file);
+    
+    /**
+     * 续传失败或已取消的导入任务，从最后提交行的下一行开始，创建新任务
+     *
+     * @param id 原任务ID
+     * @param currentUser 当前用户
+     * @return 新任务信息
+     */
+    BackgroundJobDto resumeStudentImport(Long id, User currentUser);
+    
+    /**
+     * 提交学生名册导出任务
+     *
+     * @param owner 提交用户
+     * @param collegeId 学院ID（可选）
+     * @param majorId 专业ID（可选）
+     * @param format 导出格式：xlsx或csv
+     * @return 任务信息
+     */
+    BackgroundJobDto submitRosterExport(User owner, Long collegeId, Long majorId, String format);
+    
+    /**
+     * 查询任务状态和进度
+     *
+     * @param id 任务ID
+     * @param currentUser 当前用户（只能查看自己的任务）
+     * @return 任务信息
+     */
+    BackgroundJobDto getJob(Long id, User currentUser);
+    
+    /**
+     * 分页查询当前用户的任务
+     *
+     * @param currentUser 当前用户
+     * @param pageable 分页参数
+     * @return 任务分页列表
+     */
+    Page<BackgroundJobDto> getJobs(User currentUser, Pageable pageable);
+    
+    /**
+     * 取消任务，排队中的任务直接取消，执行中的任务在下一个检查点停止
+     *
+     * @param id 任务ID
+     * @param currentUser 当前用户
+     * @return 任务信息
+     */
+    BackgroundJobDto cancelJob(Long id, User currentUser);
+    
+    /**
+     * 获取已完成的导出任务，用于下载结果文件
+     *
+     * @param id 任务ID
+     * @param currentUser 当前用户
+     * @return 导出任务
+     */
+    BackgroundJob getExportResult(Long id, User currentUser);
+}
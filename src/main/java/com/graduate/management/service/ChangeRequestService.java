@@ -1,7 +1,9 @@
 package com.graduate.management.service;
 
+import com.graduate.management.dto.BulkReviewResult;
 import com.graduate.management.dto.ChangeRequestDto;
 import com.graduate.management.entity.ChangeRequest;
+import com.graduate.management.entity.College;
 import com.graduate.management.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -25,6 +27,9 @@ public interface ChangeRequestService {
     
     ChangeRequest rejectChangeRequest(Long id, User reviewer, String comment);
     
+    // 批量审核：在一个事务中锁定并批量更新，逐条返回处理结果
+    BulkReviewResult bulkReview(List<Long> ids, boolean approve, User reviewer, String comment);
+    
     // 新增方法
     Page<ChangeRequestDto> getAllChangeRequests(String status, Pageable pageable);
     
@@ -33,4 +38,10 @@ public interface ChangeRequestService {
     ChangeRequest cancelChangeRequest(Long id, User user);
     
     ChangeRequestDto convertToDto(ChangeRequest changeRequest);
+    
+    // 待审核数量：研究生院管理员为全校，学院用户为本学院
+    long countPendingChangeRequests(User user);
+    
+    // 学生调整学院后同步其变更申请的学院
+    void syncCollege(Long studentProfileId, College college);
 }
@@ -0,0 +1,70 @@
+package com.graduate.management.service;
+
+/**
+ * 后台任务进度回调
+ * 由导入/导出逻辑在处理过程中调用，用于上报进度、记录失败行和检查是否被取消
+ */
+public interface JobProgress {
+    
+    /**
+     * 不跟踪进度（同步调用时使用）
+     */
+    JobProgress NONE = new JobProgress() {
+        @Override
+        public void setTotal(int total) {
+        }
+        
+        @Override
+        public void advance(int rows) {
+        }
+        
+        @Override
+        public void rowFailed(int rowNum, String message) {
+        }
+        
+        @Override
+        public void chunkCommitted(int lastRowNum) {
+        }
+        
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+    };
+    
+    /**
+     * 设置总行数
+     *
+     * @param total 总行数
+     */
+    void setTotal(int total);
+    
+    /**
+     * 增加已处理行数
+     *
+     * @param rows 本次处理的行数
+     */
+    void advance(int rows);
+    
+    /**
+     * 记录失败行
+     *
+     * @param rowNum 行号（从1开始，与Excel一致）
+     * @param message 失败原因
+     */
+    void rowFailed(int rowNum, String message);
+    
+    /**
+     * 一块数据写入完成，在该块的事务内调用，与数据一起提交
+     *
+     * @param lastRowNum 该块最后一行的行号，续传时从下一行开始
+     */
+    void chunkCommitted(int lastRowNum);
+    
+    /**
+     * 任务是否已被取消，处理过程中应定期检查
+     *
+     * @return 是否已取消
+     */
+    boolean isCancelled();
+}
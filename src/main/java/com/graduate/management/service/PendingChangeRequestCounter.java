@@ -0,0 +1,135 @@
+package com.graduate.management.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+
+/**
+ * 待审核变更申请计数器
+ * 按学院在pending_change_request_counts表中维护待审核数量，供页面角标使用，避免每次加载页面都执行count查询。
+ * 增减与申请的创建、审核、取消和删除在同一事务中执行，一起提交或回滚，多节点部署时所有节点读取的数量一致。
+ * 同一学院的计数行在事务提交前被锁定，该学院的申请写入按提交顺序串行
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PendingChangeRequestCounter {
+    
+    // 尚未补齐学院字段的历史申请计入该键
+    private static final Long NO_COLLEGE = 0L;
+    
+    private static final String ADD_SQL =
+            "UPDATE pending_change_request_counts SET pending = pending + ? WHERE college_id = ?";
+    
+    private static final String INSERT_SQL =
+            "INSERT INTO pending_change_request_counts (college_id, pending) VALUES (?, ?)";
+    
+    private static final String REBUILD_SQL = "INSERT INTO pending_change_request_counts (college_id, pending) "
+            + "SELECT COALESCE(college_id, 0), COUNT(*) FROM change_requests WHERE status = 'PENDING' "
+            + "GROUP BY COALESCE(college_id, 0)";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    
+    /**
+     * 计数表为空时（首次部署或升级）按申请表统计一次
+     */
+    @PostConstruct
+    public void init() {
+        Long rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM pending_change_request_counts", Long.class);
+        if (rows == null || rows == 0) {
+            try {
+                rebuild();
+            } catch (DataAccessException e) {
+                // 多个节点同时启动时由先完成的节点统计
+                log.warn("初始化待审核变更申请计数失败: {}", e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * 全校待审核数量
+     *
+     * @return 待审核数量
+     */
+    public long getTotal() {
+        Long total = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(pending), 0) FROM pending_change_request_counts", Long.class);
+        return total != null ? Math.max(total, 0) : 0;
+    }
+    
+    /**
+     * 学院待审核数量
+     *
+     * @param collegeId 学院ID
+     * @return 待审核数量
+     */
+    public long getCount(Long collegeId) {
+        return jdbcTemplate.query("SELECT pending FROM pending_change_request_counts WHERE college_id = ?",
+                rs -> rs.next() ? Math.max(rs.getLong(1), 0) : 0L, key(collegeId));
+    }
+    
+    /**
+     * 待审核申请增加，需在创建申请的事务中调用
+     *
+     * @param collegeId 学院ID
+     */
+    public void increment(Long collegeId) {
+        increment(collegeId, 1);
+    }
+    
+    /**
+     * 待审核申请增加指定数量，需在修改申请的事务中调用
+     *
+     * @param collegeId 学院ID
+     * @param delta 增加数量
+     */
+    public void increment(Long collegeId, long delta) {
+        add(collegeId, delta);
+    }
+    
+    /**
+     * 待审核申请减少（审核、取消或删除），需在修改申请的事务中调用
+     *
+     * @param collegeId 学院ID
+     * @param delta 减少数量
+     */
+    public void decrement(Long collegeId, long delta) {
+        add(collegeId, -delta);
+    }
+    
+    /**
+     * 按申请表重新统计全部计数，用于回填学院字段、批量生成数据等绕过逐条增减的场景；
+     * 在事务中调用时与该事务一起提交
+     */
+    public void rebuild() {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("DELETE FROM pending_change_request_counts");
+            int colleges = jdbcTemplate.update(REBUILD_SQL);
+            log.debug("待审核变更申请计数已重新统计，共{}个学院", colleges);
+        });
+    }
+    
+    private void add(Long collegeId, long delta) {
+        Long key = key(collegeId);
+        if (jdbcTemplate.update(ADD_SQL, delta, key) > 0) {
+            return;
+        }
+        try {
+            jdbcTemplate.update(INSERT_SQL, key, delta);
+        } catch (DuplicateKeyException e) {
+            // 其他事务同时插入了该学院的计数行
+            jdbcTemplate.update(ADD_SQL, delta, key);
+        }
+    }
+    
+    private static Long key(Long collegeId) {
+        return collegeId != null ? collegeId : NO_COLLEGE;
+    }
+}
@@ -1,12 +1,19 @@
 package com.graduate.management.service;
 
+import com.graduate.management.dto.BulkReviewResult;
 import com.graduate.management.dto.StudentProfileDto;
+import com.graduate.management.dto.StudentProfileQuery;
+import com.graduate.management.dto.StudentProfileSummaryDto;
+import com.graduate.management.entity.College;
+import com.graduate.management.entity.StudentPhoto;
+import com.graduate.management.entity.StudentPhotoThumbnail;
 import com.graduate.management.entity.StudentProfile;
 import com.graduate.management.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.InputStream;
 import java.util.List;
 
 public interface StudentProfileService {
@@ -23,42 +30,51 @@ public interface StudentProfileService {
     
     StudentProfileDto getStudentProfileByUsername(String username);
     
-    Page<StudentProfileDto> getAllStudentProfiles(Pageable pageable);
-    
-    Page<StudentProfileDto> getStudentProfilesByCollege(Long collegeId, Pageable pageable);
-    
-    List<StudentProfileDto> getStudentProfilesBySupervisor(Long supervisorId);
-    
-    Page<StudentProfileDto> searchStudentProfiles(String keyword, Pageable pageable);
-    
-    Page<StudentProfileDto> searchStudentProfilesByCollege(Long collegeId, String keyword, Pageable pageable);
-    
     boolean approveStudentProfile(Long id, Long approverId);
     
     boolean rejectStudentProfile(Long id, String reason);
     
+    // 批量审核学籍信息：在一个事务中锁定并批量更新，逐条返回处理结果
+    BulkReviewResult bulkReviewStudentProfiles(List<Long> ids, boolean approve, User reviewer, String reason);
+    
     String generateStudentId(Long majorId, String degreeType);
     
     boolean uploadPhoto(Long id, MultipartFile photo);
     
-    byte[] getPhoto(Long id);
+    StudentPhoto getPhoto(Long id);
     
-    boolean importStudentProfiles(MultipartFile file);
+    StudentPhotoThumbnail getPhotoThumbnail(Long id);
     
-    List<StudentProfileDto> getPendingApprovals();
+    // 从Excel导入学生学籍信息（由后台任务调用），按块提交，startRow为起始Excel行号（续传时使用），返回成功导入的行数
+    int importStudentProfiles(InputStream inputStream, String fileName, int startRow, JobProgress progress);
+    
+    // 分页获取待审核学籍摘要，学院用户限定为本学院，按提交时间先后排序
+    Page<StudentProfileSummaryDto> getPendingApprovals(User currentUser, Long collegeId, Pageable pageable);
     
     StudentProfile findByStudentId(String studentId);
     
+    // 按身份证号精确查询（通过盲索引，不解密）
+    List<StudentProfileSummaryDto> findByIdNumber(String idNumber);
+    
     List<StudentProfile> findBySupervisor(User supervisor);
     
     StudentProfileDto convertToDto(StudentProfile studentProfile);
     
-    // 批量创建学生学籍信息方法
+    // 转换为列表摘要（不含敏感字段和照片数据）
+    StudentProfileSummaryDto convertToSummaryDto(StudentProfile studentProfile);
+    
+    // 批量创建学生学籍信息方法（按块提交，失败的行跳过）
     List<StudentProfile> batchCreateStudentProfiles(List<StudentProfile> studentProfiles);
     
     // 新增方法：根据ID查找学生学籍信息
     StudentProfile findById(Long id);
     
+    // 按用户的数据范围查找学籍信息，范围外的记录不会被加载
+    StudentProfile findAccessibleById(Long id, User user);
+    
+    // 按学号和用户的数据范围查找学籍信息
+    StudentProfile findAccessibleByStudentId(String studentId, User user);
+    
     // 新增方法：根据学生用户查找学籍信息
     StudentProfile findByStudent(User student);
     
@@ -71,8 +87,11 @@ public interface StudentProfileService {
     // 新增方法：直接更新学生信息（无需审核）
     StudentProfile updateStudentProfile(StudentProfile profile);
     
-    // 新增方法：获取学生信息（基于角色和筛选条件）
-    Page<StudentProfileDto> getStudentProfiles(User currentUser, Long collegeId, Long majorId, String keyword, Pageable pageable);
+    // 获取学生信息：用户数据范围与筛选条件组合为一个查询
+    Page<StudentProfileSummaryDto> getStudentProfiles(User currentUser, StudentProfileQuery criteria, Pageable pageable);
+    
+    // 获取用户所属学院，无法确定时返回null
+    College getUserCollege(User user);
     
     // 新增方法：检查当前用户是否与学生属于同一学院
     boolean isFromSameCollege(Long studentProfileId, User user);
@@ -0,0 +1,45 @@
+package com.graduate.management.service;
+
+import com.graduate.management.entity.User;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * 学生名册导出服务
+ * 按当前用户的数据范围从数据库流式读取并直接写入输出流，内存占用与导出行数无关
+ */
+public interface StudentRosterExportService {
+    
+    String FORMAT_XLSX = "xlsx";
+    
+    String FORMAT_CSV = "csv";
+    
+    /**
+     * 导出学生名册
+     *
+     * @param currentUser 当前用户（决定导出范围和是否脱敏）
+     * @param collegeId 学院ID（可选，仅对全校范围的用户生效）
+     * @param majorId 专业ID（可选）
+     * @param format 导出格式：xlsx或csv
+     * @param out 输出流
+     * @return 导出的行数
+     * @throws IOException 写入失败
+     */
+    int exportRoster(User currentUser, Long collegeId, Long majorId, String format, OutputStream out) throws IOException;
+    
+    /**
+     * 导出学生名册并上报进度（后台任务使用）
+     *
+     * @param currentUser 当前用户
+     * @param collegeId 学院ID（可选）
+     * @param majorId 专业ID（可选）
+     * @param format 导出格式：xlsx或csv
+     * @param out 输出流
+     * @param progress 任务进度
+     * @return 导出的行数
+     * @throws IOException 写入失败
+     */
+    int exportRoster(User currentUser, Long collegeId, Long majorId, String format, OutputStream out,
+                     JobProgress progress) throws IOException;
+}
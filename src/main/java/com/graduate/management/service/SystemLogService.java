@@ -7,12 +7,26 @@ import org.springframework.data.domain.Pageable;
 
 import javax.servlet.http.HttpServletRequest;
 import java.time.LocalDateTime;
+import java.util.Collection;
 
 public interface SystemLogService {
     
     void log(String operation, String resourceType, Long resourceId, User user, 
              String details, Boolean success, String errorMessage, HttpServletRequest request);
     
+    /**
+     * 批量记录成功操作日志，每个资源一条，使用JDBC批量插入
+     *
+     * @param operation 操作类型
+     * @param resourceType 资源类型
+     * @param resourceIds 资源ID
+     * @param user 操作用户
+     * @param details 操作详情
+     * @param request HTTP请求
+     */
+    void logAll(String operation, String resourceType, Collection<Long> resourceIds, User user,
+                String details, HttpServletRequest request);
+    
     SystemLogDto getLogById(Long id);
     
     Page<SystemLogDto> getAllLogs(Pageable pageable);
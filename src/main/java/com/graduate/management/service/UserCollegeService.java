@@ -0,0 +1,56 @@
+package com.graduate.management.service;
+
+import com.graduate.management.dto.UserCollegeAssignmentDto;
+import com.graduate.management.entity.College;
+import com.graduate.management.entity.User;
+
+import java.util.List;
+
+/**
+ * 用户所属学院服务
+ * 学院范围的权限判断在每次请求中都会执行，用户到学院的映射缓存在内存中，分配变更后失效
+ */
+public interface UserCollegeService {
+    
+    /**
+     * 获取用户所属学院ID
+     *
+     * @param userId 用户ID
+     * @return 学院ID，未分配时返回null
+     */
+    Long getCollegeId(Long userId);
+    
+    /**
+     * 获取用户所属学院
+     *
+     * @param user 用户
+     * @return 学院，未分配时返回null
+     */
+    College getCollege(User user);
+    
+    /**
+     * 为用户分配学院，已有分配时改为新学院
+     *
+     * @param userId 用户ID
+     * @param collegeId 学院ID
+     * @param operator 操作人
+     * @return 分配信息
+     */
+    UserCollegeAssignmentDto assign(Long userId, Long collegeId, User operator);
+    
+    /**
+     * 解除用户的学院分配
+     *
+     * @param userId 用户ID
+     * @return 是否存在分配
+     */
+    boolean unassign(Long userId);
+    
+    /**
+     * 查询学院下已分配的人员
+     *
+     * @param collegeId 学院ID
+     * @return 分配列表
+     */
+    List<UserCollegeAssignmentDto> getAssignments(Long collegeId);
+}
@@ -11,6 +11,7 @@ import org.springframework.data.domain.Pageable;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface UserService {
     JwtResponse login(LoginRequest loginRequest);
@@ -31,7 +32,19 @@ public interface UserService {
     
     Page<UserDto> getAllUsers(Pageable pageable);
     
-    List<UserDto> getUsersByRole(String role);
+    Page<UserDto> getUsersByRole(String role, String namePrefix, String usernamePrefix, Pageable pageable);
+    
+    /**
+     * 按角色分段流式读取用户，每段回调一次
+     *
+     * @param role 角色名称
+     * @param namePrefix 姓名前缀（可为空）
+     * @param usernamePrefix 用户名前缀（可为空）
+     * @param chunkSize 每段条数
+     * @param chunkConsumer 分段回调
+     */
+    void streamUsersByRole(String role, String namePrefix, String usernamePrefix,
+                           int chunkSize, Consumer<List<UserDto>> chunkConsumer);
     
     boolean changePassword(String username, PasswordChangeRequest request);
     
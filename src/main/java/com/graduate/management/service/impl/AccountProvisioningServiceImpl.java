@@ -0,0 +1,148 @@
+package com.graduate.management.service.impl;
+
+import com.graduate.management.entity.Role;
+import com.graduate.management.entity.StudentProfile;
+import com.graduate.management.entity.User;
+import com.graduate.management.repository.RoleRepository;
+import com.graduate.management.security.SM3PasswordEncoder;
+import com.graduate.management.service.AccountProvisioningService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
+@Service
+public class AccountProvisioningServiceImpl implements AccountProvisioningService {
+    
+    private static final String STUDENT_ROLE = "ROLE_STUDENT";
+    private static final int DEFAULT_PASSWORD_LENGTH = 8;
+    
+    private final SM3PasswordEncoder sm3PasswordEncoder;
+    private final RoleRepository roleRepository;
+    private final ExecutorService hashExecutor;
+    private final int workers;
+    
+    public AccountProvisioningServiceImpl(SM3PasswordEncoder sm3PasswordEncoder,
+                                          RoleRepository roleRepository,
+                                          @Value("${system.provisioning.hash-threads:0}") int hashThreads) {
+        this.sm3PasswordEncoder = sm3PasswordEncoder;
+        this.roleRepository = roleRepository;
+        // 未配置时使用CPU核心数
+        this.workers = hashThreads > 0 ? hashThreads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        this.hashExecutor = Executors.newFixedThreadPool(workers, r -> {
+            Thread thread = new Thread(r, "password-hash-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    @Override
+    public List<String> encodePasswords(List<String> rawPasswords) {
+        int size = rawPasswords.size();
+        if (size == 0) {
+            return Collections.emptyList();
+        }
+        
+        String[] encoded = new String[size];
+        // 少量密码直接在当前线程计算，避免线程切换开销
+        if (size == 1 || workers == 1) {
+            for (int i = 0; i < size; i++) {
+                encoded[i] = sm3PasswordEncoder.encode(rawPasswords.get(i));
+            }
+            return Arrays.asList(encoded);
+        }
+        
+        // 按工作线程数切分为连续区间，每个区间由一个线程计算
+        int chunkSize = (size + workers - 1) / workers;
+        List<Future<?>> futures = new ArrayList<>(workers);
+        for (int from = 0; from < size; from += chunkSize) {
+            int start = from;
+            int end = Math.min(size, from + chunkSize);
+            futures.add(hashExecutor.submit(() -> {
+                for (int i = start; i < end; i++) {
+                    encoded[i] = sm3PasswordEncoder.encode(rawPasswords.get(i));
+                }
+            }));
+        }
+        
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            futures.forEach(f -> f.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("密码哈希计算被中断", e);
+        } catch (ExecutionException e) {
+            futures.forEach(f -> f.cancel(true));
+            throw new RuntimeException("密码哈希计算失败: " + e.getCause().getMessage(), e.getCause());
+        }
+        
+        return Arrays.asList(encoded);
+    }
+    
+    @Override
+    public List<User> prepareStudentAccounts(List<StudentProfile> profiles) {
+        if (profiles.isEmpty()) {
+            return Collections.emptyList();
+        }
+        
+        // 默认密码（身份证号后8位）
+        List<String> defaultPasswords = new ArrayList<>(profiles.size());
+        for (StudentProfile profile : profiles) {
+            String idNumber = profile.getIdNumber();
+            if (idNumber == null || idNumber.length() < DEFAULT_PASSWORD_LENGTH) {
+                throw new IllegalArgumentException("身份证号格式不正确，无法设置默认密码: " + profile.getStudentId());
+            }
+            defaultPasswords.add(idNumber.substring(idNumber.length() - DEFAULT_PASSWORD_LENGTH));
+        }
+        
+        long start = System.currentTimeMillis();
+        List<String> encodedPasswords = encodePasswords(defaultPasswords);
+        log.info("完成{}个学生账号默认密码哈希计算，耗时{}ms", profiles.size(), System.currentTimeMillis() - start);
+        
+        Role studentRole = roleRepository.findByName(STUDENT_ROLE)
+                .orElseThrow(() -> new RuntimeException("学生角色不存在"));
+        LocalDateTime now = LocalDateTime.now();
+        
+        List<User> users = new ArrayList<>(profiles.size());
+        for (int i = 0; i < profiles.size(); i++) {
+            StudentProfile profile = profiles.get(i);
+            User user = new User();
+            user.setUsername(profile.getStudentId());
+            user.setName(profile.getName());
+            user.setPassword(encodedPasswords.get(i));
+            
+            Set<Role> roles = new HashSet<>();
+            roles.add(studentRole);
+            user.setRoles(roles);
+            
+            user.setEnabled(true);
+            user.setAccountNonLocked(true);
+            user.setFirstLogin(true);
+            user.setLastPasswordChangeTime(now);
+            users.add(user);
+        }
+        return users;
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        hashExecutor.shutdownNow();
+    }
+}
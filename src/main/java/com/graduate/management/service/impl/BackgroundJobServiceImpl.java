@@ -0,0 +1,600 @@
+package com.graduate.management.service.impl;
+
+import com.graduate.management.config.ClusterNode;
+import com.graduate.management.dto.BackgroundJobDto;
+import com.graduate.management.entity.BackgroundJob;
+import com.graduate.management.entity.User;
+import com.graduate.management.repository.BackgroundJobRepository;
+import com.graduate.management.security.PermissionEngine;
+import com.graduate.management.security.SystemRole;
+import com.graduate.management.service.BackgroundJobService;
+import com.graduate.management.service.JobProgress;
+import com.graduate.management.service.StudentProfileService;
+import com.graduate.management.service.StudentRosterExportService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
+@Service
+public class BackgroundJobServiceImpl implements BackgroundJobService {
+
+    private static final List<String> ACTIVE_STATUSES = Arrays.asList(STATUS_PENDING, STATUS_RUNNING);
+    private static final List<String> PENDING_STATUSES = Collections.singletonList(STATUS_PENDING);
+    private static final List<String> RUNNING_STATUSES = Collections.singletonList(STATUS_RUNNING);
+    private static final long PROGRESS_FLUSH_INTERVAL_MILLIS = 2000;
+    private static final int MAX_MESSAGE_LENGTH = 500;
+    private static final int FIRST_DATA_ROW = 2; // Excel第一行为表头
+
+    private final BackgroundJobRepository backgroundJobRepository;
+    private final StudentProfileService studentProfileService;
+    private final StudentRosterExportService studentRosterExportService;
+    private final PermissionEngine permissionEngine;
+    private final String nodeId;
+    private final ThreadPoolExecutor jobExecutor;
+    private final Map<Long, RunningJob> runningJobs = new ConcurrentHashMap<>();
+    private final Path workDir;
+    private final int maxJobsPerUser;
+    private final int maxErrorRows;
+    private final long resultTtlHours;
+    private final long staleTimeoutSeconds;
+
+    public BackgroundJobServiceImpl(BackgroundJobRepository backgroundJobRepository,
+                                    StudentProfileService studentProfileService,
+                                    StudentRosterExportService studentRosterExportService,
+                                    PermissionEngine permissionEngine,
+                                    ClusterNode clusterNode,
+                                    @Value("${system.job.max-concurrent:2}") int maxConcurrent,
+                                    @Value("${system.job.queue-capacity:20}") int queueCapacity,
+                                    @Value("${system.job.max-per-user:2}") int maxJobsPerUser,
+                                    @Value("${system.job.max-error-rows:1000}") int maxErrorRows,
+                                    @Value("${system.job.result-ttl-hours:24}") long resultTtlHours,
+                                    @Value("${system.job.stale-timeout:300}") long staleTimeoutSeconds,
+                                    @Value("${system.job.work-dir:${java.io.tmpdir}/sims-jobs}") String workDir) {
+        this.backgroundJobRepository = backgroundJobRepository;
+        this.studentProfileService = studentProfileService;
+        this.studentRosterExportService = studentRosterExportService;
+        this.permissionEngine = permissionEngine;
+        this.nodeId = clusterNode.getNodeId();
+        this.maxJobsPerUser = maxJobsPerUser;
+        this.maxErrorRows = maxErrorRows;
+        this.resultTtlHours = resultTtlHours;
+        this.staleTimeoutSeconds = staleTimeoutSeconds;
+        this.workDir = Paths.get(workDir);
+
+        // 固定线程数加有界队列，队列满时拒绝提交，避免大量任务同时占用数据库连接
+        AtomicInteger counter = new AtomicInteger();
+        this.jobExecutor = new ThreadPoolExecutor(maxConcurrent, maxConcurrent, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+                    Thread thread = new Thread(r, "background-job-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        Files.createDirectories(workDir);
+
+        // 本节点重启前未完成的任务已无法继续执行，其他节点的任务不受影响
+        int interrupted = backgroundJobRepository.failInterruptedJobs(nodeId, ACTIVE_STATUSES, STATUS_FAILED,
+                "服务重启，任务中断", LocalDateTime.now());
+        if (interrupted > 0) {
+            log.warn("{}个后台任务因服务重启而中断", interrupted);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobExecutor.shutdownNow();
+    }
+
+    @Override
+    public BackgroundJobDto submitStudentImport(User owner, MultipartFile file) {
+        String fileName = file.getOriginalFilename();
+        if (fileName == null || !(fileName.endsWith(".xlsx") || fileName.endsWith(".xls"))) {
+            throw new RuntimeException("文件格式不正确，仅支持Excel文件(.xlsx, .xls)");
+        }
+        checkQuota(owner);
+
+        // 请求结束后上传的临时文件会被删除，先保存到任务目录
+        Path input;
+        try {
+            input = Files.createTempFile(workDir, "import-", fileName.endsWith(".xlsx") ? ".xlsx" : ".xls");
+            file.transferTo(input.toFile());
+        } catch (IOException e) {
+            throw new RuntimeException("保存上传文件失败: " + e.getMessage(), e);
+        }
+
+        BackgroundJob job = createJob(TYPE_STUDENT_IMPORT, owner, fileName, null);
+        return submitImport(job, input, FIRST_DATA_ROW);
+    }
+
+    @Override
+    public BackgroundJobDto resumeStudentImport(Long id, User currentUser) {
+        BackgroundJob previous = findAccessibleJob(id, currentUser);
+        if (!isResumable(previous)) {
+            throw new RuntimeException("只有失败或已取消的导入任务可以续传");
+        }
+        Path input = requireJobFile(previous, previous.getInputPath(), "导入文件已过期，请重新上传");
+        checkQuota(currentUser);
+
+        // 导入文件移交给新任务
+        int startRow = previous.getLastCommittedRow() != null ? previous.getLastCommittedRow() + 1 : FIRST_DATA_ROW;
+        previous.setInputPath(null);
+        backgroundJobRepository.save(previous);
+
+        BackgroundJob job = createJob(TYPE_STUDENT_IMPORT, currentUser, previous.getFileName(),
+                "resumeFrom=" + id + ", startRow=" + startRow);
+        log.info("续传导入任务 {}，从第{}行开始，新任务 {}", id, startRow, job.getId());
+        return submitImport(job, input, startRow);
+    }
+
+    /**
+     * 提交导入任务
+     * 导入文件在任务成功后删除；失败或取消时保留，可从最后提交的行续传
+     */
+    private BackgroundJobDto submitImport(BackgroundJob job, Path input, int startRow) {
+        job.setInputPath(input.toString());
+        job.setLastCommittedRow(startRow - 1);
+        backgroundJobRepository.save(job);
+
+        String fileName = job.getFileName();
+        return submit(job, running -> {
+            running.inputPath = input.toString();
+            try (InputStream in = Files.newInputStream(input)) {
+                studentProfileService.importStudentProfiles(in, fileName, startRow, running);
+            }
+        });
+    }
+
+    @Override
+    public BackgroundJobDto submitRosterExport(User owner, Long collegeId, Long majorId, String format) {
+        String ext = StudentRosterExportService.FORMAT_CSV.equalsIgnoreCase(format)
+                ? StudentRosterExportService.FORMAT_CSV : StudentRosterExportService.FORMAT_XLSX;
+        checkQuota(owner);
+
+        String fileName = "学生名册_" + LocalDate.now().format(DateTimeFormatter.BASIC_ISO_DATE) + "." + ext;
+        String parameters = "format=" + ext + ", collegeId=" + collegeId + ", majorId=" + majorId;
+        BackgroundJob job = createJob(TYPE_ROSTER_EXPORT, owner, fileName, parameters);
+        Path output = workDir.resolve("export-" + job.getId() + "." + ext);
+
+        return submit(job, running -> {
+            running.resultPath = output.toString();
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(output))) {
+                studentRosterExportService.exportRoster(owner, collegeId, majorId, ext, out, running);
+            }
+        });
+    }
+
+    @Override
+    public BackgroundJobDto getJob(Long id, User currentUser) {
+        return toDto(findAccessibleJob(id, currentUser));
+    }
+
+    @Override
+    public Page<BackgroundJobDto> getJobs(User currentUser, Pageable pageable) {
+        return backgroundJobRepository.findByOwnerIdOrderByCreatedAtDesc(currentUser.getId(), pageable)
+                .map(this::toDto);
+    }
+
+    @Override
+    public BackgroundJobDto cancelJob(Long id, User currentUser) {
+        findAccessibleJob(id, currentUser);
+
+        // 取消先记录到数据库，任务可能在其他节点执行，执行节点定期读取状态并在下一个检查点停止。
+        // 排队中的任务不会再开始，直接记录结束时间；执行中的任务由执行节点停止后记录
+        LocalDateTime now = LocalDateTime.now();
+        int updated = backgroundJobRepository.transition(id, PENDING_STATUSES, STATUS_CANCELLED, null, now);
+        if (updated == 0) {
+            updated = backgroundJobRepository.transition(id, RUNNING_STATUSES, STATUS_CANCELLED, null, null);
+        }
+        if (updated == 0) {
+            throw new RuntimeException("任务已结束，无法取消");
+        }
+
+        RunningJob running = runningJobs.get(id);
+        if (running != null) {
+            running.cancelled = true;
+            if (!running.started && jobExecutor.remove(running.runnable)) {
+                runningJobs.remove(id);
+            }
+        }
+
+        log.info("用户 {} 取消后台任务 {}", currentUser.getUsername(), id);
+        return toDto(backgroundJobRepository.findById(id).orElseThrow(() -> new RuntimeException("任务不存在")));
+    }
+
+    @Override
+    public BackgroundJob getExportResult(Long id, User currentUser) {
+        BackgroundJob job = findAccessibleJob(id, currentUser);
+        if (!TYPE_ROSTER_EXPORT.equals(job.getJobType())) {
+            throw new RuntimeException("该任务没有可下载的文件");
+        }
+        if (!STATUS_COMPLETED.equals(job.getStatus())) {
+            throw new RuntimeException("导出任务尚未完成");
+        }
+        requireJobFile(job, job.getResultPath(), "导出文件不存在或已过期");
+        return job;
+    }
+
+    /**
+     * 获取任务的导入或导出文件
+     * 文件保存在system.job.work-dir下，多节点部署时该目录应为各节点共享的存储；
+     * 未共享时只有执行节点能读取，请求被分配到其他节点时明确提示，而不是报告文件已过期
+     */
+    private Path requireJobFile(BackgroundJob job, String path, String expiredMessage) {
+        if (path == null) {
+            throw new RuntimeException(expiredMessage);
+        }
+        Path file = Paths.get(path);
+        if (Files.exists(file)) {
+            return file;
+        }
+        if (job.getNodeId() != null && !nodeId.equals(job.getNodeId())) {
+            throw new RuntimeException("任务文件保存在节点" + job.getNodeId() + "上，当前节点无法读取，请稍后重试"
+                    + "（多节点部署需将system.job.work-dir配置为各节点共享的目录）");
+        }
+        throw new RuntimeException(expiredMessage);
+    }
+
+    /**
+     * 定时清理过期的导出文件
+     * 每个节点只清理自己执行的任务，工作目录未共享时文件只在执行节点上，不标注@ClusterSingleton
+     */
+    @Scheduled(cron = "${system.job.cleanup-cron:0 30 * * * ?}")
+    public void cleanupExpiredResults() {
+        List<BackgroundJob> expired = backgroundJobRepository.findExpiredWithFiles(nodeId,
+                LocalDateTime.now().minusHours(resultTtlHours));
+        for (BackgroundJob job : expired) {
+            if (job.getResultPath() != null) {
+                deleteQuietly(Paths.get(job.getResultPath()));
+                job.setResultPath(null);
+            }
+            if (job.getInputPath() != null) {
+                deleteQuietly(Paths.get(job.getInputPath()));
+                job.setInputPath(null);
+            }
+        }
+        if (!expired.isEmpty()) {
+            backgroundJobRepository.saveAll(expired);
+            log.info("清理过期任务文件，涉及任务{}个", expired.size());
+        }
+    }
+
+    /**
+     * 定时刷新本节点未完成任务的心跳，并将长时间没有心跳的任务标记为失败，
+     * 已停止且不再启动的节点上的任务由其他节点在超时后清理
+     */
+    @Scheduled(fixedDelayString = "${system.job.heartbeat-interval:30000}")
+    public void heartbeat() {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            if (!runningJobs.isEmpty()) {
+                backgroundJobRepository.touchHeartbeat(new ArrayList<>(runningJobs.keySet()), now);
+            }
+            int stale = backgroundJobRepository.failStaleJobs(ACTIVE_STATUSES, now.minusSeconds(staleTimeoutSeconds),
+                    STATUS_FAILED, "执行节点已停止，任务中断", now);
+            if (stale > 0) {
+                log.warn("{}个后台任务的执行节点长时间没有心跳，已标记为失败", stale);
+            }
+            backgroundJobRepository.stopStaleCancelledJobs(STATUS_CANCELLED, now.minusSeconds(staleTimeoutSeconds), now);
+        } catch (Exception e) {
+            log.warn("刷新后台任务心跳失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 每个用户同时进行的任务数有上限
+     */
+    private void checkQuota(User owner) {
+        long active = backgroundJobRepository.countByOwnerIdAndStatusIn(owner.getId(), ACTIVE_STATUSES);
+        if (active >= maxJobsPerUser) {
+            throw new RuntimeException("您已有" + active + "个任务正在执行，请等待完成后再提交");
+        }
+    }
+
+    private BackgroundJob createJob(String jobType, User owner, String fileName, String parameters) {
+        BackgroundJob job = new BackgroundJob();
+        job.setJobType(jobType);
+        job.setStatus(STATUS_PENDING);
+        job.setOwner(owner);
+        job.setNodeId(nodeId);
+        job.setHeartbeatAt(LocalDateTime.now());
+        job.setFileName(fileName);
+        job.setParameters(parameters);
+        job.setTotalRows(0);
+        job.setProcessedRows(0);
+        job.setFailedRows(0);
+        return backgroundJobRepository.save(job);
+    }
+
+    /**
+     * 提交任务到线程池
+     * 任务线程沿用提交者的安全上下文，创建人等信息与同步调用一致
+     */
+    private BackgroundJobDto submit(BackgroundJob job, JobTask task) {
+        RunningJob running = new RunningJob(job.getId());
+        running.runnable = new DelegatingSecurityContextRunnable(() -> execute(running, task));
+        runningJobs.put(job.getId(), running);
+
+        try {
+            jobExecutor.execute(running.runnable);
+        } catch (RejectedExecutionException e) {
+            runningJobs.remove(job.getId());
+            // 导入文件保留，任务可稍后续传
+            markFinished(job, STATUS_FAILED, "任务队列已满");
+            throw new RuntimeException("当前后台任务较多，请稍后再试");
+        }
+
+        log.info("提交后台任务 {} - 类型: {}, 用户: {}", job.getId(), job.getJobType(), job.getOwner().getUsername());
+        return toDto(job);
+    }
+
+    private void execute(RunningJob running, JobTask task) {
+        Long id = running.jobId;
+        try {
+            if (running.cancelled) {
+                finish(running, STATUS_CANCELLED, null);
+                return;
+            }
+            running.started = true;
+            if (backgroundJobRepository.markStarted(id, STATUS_PENDING, STATUS_RUNNING, LocalDateTime.now()) == 0) {
+                // 排队期间已通过其他节点取消
+                finish(running, STATUS_CANCELLED, null);
+                return;
+            }
+
+            long start = System.currentTimeMillis();
+            task.execute(running);
+            finish(running, running.cancelled ? STATUS_CANCELLED : STATUS_COMPLETED, null);
+            log.info("后台任务 {} 执行完成，耗时{}ms", id, System.currentTimeMillis() - start);
+        } catch (CancellationException e) {
+            finish(running, STATUS_CANCELLED, null);
+            log.info("后台任务 {} 已取消", id);
+        } catch (Exception e) {
+            log.error("后台任务 {} 执行失败: {}", id, e.getMessage(), e);
+            finish(running, STATUS_FAILED, e.getMessage());
+        } finally {
+            runningJobs.remove(id);
+        }
+    }
+
+    /**
+     * 任务结束时一次性写入最终进度、失败行和结果文件
+     * 状态以条件更新写入，任务已被取消（可能在其他节点上）或因心跳超时被标记失败时保留已记录的状态
+     */
+    private void finish(RunningJob running, String status, String errorMessage) {
+        LocalDateTime now = LocalDateTime.now();
+        boolean applied = backgroundJobRepository.transition(running.jobId, ACTIVE_STATUSES, status,
+                truncate(errorMessage), now) > 0;
+        if (!applied) {
+            backgroundJobRepository.markStopped(running.jobId, now);
+        }
+        boolean completed = applied && STATUS_COMPLETED.equals(status);
+        if (!completed && running.resultPath != null) {
+            deleteQuietly(Paths.get(running.resultPath));
+            running.resultPath = null;
+        }
+
+        BackgroundJob job = backgroundJobRepository.findById(running.jobId).orElse(null);
+        if (job == null) {
+            return;
+        }
+        job.setTotalRows(running.total.get());
+        job.setProcessedRows(running.processed.get());
+        job.setFailedRows(running.failed.get());
+        if (running.lastCommittedRow.get() > 0) {
+            job.setLastCommittedRow(running.lastCommittedRow.get());
+        }
+        if (completed && running.inputPath != null) {
+            deleteQuietly(Paths.get(running.inputPath));
+            job.setInputPath(null);
+        }
+        if (!running.errorRows.isEmpty()) {
+            job.setErrorRows(String.join("\n", running.copyErrorRows()));
+        }
+        job.setResultPath(running.resultPath);
+        backgroundJobRepository.save(job);
+    }
+
+    private void markFinished(BackgroundJob job, String status, String errorMessage) {
+        job.setStatus(status);
+        job.setErrorMessage(truncate(errorMessage));
+        job.setFinishedAt(LocalDateTime.now());
+        backgroundJobRepository.save(job);
+    }
+
+    private String truncate(String message) {
+        return message != null && message.length() > MAX_MESSAGE_LENGTH ? message.substring(0, MAX_MESSAGE_LENGTH) : message;
+    }
+
+    private BackgroundJob findAccessibleJob(Long id, User currentUser) {
+        BackgroundJob job = backgroundJobRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("任务不存在"));
+        boolean isAdmin = permissionEngine.scopeOf(currentUser).hasRole(SystemRole.ADMIN);
+        if (!isAdmin && !job.getOwner().getId().equals(currentUser.getId())) {
+            throw new RuntimeException("无权访问该任务");
+        }
+        return job;
+    }
+
+    private BackgroundJobDto toDto(BackgroundJob job) {
+        BackgroundJobDto dto = BackgroundJobDto.builder()
+                .id(job.getId())
+                .jobType(job.getJobType())
+                .status(job.getStatus())
+                .ownerId(job.getOwner().getId())
+                .ownerUsername(job.getOwner().getUsername())
+                .fileName(job.getFileName())
+                .parameters(job.getParameters())
+                .totalRows(job.getTotalRows())
+                .processedRows(job.getProcessedRows())
+                .failedRows(job.getFailedRows())
+                .errorRows(job.getErrorRows() != null
+                        ? Arrays.asList(job.getErrorRows().split("\n")) : Collections.emptyList())
+                .errorMessage(job.getErrorMessage())
+                .lastCommittedRow(job.getLastCommittedRow())
+                .resultAvailable(STATUS_COMPLETED.equals(job.getStatus()) && job.getResultPath() != null)
+                .resumable(isResumable(job))
+                .createdAt(job.getCreatedAt())
+                .startedAt(job.getStartedAt())
+                .finishedAt(job.getFinishedAt())
+                .build();
+
+        // 执行中的任务使用内存中的实时进度
+        RunningJob running = runningJobs.get(job.getId());
+        if (running != null && ACTIVE_STATUSES.contains(job.getStatus())) {
+            dto.setTotalRows(running.total.get());
+            dto.setProcessedRows(running.processed.get());
+            dto.setFailedRows(running.failed.get());
+            if (running.lastCommittedRow.get() > 0) {
+                dto.setLastCommittedRow(running.lastCommittedRow.get());
+            }
+            dto.setErrorRows(running.copyErrorRows());
+        }
+        return dto;
+    }
+
+    /**
+     * 已取消但执行节点尚未停止（未记录结束时间）的任务不能续传，避免与仍在写入的原任务重复导入
+     */
+    private boolean isResumable(BackgroundJob job) {
+        return TYPE_STUDENT_IMPORT.equals(job.getJobType())
+                && (STATUS_FAILED.equals(job.getStatus()) || STATUS_CANCELLED.equals(job.getStatus()))
+                && job.getFinishedAt() != null
+                && job.getInputPath() != null;
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("删除任务文件失败: {}", path, e);
+        }
+    }
+
+    /**
+     * 任务执行体
+     */
+    private interface JobTask {
+        void execute(RunningJob running) throws Exception;
+    }
+
+    /**
+     * 执行中任务的内存状态
+     * 进度在内存中累计，每隔一段时间刷新到数据库，避免逐行写库
+     */
+    private final class RunningJob implements JobProgress {
+        private final Long jobId;
+        private final AtomicInteger total = new AtomicInteger();
+        private final AtomicInteger processed = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final AtomicInteger lastCommittedRow = new AtomicInteger();
+        private final List<String> errorRows = new ArrayList<>();
+        private volatile boolean cancelled;
+        private volatile boolean started;
+        private volatile String resultPath;
+        private volatile String inputPath;
+        private volatile long lastFlush;
+        private Runnable runnable;
+
+        RunningJob(Long jobId) {
+            this.jobId = jobId;
+        }
+
+        @Override
+        public void setTotal(int total) {
+            this.total.set(total);
+            flushIfDue();
+        }
+
+        @Override
+        public void advance(int rows) {
+            processed.addAndGet(rows);
+            flushIfDue();
+        }
+
+        @Override
+        public void rowFailed(int rowNum, String message) {
+            processed.incrementAndGet();
+            failed.incrementAndGet();
+            synchronized (errorRows) {
+                // 失败行过多时只保留前maxErrorRows条明细
+                if (errorRows.size() < maxErrorRows) {
+                    errorRows.add("第" + rowNum + "行: " + message);
+                }
+            }
+            flushIfDue();
+        }
+
+        @Override
+        public void chunkCommitted(int lastRowNum) {
+            lastCommittedRow.set(lastRowNum);
+            // 在导入数据的事务中执行，提交位置与数据一起提交或回滚
+            backgroundJobRepository.updateCommittedRow(jobId, lastRowNum);
+        }
+
+        /**
+         * 取消可能提交到其他节点，除内存标志外还按刷新间隔读取数据库中的状态
+         */
+        @Override
+        public boolean isCancelled() {
+            flushIfDue();
+            return cancelled;
+        }
+
+        List<String> copyErrorRows() {
+            synchronized (errorRows) {
+                return new ArrayList<>(errorRows);
+            }
+        }
+
+        private void flushIfDue() {
+            long now = System.currentTimeMillis();
+            if (now - lastFlush < PROGRESS_FLUSH_INTERVAL_MILLIS) {
+                return;
+            }
+            lastFlush = now;
+            try {
+                backgroundJobRepository.updateProgress(jobId, total.get(), processed.get(), failed.get());
+                // 任务已在其他节点取消，或因心跳超时被标记为失败
+                if (!ACTIVE_STATUSES.contains(backgroundJobRepository.findStatusById(jobId))) {
+                    cancelled = true;
+                }
+            } catch (Exception e) {
+                log.warn("刷新任务{}进度失败: {}", jobId, e.getMessage());
+            }
+        }
+    }
+}
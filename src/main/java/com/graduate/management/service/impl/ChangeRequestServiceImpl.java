@@ -1,30 +1,65 @@
 package com.graduate.management.service.impl;
 
+import com.graduate.management.dto.BulkReviewResult;
 import com.graduate.management.dto.ChangeRequestDto;
 import com.graduate.management.entity.ChangeRequest;
+import com.graduate.management.entity.College;
 import com.graduate.management.entity.StudentProfile;
 import com.graduate.management.entity.User;
 import com.graduate.management.repository.ChangeRequestRepository;
 import com.graduate.management.repository.StudentProfileRepository;
 import com.graduate.management.repository.UserRepository;
+import com.graduate.management.security.DataScope;
+import com.graduate.management.security.PermissionEngine;
+import com.graduate.management.security.SystemRole;
 import com.graduate.management.service.ChangeRequestService;
+import com.graduate.management.service.PendingChangeRequestCounter;
+import com.graduate.management.service.UserCollegeService;
+import com.graduate.management.util.EnvelopeEncryptor;
+import com.graduate.management.util.IdNumberBlindIndex;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class ChangeRequestServiceImpl implements ChangeRequestService {
 
+    // 批量审核每次锁定和更新的ID数量
+    private static final int REVIEW_CHUNK_SIZE = 1000;
+    
+    // 批量审核通过时可直接写回学籍表的字段及其列名，与applyChange保持一致
+    private static final Map<String, String> APPLICABLE_COLUMNS = new HashMap<>();
+    
+    static {
+        APPLICABLE_COLUMNS.put("name", "name");
+        APPLICABLE_COLUMNS.put("gender", "gender");
+        APPLICABLE_COLUMNS.put("degreeType", "degree_type");
+    }
+
     private final ChangeRequestRepository changeRequestRepository;
     private final StudentProfileRepository studentProfileRepository;
     private final UserRepository userRepository;
+    private final UserCollegeService userCollegeService;
+    private final PendingChangeRequestCounter pendingCounter;
+    private final PermissionEngine permissionEngine;
+    private final JdbcTemplate jdbcTemplate;
+    private final EnvelopeEncryptor envelopeEncryptor;
+    private final IdNumberBlindIndex idNumberBlindIndex;
 
     @Override
     @Transactional
@@ -37,6 +72,7 @@ public class ChangeRequestServiceImpl implements ChangeRequestService {
         
         ChangeRequest changeRequest = new ChangeRequest();
         changeRequest.setStudentProfile(studentProfile);
+        changeRequest.setCollege(studentProfile.getCollege());
         changeRequest.setRequester(requester);
         changeRequest.setFieldName(dto.getFieldName());
         changeRequest.setOldValue(dto.getOldValue());
@@ -44,6 +80,7 @@ public class ChangeRequestServiceImpl implements ChangeRequestService {
         changeRequest.setStatus("PENDING"); // 设置初始状态为待审核
         
         ChangeRequest saved = changeRequestRepository.save(changeRequest);
+        pendingCounter.increment(collegeIdOf(saved));
         return convertToDto(saved);
     }
 
@@ -84,6 +121,7 @@ public class ChangeRequestServiceImpl implements ChangeRequestService {
         }
         
         changeRequestRepository.deleteById(id);
+        pendingCounter.decrement(collegeIdOf(changeRequest), 1);
     }    @Override
     public ChangeRequestDto getChangeRequestById(Long id, User requester) {
         ChangeRequest changeRequest = changeRequestRepository.findById(id)
@@ -128,6 +166,7 @@ public class ChangeRequestServiceImpl implements ChangeRequestService {
         changeRequest.setReviewTime(LocalDateTime.now());
         
         changeRequestRepository.save(changeRequest);
+        pendingCounter.decrement(collegeIdOf(changeRequest), 1);
         
         // 应用变更到学生学籍信息
         StudentProfile studentProfile = changeRequest.getStudentProfile();
@@ -155,8 +194,75 @@ public class ChangeRequestServiceImpl implements ChangeRequestService {
         changeRequest.setReviewTime(LocalDateTime.now());
         
         changeRequest = changeRequestRepository.save(changeRequest);
+        pendingCounter.decrement(collegeIdOf(changeRequest), 1);
         return changeRequest;
     }
+    @Override
+    @Transactional
+    public BulkReviewResult bulkReview(List<Long> ids, boolean approve, User reviewer, String comment) {
+        BulkReviewResult result = new BulkReviewResult();
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        String status = approve ? "APPROVED" : "REJECTED";
+        LocalDateTime now = LocalDateTime.now();
+        // 按学院ID顺序更新计数行，避免并发批量审核相互死锁
+        Map<Long, Long> reviewedByCollege = new TreeMap<>(Comparator.nullsFirst(Comparator.naturalOrder()));
+        
+        for (int from = 0; from < distinctIds.size(); from += REVIEW_CHUNK_SIZE) {
+            List<Long> chunk = distinctIds.subList(from, Math.min(from + REVIEW_CHUNK_SIZE, distinctIds.size()));
+            
+            // 按ID顺序加锁，避免并发批量审核相互死锁
+            Map<Long, ChangeRequestRepository.ReviewRow> locked = changeRequestRepository.lockForReview(chunk).stream()
+                    .collect(Collectors.toMap(ChangeRequestRepository.ReviewRow::getId, row -> row));
+            
+            List<Long> accepted = new ArrayList<>();
+            Map<String, List<Object[]>> profileUpdates = new HashMap<>();
+            List<Object[]> idNumberUpdates = new ArrayList<>();
+            for (Long id : chunk) {
+                ChangeRequestRepository.ReviewRow row = locked.get(id);
+                if (row == null) {
+                    result.fail(id, "变更请求不存在");
+                    continue;
+                }
+                if (!"PENDING".equals(row.getStatus())) {
+                    result.fail(id, "只能审核待审核状态的变更请求");
+                    continue;
+                }
+                if (approve && "idNumber".equals(row.getFieldName())) {
+                    // 身份证号需加密并同步更新盲索引，不能按普通列直接写回
+                    String newValue = row.getNewValue();
+                    idNumberUpdates.add(new Object[] {envelopeEncryptor.encrypt(newValue),
+                            idNumberBlindIndex.compute(newValue), Timestamp.valueOf(now), row.getStudentProfileId()});
+                } else if (approve) {
+                    String column = APPLICABLE_COLUMNS.get(row.getFieldName());
+                    if (column == null) {
+                        result.fail(id, "不支持的字段变更: " + row.getFieldName());
+                        continue;
+                    }
+                    profileUpdates.computeIfAbsent(column, c -> new ArrayList<>())
+                            .add(new Object[] {row.getNewValue(), Timestamp.valueOf(now), row.getStudentProfileId()});
+                }
+                accepted.add(id);
+                reviewedByCollege.merge(row.getCollegeId(), 1L, Long::sum);
+                result.success(id);
+            }
+            
+            if (accepted.isEmpty()) {
+                continue;
+            }
+            // 同一字段的变更合并为一次JDBC批量更新，按申请ID顺序执行
+            profileUpdates.forEach((column, args) -> jdbcTemplate.batchUpdate(
+                    "UPDATE student_profiles SET " + column + " = ?, updated_at = ? WHERE id = ?", args));
+            if (!idNumberUpdates.isEmpty()) {
+                jdbcTemplate.batchUpdate("UPDATE student_profiles SET id_number = ?, id_number_hash = ?, updated_at = ? WHERE id = ?",
+                        idNumberUpdates);
+            }
+            changeRequestRepository.reviewAll(accepted, status, reviewer, comment, now);
+        }
+        
+        reviewedByCollege.forEach((collegeId, count) -> pendingCounter.decrement(collegeId, count));
+        return result;
+    }
+    
       // 将实体转换为DTO
     @Override
     public ChangeRequestDto convertToDto(ChangeRequest changeRequest) {
@@ -165,6 +271,10 @@ public class ChangeRequestServiceImpl implements ChangeRequestService {
         dto.setStudentProfileId(changeRequest.getStudentProfile().getId());
         dto.setStudentName(changeRequest.getStudentProfile().getName());
         dto.setStudentId(changeRequest.getStudentProfile().getStudentId());
+        if (changeRequest.getCollege() != null) {
+            dto.setCollegeId(changeRequest.getCollege().getId());
+            dto.setCollegeName(changeRequest.getCollege().getName());
+        }
         dto.setRequesterId(changeRequest.getRequester().getId());
         dto.setRequesterName(changeRequest.getRequester().getName());
         dto.setFieldName(changeRequest.getFieldName());
@@ -195,9 +305,9 @@ public class ChangeRequestServiceImpl implements ChangeRequestService {
                 studentProfile.setGender(newValue);
                 break;
             case "idNumber":
-                // 注意：身份证号等敏感信息需要加密存储
-                // 在实际应用中，这里应该先加密再存储
-                // studentProfile.setIdNumber(sm4Util.encrypt(newValue));
+                // 身份证号写入时由转换器加密，盲索引需同步更新
+                studentProfile.setIdNumber(newValue);
+                studentProfile.setIdNumberHash(idNumberBlindIndex.compute(newValue));
                 break;
             case "degreeType":
                 studentProfile.setDegreeType(newValue);
@@ -220,14 +330,18 @@ public class ChangeRequestServiceImpl implements ChangeRequestService {
     }
     
     @Override
+    @Transactional(readOnly = true)
     public Page<ChangeRequestDto> getCollegeChangeRequests(User user, String status, Pageable pageable) {
-        // 根据用户的学院权限过滤变更申请
-        // 这里需要根据实际业务逻辑实现，比如通过用户的学院ID来过滤
+        // 只返回用户所属学院的变更申请，按(status, college_id, createdAt)索引查询
+        Long collegeId = userCollegeService.getCollegeId(user.getId());
+        if (collegeId == null) {
+            return Page.empty(pageable);
+        }
         if (status != null && !status.isEmpty()) {
-            return changeRequestRepository.findByStatus(status, pageable)
+            return changeRequestRepository.findByCollegeIdAndStatus(collegeId, status, pageable)
                     .map(this::convertToDto);
         } else {
-            return changeRequestRepository.findAll(pageable)
+            return changeRequestRepository.findByCollegeId(collegeId, pageable)
                     .map(this::convertToDto);
         }
     }
@@ -252,6 +366,39 @@ public class ChangeRequestServiceImpl implements ChangeRequestService {
         changeRequest.setStatus("CANCELLED");
         changeRequest.setReviewTime(LocalDateTime.now());
         
-        return changeRequestRepository.save(changeRequest);
+        ChangeRequest cancelled = changeRequestRepository.save(changeRequest);
+        pendingCounter.decrement(collegeIdOf(cancelled), 1);
+        return cancelled;
+    }
+    
+    @Override
+    public long countPendingChangeRequests(User user) {
+        DataScope scope = permissionEngine.scopeOf(user);
+        if (scope.hasRole(SystemRole.GRADUATE_ADMIN)) {
+            return pendingCounter.getTotal();
+        }
+        Long collegeId = scope.getCollegeId();
+        return collegeId != null ? pendingCounter.getCount(collegeId) : 0;
+    }
+    
+    @Override
+    @Transactional
+    public void syncCollege(Long studentProfileId, College college) {
+        List<Number> pendingColleges = changeRequestRepository.lockPendingCollegeIds(studentProfileId);
+        if (changeRequestRepository.updateCollegeByStudentProfileId(studentProfileId, college) == 0
+                || pendingColleges.isEmpty()) {
+            return;
+        }
+        // 待审核申请随学生转到新学院，计数从原学院转移过去
+        Map<Long, Long> movedByCollege = new TreeMap<>(Comparator.nullsFirst(Comparator.naturalOrder()));
+        for (Number collegeId : pendingColleges) {
+            movedByCollege.merge(collegeId != null ? collegeId.longValue() : null, 1L, Long::sum);
+        }
+        movedByCollege.forEach((collegeId, count) -> pendingCounter.decrement(collegeId, count));
+        pendingCounter.increment(college != null ? college.getId() : null, pendingColleges.size());
+    }
+    
+    private Long collegeIdOf(ChangeRequest changeRequest) {
+        return changeRequest.getCollege() != null ? changeRequest.getCollege().getId() : null;
     }
 }
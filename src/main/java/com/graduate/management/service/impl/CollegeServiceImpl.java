@@ -2,6 +2,7 @@ package com.graduate.management.service.impl;
 
 import com.graduate.management.entity.College;
 import com.graduate.management.repository.CollegeRepository;
+import com.graduate.management.repository.UserCollegeAssignmentRepository;
 import com.graduate.management.service.CollegeService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -19,6 +20,7 @@ import java.util.Optional;
 public class CollegeServiceImpl implements CollegeService {
 
     private final CollegeRepository collegeRepository;
+    private final UserCollegeAssignmentRepository userCollegeAssignmentRepository;
 
     @Override
     public College createCollege(College college) {
@@ -65,6 +67,9 @@ public class CollegeServiceImpl implements CollegeService {
         if (!collegeRepository.existsById(id)) {
             throw new EntityNotFoundException("学院不存在: " + id);
         }
+        if (userCollegeAssignmentRepository.existsByCollegeId(id)) {
+            throw new RuntimeException("学院下仍有已分配的人员，请先解除分配");
+        }
         collegeRepository.deleteById(id);
     }
 
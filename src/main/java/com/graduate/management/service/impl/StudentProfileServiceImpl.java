@@ -1,35 +1,57 @@
 package com.graduate.management.service.impl;
 
+import com.graduate.management.dto.BulkReviewResult;
 import com.graduate.management.dto.StudentProfileDto;
+import com.graduate.management.dto.StudentProfileQuery;
+import com.graduate.management.dto.StudentProfileSummaryDto;
 import com.graduate.management.entity.College;
 import com.graduate.management.entity.Major;
-import com.graduate.management.entity.Role;
+import com.graduate.management.entity.StudentPhoto;
+import com.graduate.management.entity.StudentPhotoThumbnail;
 import com.graduate.management.entity.StudentProfile;
 import com.graduate.management.entity.User;
 import com.graduate.management.repository.CollegeRepository;
 import com.graduate.management.repository.MajorRepository;
-import com.graduate.management.repository.RoleRepository;
+import com.graduate.management.repository.StudentPhotoRepository;
+import com.graduate.management.repository.StudentPhotoThumbnailRepository;
 import com.graduate.management.repository.StudentProfileRepository;
+import com.graduate.management.repository.StudentProfileSpecifications;
 import com.graduate.management.repository.UserRepository;
-import com.graduate.management.security.SM3PasswordEncoder;
+import com.graduate.management.security.DataScope;
+import com.graduate.management.security.PermissionEngine;
+import com.graduate.management.security.SystemRole;
 import com.graduate.management.security.UserDetailsImpl;
+import com.graduate.management.service.AccountProvisioningService;
+import com.graduate.management.service.ChangeRequestService;
+import com.graduate.management.service.JobProgress;
 import com.graduate.management.service.StudentProfileService;
+import com.graduate.management.service.UserCollegeService;
 import com.graduate.management.util.DtoMaskUtil;
-import com.graduate.management.util.SM4Util;
+import com.graduate.management.util.EnvelopeEncryptor;
+import com.graduate.management.util.IdNumberBlindIndex;
+import com.graduate.management.util.SM3Util;
+import com.graduate.management.util.ThumbnailGenerator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.bouncycastle.util.encoders.Hex;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 import java.io.InputStream;
 import java.io.IOException;
 import java.util.Arrays;
@@ -37,11 +59,15 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -53,10 +79,32 @@ public class StudentProfileServiceImpl implements StudentProfileService {
     private final UserRepository userRepository;
     private final CollegeRepository collegeRepository;
     private final MajorRepository majorRepository;
-    private final RoleRepository roleRepository;
     private final DtoMaskUtil dtoMaskUtil;
-    private final SM4Util sm4Util;
-    private final SM3PasswordEncoder sm3PasswordEncoder;
+    private final EnvelopeEncryptor envelopeEncryptor;
+    private final AccountProvisioningService accountProvisioningService;
+    private final StudentPhotoRepository studentPhotoRepository;
+    private final StudentPhotoThumbnailRepository studentPhotoThumbnailRepository;
+    private final ThumbnailGenerator thumbnailGenerator;
+    private final SM3Util sm3Util;
+    private final TransactionTemplate transactionTemplate;
+    private final IdNumberBlindIndex idNumberBlindIndex;
+    private final UserCollegeService userCollegeService;
+    private final ChangeRequestService changeRequestService;
+    private final PermissionEngine permissionEngine;
+    
+    // 批量审核每次锁定和更新的ID数量
+    private static final int REVIEW_CHUNK_SIZE = 1000;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    private static final String PHOTO_URL_PREFIX = "/api/student-profiles/";
+    
+    @Value("${system.photo.max-size:2097152}")
+    private long maxPhotoSize;
+    
+    @Value("${system.import.chunk-size:500}")
+    private int importChunkSize;
 
     @Override
     @Transactional
@@ -81,7 +129,8 @@ public class StudentProfileServiceImpl implements StudentProfileService {
         studentProfile.setStudentId(studentId);
         studentProfile.setName(dto.getName());
         studentProfile.setGender(dto.getGender());
-        studentProfile.setIdNumber(sm4Util.encrypt(dto.getIdNumber())); // 加密身份证号
+        studentProfile.setIdNumber(dto.getIdNumber()); // 身份证号写入时自动加密
+        studentProfile.setIdNumberHash(idNumberBlindIndex.compute(dto.getIdNumber()));
         studentProfile.setCollege(college);
         studentProfile.setMajor(major);
         studentProfile.setDegreeType(dto.getDegreeType());
@@ -89,24 +138,24 @@ public class StudentProfileServiceImpl implements StudentProfileService {
         studentProfile.setEnrollmentDate(dto.getEnrollmentDate());
         studentProfile.setExpectedGraduationDate(dto.getExpectedGraduationDate());
         
-        // 加密敏感信息
+        // 敏感信息写入时自动加密
         if (dto.getCurrentAddress() != null) {
-            studentProfile.setCurrentAddress(sm4Util.encrypt(dto.getCurrentAddress()));
+            studentProfile.setCurrentAddress(dto.getCurrentAddress());
         }
         if (dto.getPermanentAddress() != null) {
-            studentProfile.setPermanentAddress(sm4Util.encrypt(dto.getPermanentAddress()));
+            studentProfile.setPermanentAddress(dto.getPermanentAddress());
         }
         studentProfile.setEmergencyContact(dto.getEmergencyContact());
         if (dto.getEmergencyPhone() != null) {
-            studentProfile.setEmergencyPhone(sm4Util.encrypt(dto.getEmergencyPhone()));
+            studentProfile.setEmergencyPhone(dto.getEmergencyPhone());
         }
         
         studentProfile.setEducationBackground(dto.getEducationBackground());
         studentProfile.setWorkExperience(dto.getWorkExperience());
-        studentProfile.setPhoto(dto.getPhoto());
         studentProfile.setApproved(false);
         
         StudentProfile saved = studentProfileRepository.save(studentProfile);
+        permissionEngine.evictStudentProfileId(student.getId());
         return convertToDto(saved);
     }
 
@@ -124,7 +173,8 @@ public class StudentProfileServiceImpl implements StudentProfileService {
             studentProfile.setGender(dto.getGender());
         }
         if (dto.getIdNumber() != null) {
-            studentProfile.setIdNumber(sm4Util.encrypt(dto.getIdNumber()));
+            studentProfile.setIdNumber(dto.getIdNumber());
+            studentProfile.setIdNumberHash(idNumberBlindIndex.compute(dto.getIdNumber()));
         }
         
         // 更新学院和专业信息（如果有变更）
@@ -132,6 +182,7 @@ public class StudentProfileServiceImpl implements StudentProfileService {
             College college = collegeRepository.findById(dto.getCollegeId())
                     .orElseThrow(() -> new RuntimeException("学院不存在"));
             studentProfile.setCollege(college);
+            changeRequestService.syncCollege(studentProfile.getId(), college);
         }
         
         if (dto.getMajorId() != null && !dto.getMajorId().equals(studentProfile.getMajor().getId())) {
@@ -158,18 +209,18 @@ public class StudentProfileServiceImpl implements StudentProfileService {
             studentProfile.setExpectedGraduationDate(dto.getExpectedGraduationDate());
         }
         
-        // 更新并加密敏感信息
+        // 更新敏感信息（写入时自动加密）
         if (dto.getCurrentAddress() != null) {
-            studentProfile.setCurrentAddress(sm4Util.encrypt(dto.getCurrentAddress()));
+            studentProfile.setCurrentAddress(dto.getCurrentAddress());
         }
         if (dto.getPermanentAddress() != null) {
-            studentProfile.setPermanentAddress(sm4Util.encrypt(dto.getPermanentAddress()));
+            studentProfile.setPermanentAddress(dto.getPermanentAddress());
         }
         if (dto.getEmergencyContact() != null) {
             studentProfile.setEmergencyContact(dto.getEmergencyContact());
         }
         if (dto.getEmergencyPhone() != null) {
-            studentProfile.setEmergencyPhone(sm4Util.encrypt(dto.getEmergencyPhone()));
+            studentProfile.setEmergencyPhone(dto.getEmergencyPhone());
         }
         if (dto.getEducationBackground() != null) {
             studentProfile.setEducationBackground(dto.getEducationBackground());
@@ -198,6 +249,9 @@ public class StudentProfileServiceImpl implements StudentProfileService {
     @Override
     @Transactional
     public void deleteStudentProfile(Long id) {
+        studentProfileRepository.findUserIdById(id).ifPresent(permissionEngine::evictStudentProfileId);
+        studentPhotoRepository.deleteByStudentProfileId(id);
+        studentPhotoThumbnailRepository.deleteByStudentProfileId(id);
         studentProfileRepository.deleteById(id);
     }
 
@@ -226,48 +280,6 @@ public class StudentProfileServiceImpl implements StudentProfileService {
         return convertToDto(studentProfile);
     }
 
-    @Override
-    public Page<StudentProfileDto> getAllStudentProfiles(Pageable pageable) {
-        return studentProfileRepository.findAll(pageable)
-                .map(this::convertToDto);
-    }
-
-    @Override
-    public Page<StudentProfileDto> getStudentProfilesByCollege(Long collegeId, Pageable pageable) {
-        College college = collegeRepository.findById(collegeId)
-                .orElseThrow(() -> new RuntimeException("学院不存在"));
-        
-        return studentProfileRepository.findByCollege(college, pageable)
-                .map(this::convertToDto);
-    }
-
-    @Override
-    public List<StudentProfileDto> getStudentProfilesBySupervisor(Long supervisorId) {
-        User supervisor = userRepository.findById(supervisorId)
-                .orElseThrow(() -> new RuntimeException("导师不存在"));
-        
-        return studentProfileRepository.findBySupervisor(supervisor)
-                .stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
-    }
-
-    @Override
-    public Page<StudentProfileDto> searchStudentProfiles(String keyword, Pageable pageable) {
-        return studentProfileRepository.findByNameContainingOrStudentIdContaining(keyword, keyword, pageable)
-                .map(this::convertToDto);
-    }
-
-    @Override
-    public Page<StudentProfileDto> searchStudentProfilesByCollege(Long collegeId, String keyword, Pageable pageable) {
-        College college = collegeRepository.findById(collegeId)
-                .orElseThrow(() -> new RuntimeException("学院不存在"));
-        
-        return studentProfileRepository.findByCollegeAndNameContainingOrCollegeAndStudentIdContaining(
-                college, keyword, college, keyword, pageable)
-                .map(this::convertToDto);
-    }
-
     @Override
     @Transactional
     public boolean approveStudentProfile(Long id, Long approverId) {
@@ -307,23 +319,71 @@ public class StudentProfileServiceImpl implements StudentProfileService {
         
         return true;
     }
+    
+    @Override
+    @Transactional
+    public BulkReviewResult bulkReviewStudentProfiles(List<Long> ids, boolean approve, User reviewer, String reason) {
+        BulkReviewResult result = new BulkReviewResult();
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        LocalDateTime now = LocalDateTime.now();
+        
+        for (int from = 0; from < distinctIds.size(); from += REVIEW_CHUNK_SIZE) {
+            List<Long> chunk = distinctIds.subList(from, Math.min(from + REVIEW_CHUNK_SIZE, distinctIds.size()));
+            
+            // 按ID顺序加锁，只读取审核状态，不加载整条学籍记录
+            Map<Long, Boolean> locked = new HashMap<>();
+            for (StudentProfileRepository.ApprovalRow row : studentProfileRepository.lockForApproval(chunk)) {
+                locked.put(row.getId(), Boolean.TRUE.equals(row.getApproved()));
+            }
+            
+            List<Long> accepted = new ArrayList<>();
+            for (Long id : chunk) {
+                Boolean approved = locked.get(id);
+                if (approved == null) {
+                    result.fail(id, "学生学籍信息不存在");
+                } else if (approved) {
+                    result.fail(id, "该学生学籍信息已通过审核");
+                } else {
+                    accepted.add(id);
+                    result.success(id);
+                }
+            }
+            
+            if (approve && !accepted.isEmpty()) {
+                studentProfileRepository.approveAll(accepted, reviewer, now);
+            }
+        }
+        
+        if (!approve) {
+            // 与单条驳回一致，驳回不修改学籍记录，只记录原因
+            log.info("批量驳回学生学籍信息审核{}条，原因: {}", result.getSucceeded(), reason);
+        }
+        return result;
+    }
 
     @Override
     public String generateStudentId(Long majorId, String degreeType) {
         Major major = majorRepository.findById(majorId)
                 .orElseThrow(() -> new RuntimeException("专业不存在"));
         
-        // 学号规则：年份(4位) + 学院代码(2位) + 专业代码(2位) + 学位类型代码(1位) + 序号(3位)
-        // 例如：2023010111001，表示2023年入学，01学院，01专业，硕士(1)，001号
+        // 获取当前专业和学位类型下的最大序号
+        Integer maxSeq = studentProfileRepository.findMaxSequenceByMajorAndDegreeType(major, degreeType);
+        int nextSeq = (maxSeq == null) ? 1 : maxSeq + 1;
+        
+        return formatStudentId(major, degreeType, nextSeq);
+    }
+    
+    /**
+     * 组装学号
+     * 学号规则：年份(4位) + 学院代码(2位) + 专业代码(2位) + 学位类型代码(1位) + 序号(3位)
+     * 例如：2023010111001，表示2023年入学，01学院，01专业，硕士(1)，001号
+     */
+    private String formatStudentId(Major major, String degreeType, int seq) {
         String year = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyy"));
         String collegeCode = major.getCollege().getCode();
         String majorCode = major.getCode();
         String degreeCode = "硕士".equals(degreeType) ? "1" : "2"; // 1-硕士，2-博士
-        
-        // 获取当前专业和学位类型下的最大序号
-        Integer maxSeq = studentProfileRepository.findMaxSequenceByMajorAndDegreeType(major, degreeType);
-        int nextSeq = (maxSeq == null) ? 1 : maxSeq + 1;
-        String seqStr = String.format("%03d", nextSeq);
+        String seqStr = String.format("%03d", seq);
         
         return year + collegeCode + majorCode + degreeCode + seqStr;
     }
@@ -334,9 +394,39 @@ public class StudentProfileServiceImpl implements StudentProfileService {
         StudentProfile studentProfile = studentProfileRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("学生学籍信息不存在"));
         
+        if (photo.isEmpty()) {
+            throw new RuntimeException("照片不能为空");
+        }
+        if (photo.getSize() > maxPhotoSize) {
+            throw new RuntimeException("照片大小不能超过" + (maxPhotoSize / 1024) + "KB");
+        }
+        
         try {
-            studentProfile.setPhoto(photo.getBytes());
+            byte[] photoBytes = photo.getBytes();
+            
+            // 上传时生成缩略图，列表只引用缩略图地址
+            ThumbnailGenerator.Thumbnail thumbnail = thumbnailGenerator.generate(photoBytes);
+            String photoHash = Hex.toHexString(sm3Util.hash(photoBytes));
+            
+            StudentPhoto studentPhoto = studentPhotoRepository.findByStudentProfileId(id)
+                    .orElseGet(StudentPhoto::new);
+            studentPhoto.setStudentProfileId(id);
+            studentPhoto.setData(photoBytes);
+            studentPhoto.setContentType(photo.getContentType() != null ? photo.getContentType() : "image/jpeg");
+            studentPhotoRepository.save(studentPhoto);
+            
+            studentProfile.setPhotoHash(photoHash);
             studentProfileRepository.save(studentProfile);
+            
+            StudentPhotoThumbnail photoThumbnail = studentPhotoThumbnailRepository.findByStudentProfileId(id)
+                    .orElseGet(StudentPhotoThumbnail::new);
+            photoThumbnail.setStudentProfileId(id);
+            photoThumbnail.setData(thumbnail.getData());
+            photoThumbnail.setContentType(ThumbnailGenerator.CONTENT_TYPE);
+            photoThumbnail.setWidth(thumbnail.getWidth());
+            photoThumbnail.setHeight(thumbnail.getHeight());
+            photoThumbnail.setPhotoHash(photoHash);
+            studentPhotoThumbnailRepository.save(photoThumbnail);
             return true;
         } catch (IOException e) {
             log.error("上传照片失败", e);
@@ -345,38 +435,76 @@ public class StudentProfileServiceImpl implements StudentProfileService {
     }
 
     @Override
-    public byte[] getPhoto(Long id) {
-        StudentProfile studentProfile = studentProfileRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("学生学籍信息不存在"));
-        return studentProfile.getPhoto();
-    }    @Override
-    @Transactional
-    public boolean importStudentProfiles(MultipartFile file) {
-        log.info("开始从文件导入学生学籍信息: {}", file.getOriginalFilename());
-        try {        // 检查文件是否为Excel
-        String fileName = file.getOriginalFilename();
+    public StudentPhoto getPhoto(Long id) {
+        return studentPhotoRepository.findByStudentProfileId(id)
+                .orElseThrow(() -> new RuntimeException("照片不存在"));
+    }
+
+    @Override
+    public StudentPhotoThumbnail getPhotoThumbnail(Long id) {
+        return studentPhotoThumbnailRepository.findByStudentProfileId(id)
+                .orElseThrow(() -> new RuntimeException("照片不存在"));
+    }
+
+    @Override
+    public int importStudentProfiles(InputStream inputStream, String fileName, int startRow, JobProgress progress) {
+        log.info("开始从文件导入学生学籍信息: {}，起始行: {}", fileName, startRow);
+        // 检查文件是否为Excel
         if (!isExcelFile(fileName)) {
-                log.error("文件格式不正确，仅支持Excel文件(.xlsx, .xls)");
-                throw new IllegalArgumentException("文件格式不正确，仅支持Excel文件(.xlsx, .xls)");
+            log.error("文件格式不正确，仅支持Excel文件(.xlsx, .xls)");
+            throw new IllegalArgumentException("文件格式不正确，仅支持Excel文件(.xlsx, .xls)");
+        }
+        
+        int imported = 0;
+        try (InputStream is = inputStream;
+             Workbook workbook = fileName.endsWith(".xlsx") ? new XSSFWorkbook(is) : new HSSFWorkbook(is)) {
+            // 获取第一个工作表
+            Sheet sheet = workbook.getSheetAt(0);
+            if (sheet == null) {
+                throw new IllegalArgumentException("Excel文件中不包含工作表");
             }
             
-            // 使用Apache POI解析Excel文件
-            List<StudentProfile> studentProfiles = parseExcelFile(file);
-            
-            if (studentProfiles.isEmpty()) {
-                log.warn("Excel文件中没有有效的学生信息");
-                return false;
+            // 获取表头行
+            Row headerRow = sheet.getRow(0);
+            if (headerRow == null) {
+                throw new IllegalArgumentException("Excel文件中没有表头");
             }
             
-            // 批量创建学生学籍信息
-            List<StudentProfile> createdProfiles = batchCreateStudentProfiles(studentProfiles);
+            // 检查必要的列是否存在
+            Map<String, Integer> columnMap = validateAndMapColumns(headerRow);
+            
+            // 第一行是表头，数据从第二行开始；续传时跳过已提交的行
+            int firstIndex = Math.max(1, startRow - 1);
+            progress.setTotal(Math.max(0, sheet.getLastRowNum() - firstIndex + 1));
+            
+            Map<String, Integer> nextSequences = new HashMap<>();
+            List<ImportItem> chunk = new ArrayList<>(importChunkSize);
+            for (int i = firstIndex; i <= sheet.getLastRowNum(); i++) {
+                Row row = sheet.getRow(i);
+                if (row == null) continue;
+                
+                chunk.add(new ImportItem(i + 1, () -> createProfileFromRow(row, columnMap)));
+                if (chunk.size() >= importChunkSize) {
+                    if (progress.isCancelled()) {
+                        throw new CancellationException("任务已取消");
+                    }
+                    imported += writeChunk(chunk, nextSequences, progress).size();
+                    chunk = new ArrayList<>(importChunkSize);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                imported += writeChunk(chunk, nextSequences, progress).size();
+            }
             
-            log.info("学生学籍信息导入成功，共导入{}条记录", createdProfiles.size());
-            return !createdProfiles.isEmpty();
+            log.info("学生学籍信息导入完成，共导入{}条记录", imported);
+            return imported;
             
+        } catch (CancellationException e) {
+            log.info("导入学生学籍信息已取消: {}，已导入{}条", fileName, imported);
+            throw e;
         } catch (Exception e) {
             log.error("导入学生学籍信息失败: {}", e.getMessage(), e);
-            throw new RuntimeException("导入学生学籍信息失败: " + e.getMessage(), e);
+            throw new RuntimeException("导入学生学籍信息失败（已提交" + imported + "条）: " + e.getMessage(), e);
         }
     }
     
@@ -390,72 +518,6 @@ public class StudentProfileServiceImpl implements StudentProfileService {
         return fileName != null && 
                (fileName.endsWith(".xlsx") || fileName.endsWith(".xls"));
     }
-      /**
-     * 解析Excel文件，提取学生信息
-     *
-     * @param file Excel文件
-     * @return 学生学籍信息列表
-     */
-    private List<StudentProfile> parseExcelFile(MultipartFile file) {
-        log.info("开始解析Excel文件: {}", file.getOriginalFilename());
-        List<StudentProfile> studentProfiles = new ArrayList<>();
-          try (InputStream is = file.getInputStream()) {
-            Workbook workbook = null;
-            
-            try {
-                // 根据文件扩展名确定Workbook类型
-                String fileName = file.getOriginalFilename();
-                if (fileName != null && fileName.endsWith(".xlsx")) {
-                    workbook = new XSSFWorkbook(is); // Excel 2007+
-                } else {
-                    workbook = new HSSFWorkbook(is); // Excel 97-2003
-                }
-                
-                // 获取第一个工作表
-                Sheet sheet = workbook.getSheetAt(0);
-                if (sheet == null) {
-                    throw new IllegalArgumentException("Excel文件中不包含工作表");
-                }
-                
-                // 获取表头行
-                Row headerRow = sheet.getRow(0);
-                if (headerRow == null) {
-                    throw new IllegalArgumentException("Excel文件中没有表头");
-                }
-                
-                // 检查必要的列是否存在
-                Map<String, Integer> columnMap = validateAndMapColumns(headerRow);
-                
-                // 从第二行开始解析数据(第一行是表头)
-                for (int i = 1; i <= sheet.getLastRowNum(); i++) {
-                    Row row = sheet.getRow(i);
-                    if (row == null) continue;
-                    
-                    try {
-                        StudentProfile profile = createProfileFromRow(row, columnMap);
-                        if (profile != null) {
-                            studentProfiles.add(profile);
-                        }
-                    } catch (Exception e) {
-                        log.warn("解析第{}行数据失败: {}", i + 1, e.getMessage());
-                    }
-                }
-                
-                log.info("成功解析{}条学生信息", studentProfiles.size());
-                
-            } finally {
-                if (workbook != null) {
-                    workbook.close();
-                }
-            }
-            
-        } catch (Exception e) {
-            log.error("解析Excel文件失败: {}", e.getMessage(), e);
-            throw new RuntimeException("无法解析Excel文件: " + e.getMessage(), e);
-        }
-        
-        return studentProfiles;
-    }
     
     /**
      * 验证表头并创建列映射
@@ -512,23 +574,21 @@ public class StudentProfileServiceImpl implements StudentProfileService {
         
         // 基本数据验证
         if (StringUtils.isEmpty(name) || StringUtils.isEmpty(gender) || StringUtils.isEmpty(idNumber)) {
-            log.warn("行数据缺少必要信息: 姓名={}, 性别={}, 身份证号={}", name, gender, idNumber);
-            return null;
+            throw new IllegalArgumentException("缺少必要信息（姓名、性别、身份证号）");
         }
         
         // 查找或创建对应实体
         StudentProfile profile = new StudentProfile();
         profile.setName(name);
         profile.setGender(gender);
-        profile.setIdNumber(idNumber); // 数据加密将在batchCreateStudentProfiles方法中处理
+        profile.setIdNumber(idNumber); // 数据加密将在写入时处理
         
         // 设置学院
         try {
             College college = findCollegeByName(collegeName);
             profile.setCollege(college);
         } catch (Exception e) {
-            log.error("找不到学院: {}", collegeName);
-            return null;
+            throw new IllegalArgumentException("找不到学院: " + collegeName);
         }
         
         // 设置专业
@@ -536,8 +596,7 @@ public class StudentProfileServiceImpl implements StudentProfileService {
             Major major = findMajorByNameAndCollege(majorName, profile.getCollege());
             profile.setMajor(major);
         } catch (Exception e) {
-            log.error("找不到专业: {} (学院: {})", majorName, collegeName);
-            return null;
+            throw new IllegalArgumentException("找不到专业: " + majorName + " (学院: " + collegeName + ")");
         }
         
         // 设置学位类型
@@ -548,8 +607,7 @@ public class StudentProfileServiceImpl implements StudentProfileService {
             User supervisor = findSupervisorByName(supervisorName);
             profile.setSupervisor(supervisor);
         } catch (Exception e) {
-            log.error("找不到导师: {}", supervisorName);
-            return null;
+            throw new IllegalArgumentException("找不到导师: " + supervisorName);
         }
         
         // 设置可选字段
@@ -613,11 +671,22 @@ public class StudentProfileServiceImpl implements StudentProfileService {
     }
 
     @Override
-    public List<StudentProfileDto> getPendingApprovals() {
-        return studentProfileRepository.findByApproved(false)
-                .stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public Page<StudentProfileSummaryDto> getPendingApprovals(User currentUser, Long collegeId, Pageable pageable) {
+        DataScope scope = permissionEngine.scopeOf(currentUser);
+        if (scope.getLevel() != DataScope.Level.ALL) {
+            // 学院用户只能查看本学院的待审核记录
+            collegeId = scope.getCollegeId();
+            if (collegeId == null) {
+                log.warn("无法确定用户所属学院，返回空结果");
+                return Page.empty(pageable);
+            }
+        }
+        
+        Page<StudentProfileRepository.SummaryRow> rows = collegeId != null
+                ? studentProfileRepository.findPendingApprovalsByCollege(collegeId, pageable)
+                : studentProfileRepository.findPendingApprovals(pageable);
+        return rows.map(this::convertToSummaryDto);
     }
 
     @Override
@@ -629,6 +698,18 @@ public class StudentProfileServiceImpl implements StudentProfileService {
     public StudentProfile findByStudentId(String studentId) {
         return studentProfileRepository.findByStudentId(studentId)
                 .orElseThrow(() -> new RuntimeException("学生不存在"));
+    }
+
+    @Override
+    public List<StudentProfileSummaryDto> findByIdNumber(String idNumber) {
+        String hash = idNumberBlindIndex.compute(idNumber);
+        if (hash == null) {
+            return new ArrayList<>();
+        }
+        return studentProfileRepository.findByIdNumberHash(hash)
+                .stream()
+                .map(this::convertToSummaryDto)
+                .collect(Collectors.toList());
     }    // 将实体转换为DTO    @Override
     public StudentProfileDto convertToDto(StudentProfile studentProfile) {
         StudentProfileDto dto = new StudentProfileDto();
@@ -637,11 +718,8 @@ public class StudentProfileServiceImpl implements StudentProfileService {
         dto.setName(studentProfile.getName());
         dto.setGender(studentProfile.getGender());
         
-        // 解密敏感信息
-        if (studentProfile.getIdNumber() != null) {
-            String idNumber = sm4Util.decrypt(studentProfile.getIdNumber());
-            dto.setIdNumber(idNumber);
-        }
+        // 敏感信息在首次访问时解密
+        dto.setIdNumber(studentProfile.getIdNumber());
         
         dto.setCollegeId(studentProfile.getCollege().getId());
         dto.setCollegeName(studentProfile.getCollege().getName());
@@ -653,24 +731,18 @@ public class StudentProfileServiceImpl implements StudentProfileService {
         dto.setEnrollmentDate(studentProfile.getEnrollmentDate());
         dto.setExpectedGraduationDate(studentProfile.getExpectedGraduationDate());
         
-        // 解密敏感地址信息
-        if (studentProfile.getCurrentAddress() != null) {
-            dto.setCurrentAddress(sm4Util.decrypt(studentProfile.getCurrentAddress()));
-        }
-        if (studentProfile.getPermanentAddress() != null) {
-            dto.setPermanentAddress(sm4Util.decrypt(studentProfile.getPermanentAddress()));
-        }
-        
+        dto.setCurrentAddress(studentProfile.getCurrentAddress());
+        dto.setPermanentAddress(studentProfile.getPermanentAddress());
         dto.setEmergencyContact(studentProfile.getEmergencyContact());
-        
-        // 解密敏感电话信息
-        if (studentProfile.getEmergencyPhone() != null) {
-            dto.setEmergencyPhone(sm4Util.decrypt(studentProfile.getEmergencyPhone()));
-        }
+        dto.setEmergencyPhone(studentProfile.getEmergencyPhone());
         
         dto.setEducationBackground(studentProfile.getEducationBackground());
         dto.setWorkExperience(studentProfile.getWorkExperience());
-        dto.setPhoto(studentProfile.getPhoto());
+        if (studentProfile.getPhotoHash() != null) {
+            dto.setPhotoUrl(photoUrl(studentProfile.getId()));
+            dto.setThumbnailUrl(thumbnailUrl(studentProfile.getId()));
+            dto.setPhotoHash(studentProfile.getPhotoHash());
+        }
         dto.setApproved(studentProfile.getApproved());
         
         if (studentProfile.getApprover() != null) {
@@ -683,57 +755,254 @@ public class StudentProfileServiceImpl implements StudentProfileService {
     }
 
     @Override
-    @Transactional
+    public StudentProfileSummaryDto convertToSummaryDto(StudentProfile studentProfile) {
+        StudentProfileSummaryDto dto = StudentProfileSummaryDto.builder()
+                .id(studentProfile.getId())
+                .studentId(studentProfile.getStudentId())
+                .name(studentProfile.getName())
+                .gender(studentProfile.getGender())
+                .collegeId(studentProfile.getCollege().getId())
+                .collegeName(studentProfile.getCollege().getName())
+                .majorId(studentProfile.getMajor().getId())
+                .majorName(studentProfile.getMajor().getName())
+                .degreeType(studentProfile.getDegreeType())
+                .supervisorId(studentProfile.getSupervisor().getId())
+                .supervisorName(studentProfile.getSupervisor().getName())
+                .enrollmentDate(studentProfile.getEnrollmentDate())
+                .expectedGraduationDate(studentProfile.getExpectedGraduationDate())
+                .approved(studentProfile.getApproved())
+                .build();
+        
+        if (studentProfile.getPhotoHash() != null) {
+            dto.setThumbnailUrl(thumbnailUrl(studentProfile.getId()));
+            dto.setPhotoHash(studentProfile.getPhotoHash());
+        }
+        return dto;
+    }
+    
+    /**
+     * 将摘要投影转换为列表摘要
+     */
+    private StudentProfileSummaryDto convertToSummaryDto(StudentProfileRepository.SummaryRow row) {
+        StudentProfileSummaryDto dto = StudentProfileSummaryDto.builder()
+                .id(row.getId())
+                .studentId(row.getStudentId())
+                .name(row.getName())
+                .gender(row.getGender())
+                .collegeId(row.getCollegeId())
+                .collegeName(row.getCollegeName())
+                .majorId(row.getMajorId())
+                .majorName(row.getMajorName())
+                .degreeType(row.getDegreeType())
+                .supervisorId(row.getSupervisorId())
+                .supervisorName(row.getSupervisorName())
+                .enrollmentDate(row.getEnrollmentDate())
+                .expectedGraduationDate(row.getExpectedGraduationDate())
+                .approved(row.getApproved())
+                .build();
+        
+        if (row.getPhotoHash() != null) {
+            dto.setThumbnailUrl(thumbnailUrl(row.getId()));
+            dto.setPhotoHash(row.getPhotoHash());
+        }
+        return dto;
+    }
+    
+    private String photoUrl(Long id) {
+        return PHOTO_URL_PREFIX + id + "/photo";
+    }
+    
+    private String thumbnailUrl(Long id) {
+        return PHOTO_URL_PREFIX + id + "/photo/thumbnail";
+    }
+
+    @Override
     public List<StudentProfile> batchCreateStudentProfiles(List<StudentProfile> studentProfiles) {
         log.info("开始批量创建学生学籍信息，共{}条记录", studentProfiles.size());
-        List<StudentProfile> createdProfiles = new ArrayList<>();
         
-        for (StudentProfile profile : studentProfiles) {
+        // 按块提交，每次写入使用原始数据的副本，块回滚后可以从原始数据重试
+        List<StudentProfile> createdProfiles = new ArrayList<>(studentProfiles.size());
+        Map<String, Integer> nextSequences = new HashMap<>();
+        List<ImportItem> chunk = new ArrayList<>(importChunkSize);
+        for (int i = 0; i < studentProfiles.size(); i++) {
+            StudentProfile source = studentProfiles.get(i);
+            chunk.add(new ImportItem(i + 1, () -> {
+                StudentProfile copy = new StudentProfile();
+                BeanUtils.copyProperties(source, copy);
+                return copy;
+            }));
+            if (chunk.size() >= importChunkSize || i == studentProfiles.size() - 1) {
+                createdProfiles.addAll(writeChunk(chunk, nextSequences, JobProgress.NONE));
+                chunk = new ArrayList<>(importChunkSize);
+            }
+        }
+        
+        log.info("成功创建学生学籍信息{}条", createdProfiles.size());
+        return createdProfiles;
+    }
+    
+    /**
+     * 写入一块数据
+     * 校验、查重、分配学号和密码哈希在事务外完成，只有加密后的写入在事务内，事务时长与块大小成正比。
+     * 块写入失败时整块回滚，再逐行在独立事务中重试，定位出失败的行，其余行照常提交。
+     *
+     * @param items 待写入的行
+     * @param nextSequences 专业+学位类型到下一个序号的映射
+     * @param progress 任务进度
+     * @return 成功写入的学籍信息
+     */
+    private List<StudentProfile> writeChunk(List<ImportItem> items, Map<String, Integer> nextSequences,
+                                            JobProgress progress) {
+        // 第一阶段：构建、校验并计算身份证号盲索引，失败的行直接记录
+        List<ImportItem> builtItems = new ArrayList<>(items.size());
+        List<StudentProfile> builtProfiles = new ArrayList<>(items.size());
+        Set<String> chunkHashes = new HashSet<>();
+        for (ImportItem item : items) {
             try {
-                // 验证必要字段
+                StudentProfile profile = item.factory.get();
                 validateStudentProfile(profile);
-                
-                // 生成学号
-                if (profile.getStudentId() == null || profile.getStudentId().isEmpty()) {
-                    String studentId = generateStudentId(profile.getMajor().getId(), profile.getDegreeType());
-                    profile.setStudentId(studentId);
+                if (profile.getUser() == null && profile.getIdNumber().length() < 8) {
+                    throw new IllegalArgumentException("身份证号格式不正确，无法设置默认密码");
                 }
                 
-                // 加密敏感信息
-                if (profile.getIdNumber() != null) {
-                    profile.setIdNumber(sm4Util.encrypt(profile.getIdNumber()));
-                }
-                if (profile.getCurrentAddress() != null) {
-                    profile.setCurrentAddress(sm4Util.encrypt(profile.getCurrentAddress()));
+                profile.setIdNumberHash(idNumberBlindIndex.compute(profile.getIdNumber()));
+                if (!chunkHashes.add(profile.getIdNumberHash())) {
+                    throw new IllegalArgumentException("身份证号在导入数据中重复");
                 }
-                if (profile.getPermanentAddress() != null) {
-                    profile.setPermanentAddress(sm4Util.encrypt(profile.getPermanentAddress()));
-                }
-                if (profile.getEmergencyPhone() != null) {
-                    profile.setEmergencyPhone(sm4Util.encrypt(profile.getEmergencyPhone()));
+                
+                builtItems.add(item);
+                builtProfiles.add(profile);
+            } catch (Exception e) {
+                log.warn("第{}行导入失败: {}", item.rowNum, e.getMessage());
+                progress.rowFailed(item.rowNum, e.getMessage());
+            }
+        }
+        
+        // 按盲索引一次IN查询找出已存在的学生，无需解密已有数据
+        Set<String> existingHashes = chunkHashes.isEmpty() ? Collections.emptySet()
+                : new HashSet<>(studentProfileRepository.findExistingIdNumberHashes(chunkHashes));
+        
+        // 第二阶段：跳过已存在的学生并分配学号
+        List<ImportItem> preparedItems = new ArrayList<>(builtItems.size());
+        List<StudentProfile> profiles = new ArrayList<>(builtItems.size());
+        List<StudentProfile> needAccount = new ArrayList<>();
+        Set<String> allocatedKeys = new HashSet<>();
+        for (int i = 0; i < builtItems.size(); i++) {
+            ImportItem item = builtItems.get(i);
+            StudentProfile profile = builtProfiles.get(i);
+            try {
+                if (existingHashes.contains(profile.getIdNumberHash())) {
+                    throw new IllegalArgumentException("学生已存在（身份证号重复）");
                 }
                 
-                // 设置默认状态
-                profile.setApproved(false);
+                // 生成学号
+                if (profile.getStudentId() == null || profile.getStudentId().isEmpty()) {
+                    profile.setStudentId(allocateStudentId(profile.getMajor().getId(), profile.getDegreeType(), nextSequences));
+                    allocatedKeys.add(sequenceKey(profile.getMajor().getId(), profile.getDegreeType()));
+                }
                 
-                // 创建对应的用户账号（如果尚未存在）
+                preparedItems.add(item);
+                profiles.add(profile);
                 if (profile.getUser() == null) {
-                    User user = createUserForStudent(profile);
-                    profile.setUser(user);
+                    needAccount.add(profile);
                 }
-                
-                // 保存到数据库
-                StudentProfile savedProfile = studentProfileRepository.save(profile);
-                createdProfiles.add(savedProfile);
-                log.info("成功创建学生学籍信息：{}", savedProfile.getStudentId());
-                
             } catch (Exception e) {
-                log.error("创建学生学籍信息失败: {}", e.getMessage(), e);
-                // 继续处理下一条记录
+                log.warn("第{}行导入失败: {}", item.rowNum, e.getMessage());
+                progress.rowFailed(item.rowNum, e.getMessage());
             }
         }
         
-        return createdProfiles;
+        if (profiles.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        // 第三阶段：并行计算默认密码哈希（使用明文身份证号，不占用数据库连接）
+        List<User> accounts = accountProvisioningService.prepareStudentAccounts(needAccount);
+        int lastRowNum = preparedItems.get(preparedItems.size() - 1).rowNum;
+        
+        // 第四阶段：在独立事务中批量写入（敏感信息写入时加密）
+        try {
+            List<StudentProfile> saved = transactionTemplate.execute(status -> {
+                List<StudentProfile> result = persistProfiles(profiles, needAccount, accounts);
+                // 与数据在同一事务中记录提交位置，续传时不会重复导入
+                progress.chunkCommitted(lastRowNum);
+                return result;
+            });
+            progress.advance(saved.size());
+            return saved;
+        } catch (RuntimeException e) {
+            // 回滚后丢弃本块用到的序号，重试时重新读取数据库最大序号：
+            // 既不留空缺，也不会在学号与并发导入冲突时反复分配同一个已被占用的序号
+            allocatedKeys.forEach(nextSequences::remove);
+            
+            if (preparedItems.size() == 1) {
+                log.warn("第{}行导入失败: {}", lastRowNum, e.getMessage());
+                progress.rowFailed(lastRowNum, e.getMessage());
+                return new ArrayList<>();
+            }
+            
+            log.warn("第{}-{}行写入失败，逐行重试: {}", preparedItems.get(0).rowNum, lastRowNum, e.getMessage());
+            List<StudentProfile> saved = new ArrayList<>(preparedItems.size());
+            for (ImportItem item : preparedItems) {
+                saved.addAll(writeChunk(Collections.singletonList(item), nextSequences, progress));
+            }
+            return saved;
+        }
+    }
+    
+    /**
+     * 写入账号和学籍信息，需在事务中调用
+     * 敏感字段在写入时使用信封加密，每块生成一个数据密钥，只做一次SM2运算；
+     * 写入后清空持久化上下文，块内实体不会在后续块中继续占用内存
+     */
+    private List<StudentProfile> persistProfiles(List<StudentProfile> profiles, List<StudentProfile> needAccount,
+                                                 List<User> accounts) {
+        for (StudentProfile profile : profiles) {
+            // 设置默认状态
+            profile.setApproved(false);
+        }
+        
+        List<User> savedAccounts = userRepository.saveAll(accounts);
+        for (int i = 0; i < needAccount.size(); i++) {
+            needAccount.get(i).setUser(savedAccounts.get(i));
+        }
+        
+        List<StudentProfile> persisted = envelopeEncryptor.inBatch("STUDENT_PROFILE", () -> {
+            List<StudentProfile> saved = studentProfileRepository.saveAll(profiles);
+            entityManager.flush();
+            entityManager.clear();
+            return saved;
+        });
+        for (StudentProfile profile : persisted) {
+            permissionEngine.evictStudentProfileId(profile.getUser().getId());
+        }
+        return persisted;
+    }
+    
+    /**
+     * 批量创建时分配学号
+     * 每个专业和学位类型组合只查询一次数据库最大序号，之后在内存中递增；写入失败时丢弃缓存的序号重新查询
+     *
+     * @param majorId 专业ID
+     * @param degreeType 学位类型
+     * @param nextSequences 专业+学位类型到下一个序号的映射
+     * @return 学号
+     */
+    private String allocateStudentId(Long majorId, String degreeType, Map<String, Integer> nextSequences) {
+        Major major = majorRepository.findById(majorId)
+                .orElseThrow(() -> new RuntimeException("专业不存在"));
+        String key = sequenceKey(majorId, degreeType);
+        Integer nextSeq = nextSequences.get(key);
+        if (nextSeq == null) {
+            Integer maxSeq = studentProfileRepository.findMaxSequenceByMajorAndDegreeType(major, degreeType);
+            nextSeq = (maxSeq == null) ? 1 : maxSeq + 1;
+        }
+        nextSequences.put(key, nextSeq + 1);
+        return formatStudentId(major, degreeType, nextSeq);
+    }
+    
+    private static String sequenceKey(Long majorId, String degreeType) {
+        return majorId + ":" + degreeType;
     }
     
     /**
@@ -765,41 +1034,6 @@ public class StudentProfileServiceImpl implements StudentProfileService {
         }
     }
     
-    /**
-     * 为学生创建对应的用户账号
-     *
-     * @param profile 学生学籍信息
-     * @return 创建的用户账号
-     */
-    private User createUserForStudent(StudentProfile profile) {
-        User user = new User();
-        user.setUsername(profile.getStudentId());
-        user.setName(profile.getName());
-          // 设置默认密码（身份证号后8位）
-        String idNumber = profile.getIdNumber();
-        if (idNumber.length() >= 8) {
-            String defaultPassword = idNumber.substring(idNumber.length() - 8);
-            user.setPassword(sm3PasswordEncoder.encode(defaultPassword));
-        } else {
-            throw new IllegalArgumentException("身份证号格式不正确，无法设置默认密码");
-        }
-        
-        // 设置用户角色为STUDENT
-        Role studentRole = roleRepository.findByName("ROLE_STUDENT")
-                .orElseThrow(() -> new RuntimeException("学生角色不存在"));
-        Set<Role> roles = new HashSet<>();
-        roles.add(studentRole);
-        user.setRoles(roles);
-        
-        // 设置其他属性
-        user.setEnabled(true);
-        user.setAccountNonLocked(true);
-        user.setFirstLogin(true);
-        user.setLastPasswordChangeTime(LocalDateTime.now());
-        
-        return userRepository.save(user);
-    }
-    
     /**
      * 检查当前登录用户是否是查看自己的学籍信息
      *
@@ -827,39 +1061,39 @@ public class StudentProfileServiceImpl implements StudentProfileService {
                 .orElseThrow(() -> new RuntimeException("学生学籍信息不存在，ID: " + id));
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public StudentProfile findAccessibleById(Long id, User user) {
+        DataScope scope = permissionEngine.scopeOf(user);
+        return studentProfileRepository.findOne(StudentProfileSpecifications.visibleTo(scope)
+                        .and(StudentProfileSpecifications.idIs(id)))
+                .orElseThrow(() -> new RuntimeException("学生学籍信息不存在或无权访问，ID: " + id));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public StudentProfile findAccessibleByStudentId(String studentId, User user) {
+        DataScope scope = permissionEngine.scopeOf(user);
+        return studentProfileRepository.findOne(StudentProfileSpecifications.visibleTo(scope)
+                        .and(StudentProfileSpecifications.studentIdIs(studentId)))
+                .orElseThrow(() -> new RuntimeException("学生学籍信息不存在或无权访问"));
+    }
+
     @Override
     public StudentProfile findByStudent(User student) {
         return studentProfileRepository.findByUser(student)
                 .orElseThrow(() -> new RuntimeException("未找到该学生的学籍信息"));
     }    @Override
     public boolean isFromSameCollege(Long studentProfileId, User user) {
-        // 获取学生所属学院
-        StudentProfile studentProfile = findById(studentProfileId);
-        College studentCollege = studentProfile.getCollege();
-        
-        // 在实际应用中，我们需要通过一些方式确定用户所属的学院
-        // 可能需要添加额外的表或关系来关联用户和学院
-        
-        // 以下是一种可能的实现方式：
-        // 1. 如果用户是学院管理员，检查其角色中是否有针对特定学院的权限标记
-        boolean isCollegeAdmin = user.getRoles().stream()
-                .anyMatch(role -> role.getName().equals("ROLE_COLLEGE_ADMIN") || 
-                                 role.getName().equals("ROLE_COLLEGE_SECRETARY"));
-        
-        if (isCollegeAdmin) {
-            // 这里简化处理，假设管理员只能管理一个学院
-            // 在实际中，可能需要额外的用户-学院关系表
-            
-            // 检查该用户管理的学生中是否都来自于同一个学院
-            List<StudentProfile> managedProfiles = studentProfileRepository.findByCreatedBy(user);
-            if (!managedProfiles.isEmpty()) {
-                College userCollege = managedProfiles.get(0).getCollege();
-                return userCollege != null && userCollege.getId().equals(studentCollege.getId());
-            }
+        // 用户所属学院在认证时已解析，学生所属学院只查询学院ID，不加载整条学籍记录
+        DataScope scope = permissionEngine.scopeOf(user);
+        Long userCollegeId = scope.getCollegeId();
+        if (scope.getLevel() != DataScope.Level.COLLEGE || userCollegeId == null) {
+            return false;
         }
-        
-        // 如果无法确定用户所属学院，则默认返回false
-        return false;
+        return studentProfileRepository.findCollegeIdById(studentProfileId)
+                .map(userCollegeId::equals)
+                .orElse(false);
     }
 
     @Override
@@ -878,11 +1112,15 @@ public class StudentProfileServiceImpl implements StudentProfileService {
             existingProfile.setGender(profile.getGender());
         }
         if (profile.getIdNumber() != null) {
-            existingProfile.setIdNumber(sm4Util.encrypt(profile.getIdNumber()));
+            existingProfile.setIdNumber(profile.getIdNumber());
+            existingProfile.setIdNumberHash(idNumberBlindIndex.compute(profile.getIdNumber()));
         }
         
         // 更新学院、专业、学位类型和导师信息
         if (profile.getCollege() != null) {
+            if (!profile.getCollege().getId().equals(existingProfile.getCollege().getId())) {
+                changeRequestService.syncCollege(existingProfile.getId(), profile.getCollege());
+            }
             existingProfile.setCollege(profile.getCollege());
             
             // 如果学院变了，学号可能需要变更
@@ -920,11 +1158,11 @@ public class StudentProfileServiceImpl implements StudentProfileService {
         
         // 更新加密存储的敏感信息
         if (profile.getCurrentAddress() != null) {
-            existingProfile.setCurrentAddress(sm4Util.encrypt(profile.getCurrentAddress()));
+            existingProfile.setCurrentAddress(profile.getCurrentAddress());
         }
         
         if (profile.getPermanentAddress() != null) {
-            existingProfile.setPermanentAddress(sm4Util.encrypt(profile.getPermanentAddress()));
+            existingProfile.setPermanentAddress(profile.getPermanentAddress());
         }
         
         if (profile.getEmergencyContact() != null) {
@@ -932,7 +1170,7 @@ public class StudentProfileServiceImpl implements StudentProfileService {
         }
         
         if (profile.getEmergencyPhone() != null) {
-            existingProfile.setEmergencyPhone(sm4Util.encrypt(profile.getEmergencyPhone()));
+            existingProfile.setEmergencyPhone(profile.getEmergencyPhone());
         }
         
         // 更新教育和工作背景
@@ -957,16 +1195,16 @@ public class StudentProfileServiceImpl implements StudentProfileService {
         
         // 更新联系信息（加密存储）
         if (updatedProfile.getCurrentAddress() != null) {
-            existingProfile.setCurrentAddress(sm4Util.encrypt(updatedProfile.getCurrentAddress()));
+            existingProfile.setCurrentAddress(updatedProfile.getCurrentAddress());
         }
         if (updatedProfile.getPermanentAddress() != null) {
-            existingProfile.setPermanentAddress(sm4Util.encrypt(updatedProfile.getPermanentAddress()));
+            existingProfile.setPermanentAddress(updatedProfile.getPermanentAddress());
         }
         if (updatedProfile.getEmergencyContact() != null) {
             existingProfile.setEmergencyContact(updatedProfile.getEmergencyContact());
         }
         if (updatedProfile.getEmergencyPhone() != null) {
-            existingProfile.setEmergencyPhone(sm4Util.encrypt(updatedProfile.getEmergencyPhone()));
+            existingProfile.setEmergencyPhone(updatedProfile.getEmergencyPhone());
         }
         
         // 更新教育和工作背景
@@ -999,9 +1237,9 @@ public class StudentProfileServiceImpl implements StudentProfileService {
             createChangeRequest(existingProfile, "gender", existingProfile.getGender(), profile.getGender(), updater);
         }
         if (profile.getIdNumber() != null) {
-            String decryptedExisting = sm4Util.decrypt(existingProfile.getIdNumber());
-            if (!profile.getIdNumber().equals(decryptedExisting)) {
-                createChangeRequest(existingProfile, "idNumber", decryptedExisting, profile.getIdNumber(), updater);
+            String existingIdNumber = existingProfile.getIdNumber();
+            if (!profile.getIdNumber().equals(existingIdNumber)) {
+                createChangeRequest(existingProfile, "idNumber", existingIdNumber, profile.getIdNumber(), updater);
             }
         }
         
@@ -1079,101 +1317,30 @@ public class StudentProfileServiceImpl implements StudentProfileService {
     }
 
     @Override
-    public Page<StudentProfileDto> getStudentProfiles(User currentUser, Long collegeId, Long majorId, String keyword, Pageable pageable) {
-        log.info("获取学生学籍信息列表 - 用户: {}, 学院ID: {}, 专业ID: {}, 关键词: {}", 
-                currentUser.getUsername(), collegeId, majorId, keyword);
-        Page<StudentProfile> profilesPage;
-        
-        // 根据用户角色确定查询范围
-        if (hasRole(currentUser, "ROLE_ADMIN") || hasRole(currentUser, "ROLE_GRADUATE_ADMIN")) {
-            // 管理员可以查看全部学生，但可以按学院、专业和关键词筛选
-            log.debug("用户拥有管理员权限，可查看所有学生信息");
-            profilesPage = queryStudentProfiles(collegeId, majorId, keyword, pageable);
-        } else if (hasRole(currentUser, "ROLE_COLLEGE_ADMIN") || hasRole(currentUser, "ROLE_COLLEGE_SECRETARY")) {
-            // 学院管理员只能查看本学院学生
-            // 通过用户关联的学院确定其所属学院
-            log.debug("用户拥有学院管理员权限，查询其所属学院的学生信息");
-            
-            College userCollege = getUserCollege(currentUser);
-            if (userCollege == null) {
-                log.warn("无法确定用户所属学院，返回空结果");
-                return Page.empty(pageable);
-            }
-            
-            // 强制使用用户所属学院ID作为筛选条件
-            collegeId = userCollege.getId();
-            log.debug("限制用户只能查看学院ID: {}的学生信息", collegeId);
-            profilesPage = queryStudentProfiles(collegeId, majorId, keyword, pageable);
-        } else if (hasRole(currentUser, "ROLE_TEACHER")) {
-            // 导师只能查看其指导的学生
-            log.debug("用户是导师，只能查看其指导的学生");
-            
-            // 如果提供了专业筛选条件
-            if (majorId != null) {
-                Major major = majorRepository.findById(majorId)
-                        .orElseThrow(() -> new RuntimeException("专业不存在"));
-                
-                if (keyword != null && !keyword.isEmpty()) {
-                    // 按导师、专业和关键词筛选
-                    profilesPage = studentProfileRepository.findBySupervisorAndMajorAndNameOrStudentIdContaining(
-                            currentUser, major, keyword, keyword, pageable);
-                } else {
-                    // 只按导师和专业筛选
-                    profilesPage = studentProfileRepository.findBySupervisorAndMajor(currentUser, major, pageable);
-                }
-            } else {
-                // 未指定专业，仅按导师和可能的关键词筛选
-                if (keyword != null && !keyword.isEmpty()) {
-                    profilesPage = studentProfileRepository.findBySupervisorAndNameContainingOrStudentIdContaining(
-                            currentUser, keyword, keyword, pageable);
-                } else {
-                    profilesPage = studentProfileRepository.findBySupervisor(currentUser, pageable);
-                }
-            }
-        } else {
-            // 学生用户可能只能查看自己的信息，这部分在controller层通过另一个接口处理
-            // 其他角色没有权限查看学生列表
+    @Transactional(readOnly = true)
+    public Page<StudentProfileSummaryDto> getStudentProfiles(User currentUser, StudentProfileQuery criteria, Pageable pageable) {
+        log.info("获取学生学籍信息列表 - 用户: {}, 筛选条件: {}", currentUser.getUsername(), criteria);
+        
+        // 数据范围作为查询条件下推到SQL：管理员全校，学院用户本学院，导师指导的学生
+        DataScope scope = permissionEngine.scopeOf(currentUser);
+        if (scope.getLevel() == DataScope.Level.SELF || scope.getLevel() == DataScope.Level.NONE) {
+            // 学生通过my-profile接口查看本人信息，其他角色没有权限查看学生列表
             log.warn("用户无权查看学生列表，角色不满足要求");
             return Page.empty(pageable);
         }
-        
-        log.info("查询结果: 总记录数: {}, 总页数: {}", profilesPage.getTotalElements(), profilesPage.getTotalPages());
-        
-        // 转换为DTO并返回，应用适当的脱敏处理
-        return profilesPage.map(profile -> {
-            StudentProfileDto dto = convertToDto(profile);
-            // 检查是否是查看自己的信息，对管理员、学院管理员和导师则不进行脱敏
-            boolean shouldMask = !isAdminOrTeacherOfStudent(currentUser, profile);
-            return shouldMask ? dtoMaskUtil.maskStudentProfile(dto, false) : dto;
-        });
-    }
-    
-    /**
-     * 判断用户是否是该学生的管理员或导师
-     * 
-     * @param user 当前用户
-     * @param studentProfile 学生档案
-     * @return 是否是管理员或导师
-     */
-    private boolean isAdminOrTeacherOfStudent(User user, StudentProfile studentProfile) {
-        // 如果是系统管理员或研究生管理员，可以查看完整信息
-        if (hasRole(user, "ROLE_ADMIN") || hasRole(user, "ROLE_GRADUATE_ADMIN")) {
-            return true;
+        if (scope.getLevel() == DataScope.Level.COLLEGE && scope.getCollegeId() == null) {
+            log.warn("无法确定用户所属学院，返回空结果");
+            return Page.empty(pageable);
         }
         
-        // 如果是学院管理员，只有管理相同学院的学生信息时才能查看完整信息
-        if (hasRole(user, "ROLE_COLLEGE_ADMIN") || hasRole(user, "ROLE_COLLEGE_SECRETARY")) {
-            College userCollege = getUserCollege(user);
-            return userCollege != null && userCollege.getId().equals(studentProfile.getCollege().getId());
-        }
+        Specification<StudentProfile> spec = StudentProfileSpecifications.visibleTo(scope)
+                .and(StudentProfileSpecifications.matches(criteria));
+        Page<StudentProfile> profilesPage = studentProfileRepository.findAll(spec, pageable);
         
-        // 如果是导师，只有是该学生的导师时才能查看完整信息
-        if (hasRole(user, "ROLE_TEACHER")) {
-            return user.getId().equals(studentProfile.getSupervisor().getId());
-        }
+        log.info("查询结果: 总记录数: {}, 总页数: {}", profilesPage.getTotalElements(), profilesPage.getTotalPages());
         
-        // 其他情况返回false
-        return false;
+        // 列表只返回摘要信息，不包含敏感字段，无需解密和脱敏
+        return profilesPage.map(this::convertToSummaryDto);
     }
     
     /**
@@ -1182,80 +1349,9 @@ public class StudentProfileServiceImpl implements StudentProfileService {
      * @param user 用户
      * @return 用户所属学院，如果无法确定则返回null
      */
-    private College getUserCollege(User user) {
-        // 这里需要根据实际业务逻辑来实现获取用户所属学院的方法
-        // 例如，可以通过用户扩展信息、用户创建的学生记录、或专门的用户-学院关联表来获取
-        
-        // 以下为示例实现，实际应根据系统设计调整
-        // 方法1：假设系统中有UserCollege关联表或UserDetail表记录用户所属学院
-        // return userCollegeRepository.findCollegeByUser(user);
-        
-        // 方法2：假设通过用户创建的学生记录来判断（需要保证用户只能创建自己学院的记录）
-        List<StudentProfile> createdProfiles = studentProfileRepository.findByCreatedBy(user);
-        if (!createdProfiles.isEmpty()) {
-            return createdProfiles.get(0).getCollege();
-        }
-        
-        // 如果无法确定，返回null
-        return null;
-    }
-    
-    /**
-     * 检查用户是否拥有指定角色
-     *
-     * @param user 用户
-     * @param roleName 角色名称
-     * @return 是否拥有该角色
-     */
-    private boolean hasRole(User user, String roleName) {
-        return user.getRoles().stream()
-                .anyMatch(role -> role.getName().equals(roleName));
-    }
-    
-    /**
-     * 根据条件查询学生学籍信息
-     *
-     * @param collegeId 学院ID
-     * @param majorId 专业ID
-     * @param keyword 关键词
-     * @param pageable 分页信息
-     * @return 学生学籍信息分页列表
-     */
-    private Page<StudentProfile> queryStudentProfiles(Long collegeId, Long majorId, String keyword, Pageable pageable) {
-        // 按学院筛选
-        if (collegeId != null) {
-            College college = collegeRepository.findById(collegeId)
-                    .orElseThrow(() -> new RuntimeException("学院不存在"));
-            
-            // 按专业筛选
-            if (majorId != null) {
-                Major major = majorRepository.findById(majorId)
-                        .orElseThrow(() -> new RuntimeException("专业不存在"));
-                
-                // 按专业和关键词筛选
-                if (keyword != null && !keyword.isEmpty()) {
-                    return studentProfileRepository.findByMajorAndNameContainingOrStudentIdContaining(
-                            major, keyword, keyword, pageable);
-                } else {
-                    return studentProfileRepository.findByMajor(major, pageable);
-                }
-            }
-            
-            // 按学院和关键词筛选
-            if (keyword != null && !keyword.isEmpty()) {
-                return studentProfileRepository.searchByCollegeAndNameOrStudentId(college, keyword, pageable);
-            } else {
-                return studentProfileRepository.findByCollege(college, pageable);
-            }
-        }
-        
-        // 只按关键词筛选
-        if (keyword != null && !keyword.isEmpty()) {
-            return studentProfileRepository.searchByNameOrStudentId(keyword, pageable);
-        }
-        
-        // 不筛选，返回全部
-        return studentProfileRepository.findAll(pageable);
+    @Override
+    public College getUserCollege(User user) {
+        return userCollegeService.getCollege(user);
     }
     
     /**
@@ -1288,7 +1384,7 @@ public class StudentProfileServiceImpl implements StudentProfileService {
      * @return 导师用户对象
      */
     private User findSupervisorByName(String name) {
-        return userRepository.findByNameAndRoles_Name(name, "ROLE_TEACHER")
+        return userRepository.findByNameAndRoles_Name(name, SystemRole.TEACHER.authority())
                 .orElseThrow(() -> new IllegalArgumentException("导师不存在: " + name));
     }
     
@@ -1357,4 +1453,18 @@ public class StudentProfileServiceImpl implements StudentProfileService {
                 return null;
         }
     }
+
+    /**
+     * 待导入的一行数据
+     * 每次写入都通过factory重新构建实体，块回滚后重试不会受到上次写入时加密、赋值的影响
+     */
+    private static class ImportItem {
+        private final int rowNum;
+        private final Supplier<StudentProfile> factory;
+        
+        ImportItem(int rowNum, Supplier<StudentProfile> factory) {
+            this.rowNum = rowNum;
+            this.factory = factory;
+        }
+    }
 }
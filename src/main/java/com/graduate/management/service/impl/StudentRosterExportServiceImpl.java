@@ -0,0 +1,261 @@
+package com.graduate.management.service.impl;
+
+import com.graduate.management.dto.StudentProfileDto;
+import com.graduate.management.entity.EncryptedString;
+import com.graduate.management.entity.User;
+import com.graduate.management.repository.StudentProfileRepository;
+import com.graduate.management.security.DataScope;
+import com.graduate.management.security.PermissionEngine;
+import com.graduate.management.security.SystemRole;
+import com.graduate.management.service.JobProgress;
+import com.graduate.management.service.StudentRosterExportService;
+import com.graduate.management.util.DtoMaskUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.concurrent.CancellationException;
+import java.util.stream.Stream;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StudentRosterExportServiceImpl implements StudentRosterExportService {
+
+    // 与导入模板列名保持一致，导出文件可直接修改后重新导入
+    private static final String[] HEADERS = {
+            "学号", "姓名", "性别", "身份证号", "学院", "专业", "学位类型", "导师",
+            "入学时间", "预计毕业时间", "现居地址", "永久地址", "紧急联系人", "紧急联系人电话", "审核状态"
+    };
+
+    private static final int XLSX_WINDOW_SIZE = 100; // SXSSF内存中保留的行数
+    private static final int CSV_FLUSH_INTERVAL = 500;
+    private static final int PROGRESS_INTERVAL = 500;
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final long SCHOOL_LEADER_ROLES = SystemRole.mask(SystemRole.SCHOOL_LEADER, SystemRole.GRADUATE_LEADER);
+
+    private final StudentProfileRepository studentProfileRepository;
+    private final PermissionEngine permissionEngine;
+    private final DtoMaskUtil dtoMaskUtil;
+
+    @Override
+    @Transactional(readOnly = true)
+    public int exportRoster(User currentUser, Long collegeId, Long majorId, String format, OutputStream out) throws IOException {
+        return exportRoster(currentUser, collegeId, majorId, format, out, JobProgress.NONE);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public int exportRoster(User currentUser, Long collegeId, Long majorId, String format, OutputStream out,
+                            JobProgress progress) throws IOException {
+        ExportScope scope = resolveScope(currentUser, collegeId);
+        log.info("导出学生名册 - 用户: {}, 学院ID: {}, 导师ID: {}, 专业ID: {}, 脱敏: {}, 格式: {}",
+                currentUser.getUsername(), scope.collegeId, scope.supervisorId, majorId, scope.masked, format);
+
+        long start = System.currentTimeMillis();
+        int count;
+        try (Stream<StudentProfileRepository.RosterRow> rows =
+                     studentProfileRepository.streamRoster(scope.collegeId, majorId, scope.supervisorId)) {
+            if (FORMAT_CSV.equalsIgnoreCase(format)) {
+                count = writeCsv(rows.iterator(), scope.masked, out, progress);
+            } else {
+                count = writeXlsx(rows.iterator(), scope.masked, out, progress);
+            }
+        }
+        progress.advance(count % PROGRESS_INTERVAL);
+        progress.setTotal(count);
+
+        log.info("学生名册导出完成，共{}行，耗时{}ms", count, System.currentTimeMillis() - start);
+        return count;
+    }
+
+    /**
+     * 按角色确定导出范围，与学生列表查询的范围一致；
+     * 是否脱敏与查看学籍详情一致，只有DataScope.UNMASKED_ROLES中的角色能导出明文
+     */
+    private ExportScope resolveScope(User user, Long requestedCollegeId) {
+        DataScope scope = permissionEngine.scopeOf(user);
+        boolean masked = scope.isMasked();
+        if (scope.getLevel() == DataScope.Level.ALL || scope.hasAnyRole(SCHOOL_LEADER_ROLES)) {
+            return new ExportScope(requestedCollegeId, null, masked);
+        }
+
+        if (scope.getLevel() == DataScope.Level.COLLEGE || scope.hasRole(SystemRole.COLLEGE_LEADER)) {
+            if (scope.getCollegeId() == null) {
+                throw new RuntimeException("无法确定用户所属学院");
+            }
+            return new ExportScope(scope.getCollegeId(), null, masked);
+        }
+
+        if (scope.hasRole(SystemRole.TEACHER)) {
+            // 导师只能导出其指导的学生
+            return new ExportScope(null, user.getId(), masked);
+        }
+
+        throw new RuntimeException("无权导出学生名册");
+    }
+
+    private int writeXlsx(Iterator<StudentProfileRepository.RosterRow> rows, boolean masked, OutputStream out,
+                          JobProgress progress) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(XLSX_WINDOW_SIZE);
+        workbook.setCompressTempFiles(true);
+        try {
+            SXSSFSheet sheet = workbook.createSheet("学生名册");
+
+            CellStyle headerStyle = workbook.createCellStyle();
+            Font headerFont = workbook.createFont();
+            headerFont.setBold(true);
+            headerStyle.setFont(headerFont);
+
+            Row header = sheet.createRow(0);
+            for (int i = 0; i < HEADERS.length; i++) {
+                Cell cell = header.createCell(i);
+                cell.setCellValue(HEADERS[i]);
+                cell.setCellStyle(headerStyle);
+            }
+
+            int rowIndex = 1;
+            while (rows.hasNext()) {
+                String[] values = toValues(rows.next(), masked);
+                Row row = sheet.createRow(rowIndex++);
+                for (int i = 0; i < values.length; i++) {
+                    if (values[i] != null) {
+                        row.createCell(i).setCellValue(values[i]);
+                    }
+                }
+                reportProgress(rowIndex - 1, progress);
+            }
+
+            workbook.write(out);
+            out.flush();
+            return rowIndex - 1;
+        } finally {
+            // 删除SXSSF写出的临时文件
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    private int writeCsv(Iterator<StudentProfileRepository.RosterRow> rows, boolean masked, OutputStream out,
+                         JobProgress progress) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        // 写入BOM，避免Excel打开时中文乱码
+        writer.write('\uFEFF');
+        writeCsvLine(writer, HEADERS);
+
+        int count = 0;
+        while (rows.hasNext()) {
+            writeCsvLine(writer, toValues(rows.next(), masked));
+            if (++count % CSV_FLUSH_INTERVAL == 0) {
+                writer.flush();
+            }
+            reportProgress(count, progress);
+        }
+        writer.flush();
+        return count;
+    }
+
+    /**
+     * 每写出一批行上报一次进度，并检查任务是否已取消
+     */
+    private void reportProgress(int written, JobProgress progress) {
+        if (written % PROGRESS_INTERVAL == 0) {
+            progress.advance(PROGRESS_INTERVAL);
+            if (progress.isCancelled()) {
+                throw new CancellationException("任务已取消");
+            }
+        }
+    }
+    
+    private void writeCsvLine(Writer writer, String[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(escapeCsv(values[i]));
+        }
+        writer.write("\r\n");
+    }
+
+    private String escapeCsv(String value) {
+        if (value == null || value.isEmpty()) {
+            return "";
+        }
+        // 防止CSV公式注入
+        char first = value.charAt(0);
+        if (first == '=' || first == '+' || first == '-' || first == '@') {
+            value = "'" + value;
+        }
+        if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+        return value;
+    }
+
+    /**
+     * 解密并按需脱敏一行数据
+     */
+    private String[] toValues(StudentProfileRepository.RosterRow row, boolean masked) {
+        StudentProfileDto dto = new StudentProfileDto();
+        dto.setIdNumber(EncryptedString.plaintextOf(row.getIdNumber()));
+        dto.setCurrentAddress(EncryptedString.plaintextOf(row.getCurrentAddress()));
+        dto.setPermanentAddress(EncryptedString.plaintextOf(row.getPermanentAddress()));
+        dto.setEmergencyPhone(EncryptedString.plaintextOf(row.getEmergencyPhone()));
+        if (masked) {
+            dtoMaskUtil.maskStudentProfile(dto, false);
+        }
+
+        return new String[] {
+                row.getStudentId(),
+                row.getName(),
+                row.getGender(),
+                dto.getIdNumber(),
+                row.getCollegeName(),
+                row.getMajorName(),
+                row.getDegreeType(),
+                row.getSupervisorName(),
+                formatDate(row.getEnrollmentDate()),
+                formatDate(row.getExpectedGraduationDate()),
+                dto.getCurrentAddress(),
+                dto.getPermanentAddress(),
+                row.getEmergencyContact(),
+                dto.getEmergencyPhone(),
+                Boolean.TRUE.equals(row.getApproved()) ? "已审核" : "待审核"
+        };
+    }
+
+    private String formatDate(LocalDate date) {
+        return date != null ? date.format(DATE_FORMAT) : null;
+    }
+
+    /**
+     * 导出范围
+     */
+    private static class ExportScope {
+        private final Long collegeId;
+        private final Long supervisorId;
+        private final boolean masked;
+
+        ExportScope(Long collegeId, Long supervisorId, boolean masked) {
+            this.collegeId = collegeId;
+            this.supervisorId = supervisorId;
+            this.masked = masked;
+        }
+    }
+}
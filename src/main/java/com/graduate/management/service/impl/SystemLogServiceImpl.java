@@ -10,12 +10,15 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.servlet.http.HttpServletRequest;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 @Service
@@ -24,9 +27,16 @@ public class SystemLogServiceImpl implements SystemLogService {
 
     private final SystemLogRepository systemLogRepository;
     private final SM3Util sm3Util;
+    private final JdbcTemplate jdbcTemplate;
+    
+    private static final String INSERT_SQL = "INSERT INTO system_logs (operation, resource_type, resource_id, user_id, " +
+            "ip_address, details, success, error_message, hmac_value, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
     
     @Value("${system.log.hmac-key:logSecurityKey}")
     private String hmacKey;
+    
+    @Value("${system.log.batch-size:500}")
+    private int batchSize;
 
     @Override
     @Transactional
@@ -49,6 +59,39 @@ public class SystemLogServiceImpl implements SystemLogService {
         
         systemLogRepository.save(log);
     }
+    
+    @Override
+    @Transactional
+    public void logAll(String operation, String resourceType, Collection<Long> resourceIds, User user,
+                       String details, HttpServletRequest request) {
+        if (resourceIds.isEmpty()) {
+            return;
+        }
+        String ipAddress = getClientIpAddress(request);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        
+        List<Object[]> rows = new ArrayList<>(resourceIds.size());
+        for (Long resourceId : resourceIds) {
+            SystemLog log = new SystemLog();
+            log.setOperation(operation);
+            log.setResourceType(resourceType);
+            log.setResourceId(resourceId);
+            log.setUser(user);
+            log.setIpAddress(ipAddress);
+            log.setDetails(details);
+            log.setSuccess(true);
+            
+            // 与单条记录相同的方式计算HMAC
+            String hmac = sm3Util.hmac(buildLogData(log), hmacKey);
+            rows.add(new Object[] {operation, resourceType, resourceId, user != null ? user.getId() : null,
+                    ipAddress, details, true, null, hmac, now});
+        }
+        
+        // IDENTITY主键下Hibernate无法批量插入，直接使用JDBC批量写入
+        for (int from = 0; from < rows.size(); from += batchSize) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, rows.subList(from, Math.min(from + batchSize, rows.size())));
+        }
+    }
 
     @Override
     public SystemLogDto getLogById(Long id) {
@@ -0,0 +1,124 @@
+package com.graduate.management.service.impl;
+
+import com.graduate.management.dto.UserCollegeAssignmentDto;
+import com.graduate.management.entity.College;
+import com.graduate.management.entity.Role;
+import com.graduate.management.entity.User;
+import com.graduate.management.entity.UserCollegeAssignment;
+import com.graduate.management.repository.CollegeRepository;
+import com.graduate.management.repository.UserCollegeAssignmentRepository;
+import com.graduate.management.repository.UserRepository;
+import com.graduate.management.security.SystemRole;
+import com.graduate.management.service.UserCollegeService;
+import com.graduate.management.util.ExpiringCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.annotation.PostConstruct;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserCollegeServiceImpl implements UserCollegeService {
+    
+    // 只有学院级角色需要归属学院
+    private static final long COLLEGE_ROLES = SystemRole.mask(
+            SystemRole.COLLEGE_ADMIN, SystemRole.COLLEGE_SECRETARY, SystemRole.COLLEGE_LEADER);
+    
+    private final UserCollegeAssignmentRepository assignmentRepository;
+    private final UserRepository userRepository;
+    private final CollegeRepository collegeRepository;
+    
+    @Value("${system.security.scope-cache-ttl:60}")
+    private long cacheTtlSeconds;
+    
+    @Value("${system.security.scope-cache-size:10000}")
+    private int cacheSize;
+    
+    private ExpiringCache<Long, Long> collegeIdCache;
+    
+    @PostConstruct
+    public void init() {
+        collegeIdCache = new ExpiringCache<>(cacheTtlSeconds, cacheSize);
+    }
+    
+    /**
+     * 认证时每个请求都会解析学院，结果在本节点缓存一段时间；
+     * 本节点上的分配和取消分配立即生效，其他节点上的修改最多经过system.security.scope-cache-ttl后生效
+     */
+    @Override
+    public Long getCollegeId(Long userId) {
+        if (userId == null) {
+            return null;
+        }
+        return collegeIdCache.get(userId, id -> assignmentRepository.findCollegeIdByUserId(id).orElse(null));
+    }
+    
+    @Override
+    public College getCollege(User user) {
+        Long collegeId = getCollegeId(user.getId());
+        return collegeId != null ? collegeRepository.findById(collegeId).orElse(null) : null;
+    }
+    
+    @Override
+    @Transactional
+    public UserCollegeAssignmentDto assign(Long userId, Long collegeId, User operator) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("用户不存在"));
+        College college = collegeRepository.findById(collegeId)
+                .orElseThrow(() -> new RuntimeException("学院不存在"));
+        if (!hasCollegeRole(user)) {
+            throw new RuntimeException("只有学院管理员、学院秘书和学院领导可以分配学院");
+        }
+        
+        UserCollegeAssignment assignment = assignmentRepository.findByUserId(userId)
+                .orElseGet(UserCollegeAssignment::new);
+        assignment.setUser(user);
+        assignment.setCollege(college);
+        assignment.setAssignedBy(operator);
+        assignment = assignmentRepository.save(assignment);
+        
+        collegeIdCache.evictAfterCommit(userId);
+        log.info("用户{}分配到学院{}", user.getUsername(), college.getName());
+        return convertToDto(assignment);
+    }
+    
+    @Override
+    @Transactional
+    public boolean unassign(Long userId) {
+        boolean removed = assignmentRepository.deleteByUserId(userId) > 0;
+        collegeIdCache.evictAfterCommit(userId);
+        return removed;
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public List<UserCollegeAssignmentDto> getAssignments(Long collegeId) {
+        return assignmentRepository.findByCollegeIdWithUser(collegeId).stream()
+                .map(this::convertToDto)
+                .collect(Collectors.toList());
+    }
+    
+    private boolean hasCollegeRole(User user) {
+        long roleMask = SystemRole.mask(user.getRoles().stream()
+                .map(Role::getName)
+                .collect(Collectors.toList()));
+        return (roleMask & COLLEGE_ROLES) != 0;
+    }
+    
+    private UserCollegeAssignmentDto convertToDto(UserCollegeAssignment assignment) {
+        return UserCollegeAssignmentDto.builder()
+                .userId(assignment.getUser().getId())
+                .username(assignment.getUser().getUsername())
+                .name(assignment.getUser().getName())
+                .collegeId(assignment.getCollege().getId())
+                .collegeName(assignment.getCollege().getName())
+                .assignedAt(assignment.getUpdatedAt() != null ? assignment.getUpdatedAt() : assignment.getCreatedAt())
+                .build();
+    }
+}
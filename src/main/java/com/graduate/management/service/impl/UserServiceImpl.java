@@ -10,13 +10,18 @@ import com.graduate.management.entity.User;
 import com.graduate.management.repository.RoleRepository;
 import com.graduate.management.repository.UserRepository;
 import com.graduate.management.security.JwtTokenProvider;
+import com.graduate.management.security.LoginAttemptTracker;
 import com.graduate.management.security.UserDetailsImpl;
 import com.graduate.management.service.SystemLogService;
+import com.graduate.management.service.UserCollegeService;
 import com.graduate.management.service.UserService;
+import com.graduate.management.util.PasswordPolicyChecker;
 import com.graduate.management.util.SM3Util;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -28,10 +33,14 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
@@ -44,6 +53,9 @@ public class UserServiceImpl implements UserService {
     private final PasswordEncoder passwordEncoder;
     private final SM3Util sm3Util;
     private final SystemLogService systemLogService;
+    private final LoginAttemptTracker loginAttemptTracker;
+    private final UserCollegeService userCollegeService;
+    private final PasswordPolicyChecker passwordPolicyChecker;
     
     @Value("${system.password.expired-days}")
     private int passwordExpiredDays;
@@ -65,12 +77,9 @@ public class UserServiceImpl implements UserService {
         
         UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
         
-        // 更新最后登录时间
+        // 更新最后登录时间（登录失败次数由LoginAttemptService在内存中维护，无需每次写库）
         updateLastLoginTime(userDetails.getUsername());
         
-        // 重置登录尝试次数
-        updateLoginAttempts(userDetails.getUsername(), 0);
-        
         return JwtResponse.builder()
                 .token(jwt)
                 .refreshToken(refreshToken)
@@ -213,6 +222,7 @@ public class UserServiceImpl implements UserService {
     @Override
     @Transactional
     public void deleteUser(Long id) {
+        userCollegeService.unassign(id);
         userRepository.deleteById(id);
     }
     
@@ -237,14 +247,97 @@ public class UserServiceImpl implements UserService {
     }
     
     @Override
-    public List<UserDto> getUsersByRole(String role) {
-        Role roleEntity = roleRepository.findByName(role)
-                .orElseThrow(() -> new RuntimeException("角色不存在"));
+    @Transactional(readOnly = true)
+    public Page<UserDto> getUsersByRole(String role, String namePrefix, String usernamePrefix, Pageable pageable) {
+        if (!roleRepository.findByName(role).isPresent()) {
+            throw new RuntimeException("角色不存在");
+        }
         
-        return roleEntity.getUsers().stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        Page<UserRepository.UserSummary> summaries = userRepository.findSummariesByRole(
+                role, toLikePrefix(namePrefix), toLikePrefix(usernamePrefix), pageable);
+        
+        return new PageImpl<>(convertSummariesToDto(summaries.getContent()), pageable, summaries.getTotalElements());
+    }
+    
+    @Override
+    public void streamUsersByRole(String role, String namePrefix, String usernamePrefix,
+                                  int chunkSize, Consumer<List<UserDto>> chunkConsumer) {
+        if (!roleRepository.findByName(role).isPresent()) {
+            throw new RuntimeException("角色不存在");
+        }
+        
+        String nameLike = toLikePrefix(namePrefix);
+        String usernameLike = toLikePrefix(usernamePrefix);
+        Pageable chunk = PageRequest.of(0, chunkSize);
+        
+        // 以主键为游标分段读取，每段单独查询，内存中只保留一段数据
+        long afterId = 0L;
+        while (true) {
+            List<UserRepository.UserSummary> rows = userRepository.findSummariesByRoleAfter(
+                    role, nameLike, usernameLike, afterId, chunk);
+            if (rows.isEmpty()) {
+                break;
+            }
+            
+            chunkConsumer.accept(convertSummariesToDto(rows));
+            
+            if (rows.size() < chunkSize) {
+                break;
+            }
+            afterId = rows.get(rows.size() - 1).getId();
+        }
     }
+    
+    /**
+     * 将前缀转换为LIKE参数（转义通配符），为空时返回null表示不过滤
+     */
+    private String toLikePrefix(String prefix) {
+        if (prefix == null || prefix.trim().isEmpty()) {
+            return null;
+        }
+        return prefix.trim()
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+    
+    /**
+     * 将用户摘要转换为DTO，角色通过一次IN查询批量加载
+     */
+    private List<UserDto> convertSummariesToDto(List<UserRepository.UserSummary> summaries) {
+        if (summaries.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        List<Long> ids = new ArrayList<>(summaries.size());
+        for (UserRepository.UserSummary summary : summaries) {
+            ids.add(summary.getId());
+        }
+        
+        Map<Long, List<String>> rolesByUser = new HashMap<>();
+        for (Object[] row : userRepository.findRoleNamesByUserIds(ids)) {
+            rolesByUser.computeIfAbsent((Long) row[0], k -> new ArrayList<>()).add((String) row[1]);
+        }
+        
+        List<UserDto> dtos = new ArrayList<>(summaries.size());
+        for (UserRepository.UserSummary summary : summaries) {
+            UserDto userDto = UserDto.builder()
+                    .id(summary.getId())
+                    .username(summary.getUsername())
+                    .name(summary.getName())
+                    .email(summary.getEmail())
+                    .phone(summary.getPhone())
+                    .roles(rolesByUser.getOrDefault(summary.getId(), new ArrayList<>()))
+                    .enabled(summary.getEnabled())
+                    .accountNonLocked(summary.getAccountNonLocked())
+                    .firstLogin(summary.getFirstLogin())
+                    .build();
+            // 对DTO进行脱敏处理
+            dtos.add(dtoMaskUtil.maskUserDto(userDto));
+        }
+        return dtos;
+    }
+    
       @Override
     @Transactional
     public boolean changePassword(String username, PasswordChangeRequest request) {
@@ -252,6 +345,14 @@ public class UserServiceImpl implements UserService {
             throw new RuntimeException("两次输入的密码不一致");
         }
         
+        // 先做内存中的策略和弱密码筛查，不符合时无需查库和校验旧密码
+        if (!passwordPolicyChecker.isValid(request.getNewPassword())) {
+            throw new RuntimeException(passwordPolicyChecker.getPolicyDescription());
+        }
+        if (passwordPolicyChecker.isCommon(request.getNewPassword())) {
+            throw new RuntimeException("新密码过于常见，请更换其他密码");
+        }
+        
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("用户不存在"));
         
@@ -292,8 +393,9 @@ public class UserServiceImpl implements UserService {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("用户不存在"));
         
+        // 管理员手动锁定不记录锁定时间，不会被自动解锁任务解除
         user.setAccountNonLocked(false);
-        user.setLockedTime(LocalDateTime.now());
+        user.setLockedTime(null);
         
         userRepository.save(user);
         return true;
@@ -310,6 +412,8 @@ public class UserServiceImpl implements UserService {
         user.setLoginAttempts(0);
         
         userRepository.save(user);
+        // 同时清除内存中的登录失败计数
+        loginAttemptTracker.reset(user.getUsername());
         return true;
     }
     
@@ -0,0 +1,34 @@
+package com.graduate.management.util;
+
+import com.graduate.management.repository.ChangeRequestRepository;
+import com.graduate.management.service.PendingChangeRequestCounter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * 变更申请学院字段回填工具
+ * 启动时为历史变更申请补齐冗余的学院字段，全部补齐后每次启动只执行一条空更新
+ *
+ * 关闭方式：--system.change-request.college-backfill=false
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "system.change-request.college-backfill", havingValue = "true", matchIfMissing = true)
+public class ChangeRequestCollegeBackfill implements CommandLineRunner {
+    
+    private final ChangeRequestRepository changeRequestRepository;
+    private final PendingChangeRequestCounter pendingCounter;
+    
+    @Override
+    public void run(String... args) {
+        int updated = changeRequestRepository.backfillCollege();
+        if (updated > 0) {
+            pendingCounter.rebuild();
+            log.info("变更申请学院字段回填完成，共{}条", updated);
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package com.graduate.management.util;
+
+import com.graduate.management.entity.DataKey;
+import com.graduate.management.entity.KeyFingerprint;
+import com.graduate.management.repository.DataKeyRepository;
+import com.graduate.management.repository.KeyFingerprintRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 信封加密工具类
+ * 每批数据生成一个随机SM4数据密钥，数据密钥用SM2加密后存入data_keys表，字段用数据密钥加密，
+ * 批量加密时每批只做一次SM2运算。密文格式为"数据密钥ID:Base64(IV+密文)"，每个字段使用随机IV。
+ * 解密时按数据密钥ID取回并解开数据密钥，解开的数据密钥在内存中缓存，缓存有数量上限和有效期。
+ * SM4Util格式的密文（无前缀或"v{版本}:"前缀）交给SM4Util按密钥版本解密。
+ * 启动时比对SM2公钥指纹与数据库中记录的指纹，不一致的节点拒绝启动。
+ */
+@Slf4j
+@Component
+public class EnvelopeEncryptor {
+
+    private static final String TRANSFORMATION = "SM4/CBC/PKCS5Padding";
+    private static final int KEY_LENGTH = 16;
+    private static final int IV_LENGTH = 16;
+    private static final char SEPARATOR = ':';
+    private static final String SM2_KEY_NAME = "SM2";
+
+    private final SM2Util sm2Util;
+    private final SM4Util sm4Util;
+    private final DataKeyRepository dataKeyRepository;
+    private final KeyFingerprintRepository keyFingerprintRepository;
+    private final long ttlMillis;
+    private final int cacheSize;
+
+    private final SecureRandom random = new SecureRandom();
+
+    // 已解开的数据密钥：数据密钥ID -> 密钥及过期时间
+    private final Map<Long, CachedKey> keyCache = new ConcurrentHashMap<>();
+
+    // 当前线程正在进行的批量加密
+    private final ThreadLocal<Batch> currentBatch = new ThreadLocal<>();
+
+    public EnvelopeEncryptor(SM2Util sm2Util, SM4Util sm4Util, DataKeyRepository dataKeyRepository,
+                             KeyFingerprintRepository keyFingerprintRepository,
+                             @Value("${system.sm2.data-key-ttl:600}") long ttlSeconds,
+                             @Value("${system.sm2.data-key-cache-size:1024}") int cacheSize) {
+        this.sm2Util = sm2Util;
+        this.sm4Util = sm4Util;
+        this.dataKeyRepository = dataKeyRepository;
+        this.keyFingerprintRepository = keyFingerprintRepository;
+        this.ttlMillis = TimeUnit.SECONDS.toMillis(ttlSeconds);
+        this.cacheSize = cacheSize;
+    }
+
+    /**
+     * 校验本节点加载的SM2密钥与集群记录的一致
+     * 首次启动时记录指纹；已有数据密钥但尚未记录指纹时（旧版本升级），先确认能解开最近的数据密钥
+     */
+    @PostConstruct
+    public void verifyKeyFingerprint() {
+        String fingerprint = sm2Util.getPublicKeyFingerprint();
+        KeyFingerprint recorded = keyFingerprintRepository.findById(SM2_KEY_NAME).orElse(null);
+        if (recorded == null) {
+            dataKeyRepository.findTopByOrderByIdDesc().ifPresent(dataKey -> {
+                try {
+                    sm2Util.decrypt(Base64.getDecoder().decode(dataKey.getWrappedKey()));
+                } catch (RuntimeException e) {
+                    throw new IllegalStateException("当前SM2密钥无法解开已有的数据密钥，请确认加载的是集群共用的密钥库", e);
+                }
+            });
+
+            recorded = new KeyFingerprint();
+            recorded.setKeyName(SM2_KEY_NAME);
+            recorded.setFingerprint(fingerprint);
+            try {
+                recorded = keyFingerprintRepository.saveAndFlush(recorded);
+                log.info("已记录SM2公钥指纹: {}", fingerprint);
+            } catch (DataIntegrityViolationException e) {
+                // 其他节点同时启动并先记录了指纹
+                recorded = keyFingerprintRepository.findById(SM2_KEY_NAME).orElseThrow(() -> e);
+            }
+        }
+
+        if (!fingerprint.equals(recorded.getFingerprint())) {
+            throw new IllegalStateException("SM2密钥与集群记录的不一致（本节点: " + fingerprint
+                    + "，已记录: " + recorded.getFingerprint() + "），请部署集群共用的密钥库");
+        }
+    }
+
+    /**
+     * 开始一批加密：生成数据密钥，SM2加密后保存，需在写入数据的同一事务中调用
+     *
+     * @param purpose 用途
+     * @return 本批使用的加密器，仅限当前线程使用
+     */
+    public Batch newBatch(String purpose) {
+        byte[] keyBytes = new byte[KEY_LENGTH];
+        random.nextBytes(keyBytes);
+
+        DataKey dataKey = new DataKey();
+        dataKey.setWrappedKey(Base64.getEncoder().encodeToString(sm2Util.encrypt(keyBytes)));
+        dataKey.setPurpose(purpose);
+        dataKey = dataKeyRepository.save(dataKey);
+
+        return new Batch(dataKey.getId(), new SecretKeySpec(keyBytes, "SM4"));
+    }
+
+    /**
+     * 在一批加密中执行操作：期间当前线程通过{@link #encrypt(String)}加密的字段（包括写入时由转换器加密的字段）
+     * 都使用同一个数据密钥，需在写入数据的同一事务中调用
+     *
+     * @param purpose 用途
+     * @param action 写入操作
+     * @return 操作结果
+     */
+    public <T> T inBatch(String purpose, Supplier<T> action) {
+        Batch previous = currentBatch.get();
+        currentBatch.set(newBatch(purpose));
+        try {
+            return action.get();
+        } finally {
+            if (previous != null) {
+                currentBatch.set(previous);
+            } else {
+                currentBatch.remove();
+            }
+        }
+    }
+
+    /**
+     * 加密：当前线程处于批量加密中时使用本批的数据密钥，否则使用SM4当前版本的密钥
+     *
+     * @param plaintext 明文
+     * @return 密文
+     */
+    public String encrypt(String plaintext) {
+        Batch batch = currentBatch.get();
+        return batch != null ? batch.encrypt(plaintext) : sm4Util.encrypt(plaintext);
+    }
+
+    /**
+     * 解密，兼容信封格式和SM4Util各版本的格式
+     *
+     * @param ciphertext 密文
+     * @return 明文
+     */
+    public String decrypt(String ciphertext) {
+        if (ciphertext == null || ciphertext.trim().isEmpty()) {
+            return ciphertext;
+        }
+        if (SM4Util.isSm4Ciphertext(ciphertext)) {
+            return sm4Util.decrypt(ciphertext);
+        }
+        int separator = ciphertext.indexOf(SEPARATOR);
+
+        try {
+            Long keyId = Long.valueOf(ciphertext.substring(0, separator));
+            byte[] payload = Base64.getDecoder().decode(ciphertext.substring(separator + 1));
+            Cipher cipher = Cipher.getInstance(TRANSFORMATION, BouncyCastleProvider.PROVIDER_NAME);
+            cipher.init(Cipher.DECRYPT_MODE, dataKey(keyId), new IvParameterSpec(payload, 0, IV_LENGTH));
+            byte[] decrypted = cipher.doFinal(payload, IV_LENGTH, payload.length - IV_LENGTH);
+            return new String(decrypted, StandardCharsets.UTF_8);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("信封解密失败", e);
+        }
+    }
+
+    /**
+     * 定时清理过期的数据密钥
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void evictExpired() {
+        int removed = evictExpired(System.currentTimeMillis());
+        if (removed > 0) {
+            log.debug("清理过期数据密钥{}个", removed);
+        }
+    }
+
+    /**
+     * 按ID获取数据密钥，缓存未命中或已过期时从数据库读取并用SM2解开
+     */
+    private SecretKeySpec dataKey(Long keyId) {
+        long now = System.currentTimeMillis();
+        CachedKey cached = keyCache.get(keyId);
+        if (cached != null && cached.expiresAt > now) {
+            return cached.key;
+        }
+
+        DataKey dataKey = dataKeyRepository.findById(keyId)
+                .orElseThrow(() -> new RuntimeException("数据密钥不存在: " + keyId));
+        SecretKeySpec key = new SecretKeySpec(sm2Util.decrypt(Base64.getDecoder().decode(dataKey.getWrappedKey())), "SM4");
+
+        if (keyCache.size() >= cacheSize && evictExpired(now) == 0) {
+            evictEarliest();
+        }
+        keyCache.put(keyId, new CachedKey(key, now + ttlMillis));
+        return key;
+    }
+
+    private int evictExpired(long now) {
+        int removed = 0;
+        Iterator<CachedKey> it = keyCache.values().iterator();
+        while (it.hasNext()) {
+            if (it.next().expiresAt <= now) {
+                it.remove();
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * 缓存已满且没有过期条目时，移除最早过期的数据密钥
+     */
+    private void evictEarliest() {
+        Long earliestId = null;
+        long earliest = Long.MAX_VALUE;
+        for (Map.Entry<Long, CachedKey> entry : keyCache.entrySet()) {
+            if (entry.getValue().expiresAt < earliest) {
+                earliest = entry.getValue().expiresAt;
+                earliestId = entry.getKey();
+            }
+        }
+        if (earliestId != null) {
+            keyCache.remove(earliestId);
+        }
+    }
+
+    /**
+     * 一批数据的加密器，持有本批的数据密钥
+     */
+    public final class Batch {
+
+        private final Long keyId;
+        private final SecretKeySpec key;
+        private final Cipher cipher;
+
+        private Batch(Long keyId, SecretKeySpec key) {
+            this.keyId = keyId;
+            this.key = key;
+            try {
+                this.cipher = Cipher.getInstance(TRANSFORMATION, BouncyCastleProvider.PROVIDER_NAME);
+            } catch (Exception e) {
+                throw new RuntimeException("信封加密初始化失败", e);
+            }
+        }
+
+        public Long getKeyId() {
+            return keyId;
+        }
+
+        /**
+         * 加密
+         *
+         * @param plaintext 明文
+         * @return 信封格式的密文
+         */
+        public String encrypt(String plaintext) {
+            if (plaintext == null || plaintext.trim().isEmpty()) {
+                return plaintext;
+            }
+
+            try {
+                byte[] iv = new byte[IV_LENGTH];
+                random.nextBytes(iv);
+                cipher.init(Cipher.ENCRYPT_MODE, key, new IvParameterSpec(iv));
+                byte[] encrypted = cipher.doFinal(plaintext.getBytes(StandardCharsets.UTF_8));
+
+                byte[] payload = new byte[IV_LENGTH + encrypted.length];
+                System.arraycopy(iv, 0, payload, 0, IV_LENGTH);
+                System.arraycopy(encrypted, 0, payload, IV_LENGTH, encrypted.length);
+                return keyId + String.valueOf(SEPARATOR) + Base64.getEncoder().encodeToString(payload);
+            } catch (Exception e) {
+                throw new RuntimeException("信封加密失败", e);
+            }
+        }
+    }
+
+    private static final class CachedKey {
+        private final SecretKeySpec key;
+        private final long expiresAt;
+
+        private CachedKey(SecretKeySpec key, long expiresAt) {
+            this.key = key;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.graduate.management.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 有容量上限和过期时间的本地缓存
+ * 用于认证时解析数据范围所需的映射（用户所属学院、学生本人的学籍ID），避免每个请求都查询数据库。
+ * 本节点上的修改在事务提交后立即清除对应条目；多节点部署时其他节点上的修改最多经过一个过期时间后生效。
+ * 加载结果为null（如未分配学院）时同样缓存
+ */
+public class ExpiringCache<K, V> {
+
+    private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final long ttlMillis;
+    private final int maxSize;
+
+    public ExpiringCache(long ttlSeconds, int maxSize) {
+        this.ttlMillis = TimeUnit.SECONDS.toMillis(ttlSeconds);
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * 获取缓存值，未命中或已过期时调用loader加载
+     *
+     * @param key 键
+     * @param loader 加载函数，可返回null
+     * @return 缓存值
+     */
+    public V get(K key, Function<K, V> loader) {
+        long now = System.currentTimeMillis();
+        Entry<V> entry = entries.get(key);
+        if (entry != null && entry.expiresAt > now) {
+            return entry.value;
+        }
+
+        V value = loader.apply(key);
+        if (ttlMillis > 0) {
+            if (entries.size() >= maxSize && evictExpired(now) == 0) {
+                evictEarliest();
+            }
+            entries.put(key, new Entry<>(value, now + ttlMillis));
+        }
+        return value;
+    }
+
+    /**
+     * 清除条目，在事务中调用时提交后再清除一次，避免并发读取在提交前把旧值重新放回缓存
+     *
+     * @param key 键
+     */
+    public void evictAfterCommit(K key) {
+        entries.remove(key);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    entries.remove(key);
+                }
+            });
+        }
+    }
+
+    private int evictExpired(long now) {
+        int removed = 0;
+        Iterator<Entry<V>> it = entries.values().iterator();
+        while (it.hasNext()) {
+            if (it.next().expiresAt <= now) {
+                it.remove();
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * 缓存已满且没有过期条目时，移除最早过期的条目
+     */
+    private void evictEarliest() {
+        K earliestKey = null;
+        long earliest = Long.MAX_VALUE;
+        for (Map.Entry<K, Entry<V>> entry : entries.entrySet()) {
+            if (entry.getValue().expiresAt < earliest) {
+                earliest = entry.getValue().expiresAt;
+                earliestKey = entry.getKey();
+            }
+        }
+        if (earliestKey != null) {
+            entries.remove(earliestKey);
+        }
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long expiresAt;
+
+        private Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
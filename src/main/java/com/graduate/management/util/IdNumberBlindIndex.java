@@ -0,0 +1,49 @@
+package com.graduate.management.util;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+
+/**
+ * 身份证号盲索引工具类
+ * 对规范化后的身份证号计算带密钥的HMAC-SM3，存入单独的索引列，
+ * 无需解密即可按身份证号查重和精确查询；不掌握密钥无法通过枚举反推身份证号
+ */
+@Component
+@RequiredArgsConstructor
+public class IdNumberBlindIndex {
+    
+    private final SM3Util sm3Util;
+    
+    @Value("${system.sm4.blind-index-key:idNumberIndexKey}")
+    private String indexKey;
+    
+    /**
+     * 计算身份证号盲索引
+     *
+     * @param idNumber 身份证号明文
+     * @return 盲索引（64位16进制），身份证号为空时返回null
+     */
+    public String compute(String idNumber) {
+        String normalized = normalize(idNumber);
+        if (normalized.isEmpty()) {
+            return null;
+        }
+        return sm3Util.hmac(normalized, indexKey);
+    }
+    
+    /**
+     * 规范化身份证号：去除空白，末位校验码统一为大写X
+     *
+     * @param idNumber 身份证号
+     * @return 规范化后的身份证号
+     */
+    public String normalize(String idNumber) {
+        if (idNumber == null) {
+            return "";
+        }
+        return idNumber.replaceAll("\\s+", "").toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,71 @@
+package com.graduate.management.util;
+
+import com.graduate.management.entity.EncryptedString;
+import com.graduate.management.repository.StudentProfileRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * 身份证号盲索引回填工具
+ * 启动时为尚未生成盲索引的历史学籍记录补齐idNumberHash，按ID分批处理，每批一个事务；
+ * 全部回填后每次启动只执行一次空查询
+ *
+ * 关闭方式：--system.sm4.blind-index-backfill=false
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "system.sm4.blind-index-backfill", havingValue = "true", matchIfMissing = true)
+public class IdNumberHashBackfill implements CommandLineRunner {
+    
+    private final StudentProfileRepository studentProfileRepository;
+    private final IdNumberBlindIndex idNumberBlindIndex;
+    private final TransactionTemplate transactionTemplate;
+    
+    @Value("${system.sm4.blind-index-batch-size:500}")
+    private int batchSize;
+    
+    @Override
+    public void run(String... args) {
+        long afterId = 0;
+        int total = 0;
+        while (true) {
+            List<Object[]> rows = studentProfileRepository.findIdNumbersWithoutHash(afterId, PageRequest.of(0, batchSize));
+            if (rows.isEmpty()) {
+                break;
+            }
+            
+            Integer updated = transactionTemplate.execute(status -> {
+                int count = 0;
+                for (Object[] row : rows) {
+                    Long id = (Long) row[0];
+                    EncryptedString idNumber = (EncryptedString) row[1];
+                    try {
+                        String hash = idNumberBlindIndex.compute(EncryptedString.plaintextOf(idNumber));
+                        if (hash != null) {
+                            count += studentProfileRepository.updateIdNumberHash(id, hash);
+                        }
+                    } catch (Exception e) {
+                        log.warn("学籍记录{}的身份证号无法解密，跳过盲索引回填: {}", id, e.getMessage());
+                    }
+                }
+                return count;
+            });
+            
+            total += updated != null ? updated : 0;
+            afterId = (Long) rows.get(rows.size() - 1)[0];
+        }
+        
+        if (total > 0) {
+            log.info("身份证号盲索引回填完成，共{}条", total);
+        }
+    }
+}
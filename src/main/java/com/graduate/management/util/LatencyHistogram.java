@@ -0,0 +1,114 @@
+package com.graduate.management.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 线程安全的延迟直方图
+ * 按对数线性分桶记录微秒级延迟，相对误差约3%，最大记录60秒，内存占用固定，可在压测中长时间并发记录
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final long MAX_MICROS = TimeUnit.SECONDS.toMicros(60);
+    private static final int BUCKET_COUNT = index(MAX_MICROS) + 1;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong totalMicros = new AtomicLong();
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    /**
+     * 记录一次请求
+     *
+     * @param nanos 耗时（纳秒）
+     * @param success 是否成功
+     */
+    public void record(long nanos, boolean success) {
+        long micros = Math.min(MAX_MICROS, Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos)));
+        buckets.incrementAndGet(index(micros));
+        count.incrementAndGet();
+        totalMicros.addAndGet(micros);
+        maxMicros.accumulateAndGet(micros, Math::max);
+        if (!success) {
+            errors.incrementAndGet();
+        }
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getErrors() {
+        return errors.get();
+    }
+
+    public double getMeanMillis() {
+        long n = count.get();
+        return n == 0 ? 0 : totalMicros.get() / 1000.0 / n;
+    }
+
+    public double getMaxMillis() {
+        return maxMicros.get() / 1000.0;
+    }
+
+    /**
+     * 计算百分位延迟
+     *
+     * @param p 百分位，如0.99
+     * @return 延迟（毫秒），取所在桶的中值
+     */
+    public double percentileMillis(double p) {
+        long n = count.get();
+        if (n == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(p * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                return (lowerBound(i) + lowerBound(i + 1)) / 2.0 / 1000.0;
+            }
+        }
+        return getMaxMillis();
+    }
+
+    /**
+     * 统计延迟不超过指定值的请求数
+     *
+     * @param millis 延迟上限（毫秒）
+     * @return 请求数
+     */
+    public long countAtOrBelow(long millis) {
+        int last = index(Math.min(MAX_MICROS, TimeUnit.MILLISECONDS.toMicros(millis)));
+        long total = 0;
+        for (int i = 0; i <= last; i++) {
+            total += buckets.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * 前2*SUB_BUCKETS个桶宽度为1微秒，之后每翻一倍分为SUB_BUCKETS个等宽桶
+     */
+    private static int index(long micros) {
+        if (micros < 2 * SUB_BUCKETS) {
+            return (int) micros;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(micros) - SUB_BUCKET_BITS;
+        return 2 * SUB_BUCKETS + (shift - 1) * SUB_BUCKETS + (int) ((micros >> shift) - SUB_BUCKETS);
+    }
+
+    private static long lowerBound(int index) {
+        if (index < 2 * SUB_BUCKETS) {
+            return index;
+        }
+        int offset = index - 2 * SUB_BUCKETS;
+        int shift = offset / SUB_BUCKETS + 1;
+        return (long) (SUB_BUCKETS + offset % SUB_BUCKETS) << shift;
+    }
+}
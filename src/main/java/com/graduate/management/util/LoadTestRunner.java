@@ -0,0 +1,534 @@
+package com.graduate.management.util;
+
+import com.graduate.management.entity.Role;
+import com.graduate.management.entity.User;
+import com.graduate.management.repository.RoleRepository;
+import com.graduate.management.repository.UserRepository;
+import com.graduate.management.service.UserCollegeService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 端到端压测工具
+ * 应用启动后通过HTTP接口按配置比例混合执行学生查看本人学籍、秘书列表和搜索、导师名册、Excel导入、
+ * 审计日志搜索和集中登录等场景，按接口输出吞吐量、延迟百分位和延迟分布。
+ * 任一场景p99超过阈值、相对基线回退超过允许比例或失败率超限时，进程以非0状态码退出。
+ * 建议先用SyntheticDataGenerator生成数据，秘书和审计账号不存在时自动创建。
+ *
+ * 启用方式：--spring.profiles.active=h2 --system.loadtest.enabled=true（需以Maven的h2配置(-Ph2)构建）
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "system.loadtest.enabled", havingValue = "true")
+public class LoadTestRunner implements CommandLineRunner {
+
+    private static final List<String> SCENARIOS = Arrays.asList(
+            "student-self", "secretary-list", "secretary-search", "supervisor-roster", "audit-search", "login", "import");
+    private static final String SECRETARY_USERNAME = "loadtest_secretary";
+    private static final String AUDITOR_USERNAME = "loadtest_auditor";
+    private static final String[] SEARCH_KEYWORDS = {"王", "李", "张", "2024", "伟", "芳"};
+    private static final String[] LOG_KEYWORDS = {"LOGIN", "UPDATE", "STUDENT_PROFILE", "登录"};
+    private static final long[] HISTOGRAM_BOUNDS_MS = {10, 50, 100, 250, 500, 1000};
+    private static final ParameterizedTypeReference<Map<String, Object>> JSON_MAP =
+            new ParameterizedTypeReference<Map<String, Object>>() { };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UserRepository userRepository;
+    private final RoleRepository roleRepository;
+    private final UserCollegeService userCollegeService;
+    private final PasswordEncoder passwordEncoder;
+    private final Environment environment;
+    private final ConfigurableApplicationContext applicationContext;
+
+    @Value("${system.loadtest.password:Sims@2024}")
+    private String password;
+
+    @Value("${system.loadtest.concurrency:32}")
+    private int concurrency;
+
+    @Value("${system.loadtest.warmup-seconds:10}")
+    private int warmupSeconds;
+
+    @Value("${system.loadtest.duration-seconds:60}")
+    private int durationSeconds;
+
+    @Value("${system.loadtest.think-time-ms:0}")
+    private long thinkTimeMillis;
+
+    @Value("${system.loadtest.mix:student-self=30,secretary-list=20,secretary-search=15,supervisor-roster=15,audit-search=10,login=9,import=1}")
+    private String mix;
+
+    @Value("${system.loadtest.student-accounts:200}")
+    private int studentAccounts;
+
+    @Value("${system.loadtest.supervisor-accounts:50}")
+    private int supervisorAccounts;
+
+    @Value("${system.loadtest.import-rows:20}")
+    private int importRows;
+
+    @Value("${system.loadtest.p99-threshold-ms:1000}")
+    private long p99ThresholdMillis;
+
+    @Value("${system.loadtest.max-error-rate:0.01}")
+    private double maxErrorRate;
+
+    @Value("${system.loadtest.baseline-path:}")
+    private String baselinePath;
+
+    @Value("${system.loadtest.max-regression:0.2}")
+    private double maxRegression;
+
+    @Value("${system.loadtest.report-path:./data/loadtest-report.properties}")
+    private String reportPath;
+
+    @Value("${system.loadtest.exit-on-finish:true}")
+    private boolean exitOnFinish;
+
+    private RestTemplate restTemplate;
+    private String baseUrl;
+    private final Map<String, LatencyHistogram> histograms = new LinkedHashMap<>();
+    private final AtomicLong importSequence = new AtomicLong();
+
+    // 各角色的账号和令牌
+    private List<String> studentUsernames;
+    private List<String> studentTokens;
+    private List<String> supervisorTokens;
+    private String secretaryToken;
+    private String auditorToken;
+    private List<String[]> importMajors;
+    private List<String> importSupervisors;
+
+    @Override
+    public void run(String... args) throws Exception {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(5000);
+        requestFactory.setReadTimeout(60000);
+        restTemplate = new RestTemplate(requestFactory);
+        baseUrl = "http://localhost:" + environment.getProperty("local.server.port", "8080")
+                + environment.getProperty("server.servlet.context-path", "");
+
+        Map<String, Integer> weights = parseMix();
+        log.info("=========================================");
+        log.info("压测开始：{}，并发 {}，预热 {}s，持续 {}s，场景比例 {}",
+                baseUrl, concurrency, warmupSeconds, durationSeconds, weights);
+
+        prepareAccounts();
+        for (String scenario : weights.keySet()) {
+            histograms.put(scenario, new LatencyHistogram());
+        }
+
+        runLoad(weights);
+        boolean passed = report();
+        log.info("=========================================");
+
+        if (exitOnFinish) {
+            int code = passed ? 0 : 1;
+            System.exit(SpringApplication.exit(applicationContext, () -> code));
+        }
+    }
+
+    /**
+     * 准备各角色账号并提前登录获取令牌，登录场景之外的请求不计入登录耗时
+     */
+    private void prepareAccounts() {
+        studentUsernames = usernamesByRole("ROLE_STUDENT", studentAccounts);
+        List<String> supervisorUsernames = usernamesByRole("ROLE_TEACHER", supervisorAccounts);
+        if (studentUsernames.isEmpty() || supervisorUsernames.isEmpty()) {
+            throw new IllegalStateException("数据库中没有学生或导师账号，请先使用SyntheticDataGenerator生成数据");
+        }
+
+        // 秘书分配到第一个学生所在学院，导入文件使用该学院的专业
+        Long collegeId = jdbcTemplate.queryForObject(
+                "SELECT p.college_id FROM student_profiles p JOIN users u ON p.user_id = u.id WHERE u.username = ?",
+                Long.class, studentUsernames.get(0));
+        User secretary = ensureAccount(SECRETARY_USERNAME, "压测秘书", "ROLE_COLLEGE_SECRETARY");
+        userCollegeService.assign(secretary.getId(), collegeId, null);
+        ensureAccount(AUDITOR_USERNAME, "压测审计员", "ROLE_AUDIT_ADMIN");
+
+        importMajors = jdbcTemplate.query(
+                "SELECT c.name, m.name FROM majors m JOIN colleges c ON m.college_id = c.id WHERE c.id = ?",
+                (rs, rowNum) -> new String[] {rs.getString(1), rs.getString(2)}, collegeId);
+        importSupervisors = jdbcTemplate.queryForList(
+                "SELECT u.name FROM users u JOIN user_roles ur ON ur.user_id = u.id JOIN roles r ON r.id = ur.role_id " +
+                "WHERE r.name = 'ROLE_TEACHER' ORDER BY u.id LIMIT 50", String.class);
+
+        studentTokens = login(studentUsernames);
+        supervisorTokens = login(supervisorUsernames);
+        secretaryToken = login(SECRETARY_USERNAME);
+        auditorToken = login(AUDITOR_USERNAME);
+        log.info("已登录学生 {} 个、导师 {} 个、秘书和审计员各1个", studentTokens.size(), supervisorTokens.size());
+    }
+
+    private List<String> usernamesByRole(String role, int limit) {
+        return jdbcTemplate.queryForList(
+                "SELECT u.username FROM users u JOIN user_roles ur ON ur.user_id = u.id JOIN roles r ON r.id = ur.role_id " +
+                "WHERE r.name = ? AND u.enabled = TRUE ORDER BY u.id LIMIT ?", String.class, role, limit);
+    }
+
+    /**
+     * 创建或重置压测专用账号，每次运行都重置密码和锁定状态
+     */
+    private User ensureAccount(String username, String name, String roleName) {
+        Role role = roleRepository.findByName(roleName)
+                .orElseThrow(() -> new RuntimeException("角色不存在: " + roleName));
+        User user = userRepository.findByUsername(username).orElseGet(User::new);
+        user.setUsername(username);
+        user.setName(name);
+        user.setPassword(passwordEncoder.encode(password));
+        user.setEnabled(true);
+        user.setAccountNonLocked(true);
+        user.setLoginAttempts(0);
+        user.setFirstLogin(false);
+        user.setLastPasswordChangeTime(LocalDateTime.now());
+        user.getRoles().add(role);
+        return userRepository.save(user);
+    }
+
+    private List<String> login(List<String> usernames) {
+        List<String> tokens = new ArrayList<>(usernames.size());
+        for (String username : usernames) {
+            tokens.add(login(username));
+        }
+        return tokens;
+    }
+
+    @SuppressWarnings("unchecked")
+    private String login(String username) {
+        Map<String, Object> body = post("/api/auth/login", null, loginBody(username));
+        if (!Boolean.TRUE.equals(body.get("success"))) {
+            throw new IllegalStateException("账号 " + username + " 登录失败: " + body.get("message"));
+        }
+        return (String) ((Map<String, Object>) body.get("data")).get("token");
+    }
+
+    private Map<String, String> loginBody(String username) {
+        Map<String, String> body = new HashMap<>();
+        body.put("username", username);
+        body.put("password", password);
+        return body;
+    }
+
+    /**
+     * 以固定并发循环执行按比例抽取的场景，预热阶段的请求不计入统计
+     */
+    private void runLoad(Map<String, Integer> weights) throws Exception {
+        List<String> scenarios = new ArrayList<>(weights.keySet());
+        int[] cumulative = new int[scenarios.size()];
+        int total = 0;
+        for (int i = 0; i < scenarios.size(); i++) {
+            total += weights.get(scenarios.get(i));
+            cumulative[i] = total;
+        }
+        int totalWeight = total;
+
+        long now = System.nanoTime();
+        long measureFrom = now + warmupSeconds * 1_000_000_000L;
+        long deadline = measureFrom + durationSeconds * 1_000_000_000L;
+
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        try {
+            List<Future<?>> futures = new ArrayList<>(concurrency);
+            for (int w = 0; w < concurrency; w++) {
+                futures.add(executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < deadline) {
+                        int roll = random.nextInt(totalWeight);
+                        int pick = 0;
+                        while (cumulative[pick] <= roll) {
+                            pick++;
+                        }
+                        String scenario = scenarios.get(pick);
+
+                        long begin = System.nanoTime();
+                        boolean success = execute(scenario, random);
+                        long end = System.nanoTime();
+                        if (begin >= measureFrom && end <= deadline) {
+                            histograms.get(scenario).record(end - begin, success);
+                        }
+                        if (thinkTimeMillis > 0) {
+                            Thread.sleep(thinkTimeMillis);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private boolean execute(String scenario, ThreadLocalRandom random) {
+        try {
+            Map<String, Object> body;
+            switch (scenario) {
+                case "student-self":
+                    body = get("/api/student-profiles/my-profile", pick(studentTokens, random));
+                    break;
+                case "secretary-list":
+                    body = get("/api/student-profiles?page=" + random.nextInt(20) + "&size=20", secretaryToken);
+                    break;
+                case "secretary-search":
+                    body = get("/api/student-profiles?size=20&keyword="
+                            + SEARCH_KEYWORDS[random.nextInt(SEARCH_KEYWORDS.length)], secretaryToken);
+                    break;
+                case "supervisor-roster":
+                    body = get("/api/supervisors/students", pick(supervisorTokens, random));
+                    break;
+                case "audit-search":
+                    body = get("/api/system-logs/search?size=20&keyword="
+                            + LOG_KEYWORDS[random.nextInt(LOG_KEYWORDS.length)], auditorToken);
+                    break;
+                case "login":
+                    body = post("/api/auth/login", null, loginBody(pick(studentUsernames, random)));
+                    break;
+                case "import":
+                    body = postImport(random);
+                    break;
+                default:
+                    throw new IllegalArgumentException("未知的压测场景: " + scenario);
+            }
+            return body != null && Boolean.TRUE.equals(body.get("success"));
+        } catch (RestClientException | IOException e) {
+            return false;
+        }
+    }
+
+    private Map<String, Object> get(String path, String token) {
+        ResponseEntity<Map<String, Object>> response = restTemplate.exchange(baseUrl + path, HttpMethod.GET,
+                new HttpEntity<>(authHeaders(token)), JSON_MAP);
+        return response.getBody();
+    }
+
+    private Map<String, Object> post(String path, String token, Object body) {
+        HttpHeaders headers = authHeaders(token);
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        ResponseEntity<Map<String, Object>> response = restTemplate.exchange(baseUrl + path, HttpMethod.POST,
+                new HttpEntity<>(body, headers), JSON_MAP);
+        return response.getBody();
+    }
+
+    /**
+     * 上传小批量导入文件，身份证号出生日期在1980年代，不与生成器的数据冲突
+     */
+    private Map<String, Object> postImport(ThreadLocalRandom random) throws IOException {
+        byte[] content = buildImportFile(random);
+        MultiValueMap<String, Object> form = new LinkedMultiValueMap<>();
+        form.add("file", new ByteArrayResource(content) {
+            @Override
+            public String getFilename() {
+                return "loadtest-import.xlsx";
+            }
+        });
+        HttpHeaders headers = authHeaders(secretaryToken);
+        headers.setContentType(MediaType.MULTIPART_FORM_DATA);
+        ResponseEntity<Map<String, Object>> response = restTemplate.exchange(baseUrl + "/api/student-profiles/import",
+                HttpMethod.POST, new HttpEntity<>(form, headers), JSON_MAP);
+        return response.getBody();
+    }
+
+    private byte[] buildImportFile(ThreadLocalRandom random) throws IOException {
+        try (XSSFWorkbook workbook = new XSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            Sheet sheet = workbook.createSheet("学生学籍");
+            String[] headers = {"姓名", "性别", "身份证号", "学院", "专业", "学位类型", "导师", "入学时间"};
+            Row header = sheet.createRow(0);
+            for (int i = 0; i < headers.length; i++) {
+                header.createCell(i).setCellValue(headers[i]);
+            }
+            for (int i = 0; i < importRows; i++) {
+                long index = importSequence.getAndIncrement();
+                String[] major = importMajors.get(random.nextInt(importMajors.size()));
+                String[] values = {
+                        "压测" + index, random.nextBoolean() ? "男" : "女",
+                        SyntheticDataGenerator.idNumber("110101", LocalDate.of(1980, 1, 1).plusDays(index % 3650), index / 3650),
+                        major[0], major[1], "硕士", pick(importSupervisors, random),
+                        LocalDate.now().withMonth(9).withDayOfMonth(1).toString()
+                };
+                Row row = sheet.createRow(i + 1);
+                for (int c = 0; c < values.length; c++) {
+                    row.createCell(c).setCellValue(values[c]);
+                }
+            }
+            workbook.write(out);
+            return out.toByteArray();
+        }
+    }
+
+    private HttpHeaders authHeaders(String token) {
+        HttpHeaders headers = new HttpHeaders();
+        if (token != null) {
+            headers.setBearerAuth(token);
+        }
+        return headers;
+    }
+
+    private <T> T pick(List<T> values, ThreadLocalRandom random) {
+        return values.get(random.nextInt(values.size()));
+    }
+
+    /**
+     * 输出各场景统计，写入报告文件并与基线比较
+     *
+     * @return 是否通过
+     */
+    private boolean report() throws IOException {
+        Properties baseline = loadBaseline();
+        Properties current = new Properties();
+        List<String> failures = new ArrayList<>();
+
+        log.info(String.format("%-18s %8s %6s %9s %8s %8s %8s %8s %8s",
+                "场景", "请求数", "失败", "吞吐/s", "平均ms", "p50", "p90", "p99", "最大"));
+        for (Map.Entry<String, LatencyHistogram> entry : histograms.entrySet()) {
+            String scenario = entry.getKey();
+            LatencyHistogram h = entry.getValue();
+            double p99 = h.percentileMillis(0.99);
+            log.info(String.format("%-18s %8d %6d %9.1f %8.1f %8.1f %8.1f %8.1f %8.1f",
+                    scenario, h.getCount(), h.getErrors(), (double) h.getCount() / durationSeconds,
+                    h.getMeanMillis(), h.percentileMillis(0.50), h.percentileMillis(0.90), p99, h.getMaxMillis()));
+            log.info("  延迟分布 {}", distribution(h));
+
+            current.setProperty(scenario + ".count", String.valueOf(h.getCount()));
+            current.setProperty(scenario + ".errors", String.valueOf(h.getErrors()));
+            current.setProperty(scenario + ".p99", String.format("%.1f", p99));
+
+            if (h.getCount() == 0) {
+                continue;
+            }
+            if (p99 > p99ThresholdMillis) {
+                failures.add(String.format("%s p99 %.1fms 超过阈值 %dms", scenario, p99, p99ThresholdMillis));
+            }
+            String baselineP99 = baseline.getProperty(scenario + ".p99");
+            if (baselineP99 != null && p99 > Double.parseDouble(baselineP99) * (1 + maxRegression)) {
+                failures.add(String.format("%s p99 %.1fms 相对基线 %sms 回退超过 %.0f%%",
+                        scenario, p99, baselineP99, maxRegression * 100));
+            }
+            double errorRate = (double) h.getErrors() / h.getCount();
+            if (errorRate > maxErrorRate) {
+                failures.add(String.format("%s 失败率 %.2f%% 超过 %.2f%%", scenario, errorRate * 100, maxErrorRate * 100));
+            }
+        }
+
+        writeReport(current);
+        if (failures.isEmpty()) {
+            log.info("压测通过，报告已写入 {}", reportPath);
+            return true;
+        }
+        for (String failure : failures) {
+            log.error("压测未通过：{}", failure);
+        }
+        return false;
+    }
+
+    private String distribution(LatencyHistogram h) {
+        if (h.getCount() == 0) {
+            return "无数据";
+        }
+        StringBuilder sb = new StringBuilder();
+        long previous = 0;
+        for (long bound : HISTOGRAM_BOUNDS_MS) {
+            long atOrBelow = h.countAtOrBelow(bound);
+            sb.append(String.format("≤%dms:%.1f%% ", bound, (atOrBelow - previous) * 100.0 / h.getCount()));
+            previous = atOrBelow;
+        }
+        sb.append(String.format(">%dms:%.1f%%", HISTOGRAM_BOUNDS_MS[HISTOGRAM_BOUNDS_MS.length - 1],
+                (h.getCount() - previous) * 100.0 / h.getCount()));
+        return sb.toString();
+    }
+
+    private Properties loadBaseline() throws IOException {
+        Properties baseline = new Properties();
+        if (baselinePath.isEmpty()) {
+            return baseline;
+        }
+        Path path = Paths.get(baselinePath);
+        if (!Files.exists(path)) {
+            log.warn("基线文件不存在，跳过回退检查: {}", path.toAbsolutePath());
+            return baseline;
+        }
+        try (InputStream in = Files.newInputStream(path)) {
+            baseline.load(in);
+        }
+        return baseline;
+    }
+
+    private void writeReport(Properties current) throws IOException {
+        Path path = Paths.get(reportPath);
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        try (OutputStream out = Files.newOutputStream(path)) {
+            current.store(out, "SIMS load test, concurrency=" + concurrency + ", duration=" + durationSeconds + "s");
+        }
+    }
+
+    /**
+     * 解析场景比例，格式：场景=权重,场景=权重
+     */
+    private Map<String, Integer> parseMix() {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String part : mix.split(",")) {
+            String[] pair = part.trim().split("=");
+            if (pair.length != 2 || !SCENARIOS.contains(pair[0].trim())) {
+                throw new IllegalArgumentException("未知的压测场景: " + part + "，可选场景: " + SCENARIOS);
+            }
+            if (Integer.parseInt(pair[1].trim()) > 0) {
+                weights.put(pair[0].trim(), Integer.parseInt(pair[1].trim()));
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("压测场景比例配置无效: " + mix);
+        }
+        return Collections.unmodifiableMap(weights);
+    }
+}
@@ -0,0 +1,133 @@
+package com.graduate.management.util;
+
+import com.graduate.management.security.SM3PasswordEncoder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 密码哈希迭代次数评估工具
+ * 在峰值并发下模拟登录时的密码校验，统计各迭代次数的p50/p99耗时，
+ * 并给出满足目标p99的最大迭代次数，用于配置system.password.hash-iterations
+ *
+ * 启用方式：--system.password.benchmark.enabled=true
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "system.password.benchmark.enabled", havingValue = "true")
+public class PasswordHashBenchmark implements CommandLineRunner {
+
+    private static final String SAMPLE_PASSWORD = "Bench@2024pwd";
+
+    private final SM3Util sm3Util;
+
+    @Value("${system.password.benchmark.costs:1000,5000,10000,20000,50000}")
+    private String costs;
+
+    @Value("${system.password.benchmark.concurrency:32}")
+    private int concurrency;
+
+    @Value("${system.password.benchmark.requests:2000}")
+    private int requests;
+
+    @Value("${system.password.benchmark.target-p99-ms:200}")
+    private long targetP99Millis;
+
+    @Override
+    public void run(String... args) throws Exception {
+        int[] candidates = Arrays.stream(costs.split(","))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .mapToInt(Integer::parseInt)
+                .sorted()
+                .toArray();
+
+        log.info("=========================================");
+        log.info("密码哈希基准测试：并发 {}，每档请求 {}，目标p99 {}ms", concurrency, requests, targetP99Millis);
+
+        int recommended = -1;
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        try {
+            for (int cost : candidates) {
+                long[] latencies = measure(executor, new SM3PasswordEncoder(sm3Util, cost));
+                long p50 = percentile(latencies, 0.50);
+                long p99 = percentile(latencies, 0.99);
+                log.info("迭代次数 {}: p50 {}ms, p99 {}ms, 最大 {}ms",
+                        cost, toMillis(p50), toMillis(p99), toMillis(latencies[latencies.length - 1]));
+                if (toMillis(p99) <= targetP99Millis) {
+                    recommended = cost;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        if (recommended > 0) {
+            log.info("建议配置 system.password.hash-iterations: {}", recommended);
+        } else {
+            log.warn("所有候选迭代次数的p99均超过目标 {}ms，请降低迭代次数或增加服务器资源", targetP99Millis);
+        }
+        log.info("=========================================");
+    }
+
+    /**
+     * 以固定并发执行密码校验，返回排序后的单次耗时（纳秒）
+     */
+    private long[] measure(ExecutorService executor, SM3PasswordEncoder encoder) throws Exception {
+        String encoded = encoder.encode(SAMPLE_PASSWORD);
+
+        // 预热，避免JIT编译影响统计
+        for (int i = 0; i < 20; i++) {
+            encoder.matches(SAMPLE_PASSWORD, encoded);
+        }
+
+        long[] latencies = new long[requests];
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>(concurrency);
+        int perWorker = (requests + concurrency - 1) / concurrency;
+
+        for (int w = 0; w < concurrency; w++) {
+            int from = w * perWorker;
+            int to = Math.min(requests, from + perWorker);
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = from; i < to; i++) {
+                    long begin = System.nanoTime();
+                    encoder.matches(SAMPLE_PASSWORD, encoded);
+                    latencies[i] = System.nanoTime() - begin;
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+
+        Arrays.sort(latencies);
+        return latencies;
+    }
+
+    private long percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    private long toMillis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+}
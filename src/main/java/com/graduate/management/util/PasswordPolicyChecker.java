@@ -1,5 +1,6 @@
 package com.graduate.management.util;
 
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
@@ -7,14 +8,23 @@ import java.util.regex.Pattern;
 
 /**
  * 密码策略检查器
- * 实现密码复杂度要求：长度8位以上，包含数字、大小字母、特殊字符等混合组合
+ * 实现密码复杂度要求：长度8位以上，包含数字、大小字母、特殊字符等混合组合，
+ * 并通过弱密码过滤器排除常见密码
  */
 @Component
+@RequiredArgsConstructor
 public class PasswordPolicyChecker {
-    
+
+    private static final Pattern DIGIT = Pattern.compile("[0-9]");
+    private static final Pattern LOWER = Pattern.compile("[a-z]");
+    private static final Pattern UPPER = Pattern.compile("[A-Z]");
+    private static final Pattern SPECIAL = Pattern.compile("[!@#$%^&*()_+\\-=\\[\\]{};':\"\\\\|,.<>/?]");
+
+    private final WeakPasswordFilter weakPasswordFilter;
+
     @Value("${system.password.min-length:8}")
     private int minLength;
-    
+
     /**
      * 检查密码是否符合密码策略
      *
@@ -25,23 +35,24 @@ public class PasswordPolicyChecker {
         if (password == null || password.length() < minLength) {
             return false;
         }
-        
-        // 检查是否包含数字
-        boolean hasDigit = Pattern.compile("[0-9]").matcher(password).find();
-        
-        // 检查是否包含小写字母
-        boolean hasLower = Pattern.compile("[a-z]").matcher(password).find();
-        
-        // 检查是否包含大写字母
-        boolean hasUpper = Pattern.compile("[A-Z]").matcher(password).find();
-        
-        // 检查是否包含特殊字符
-        boolean hasSpecial = Pattern.compile("[!@#$%^&*()_+\\-=\\[\\]{};':\"\\\\|,.<>/?]")
-                .matcher(password).find();
-        
-        return hasDigit && hasLower && hasUpper && hasSpecial;
+
+        // 检查是否包含数字、小写字母、大写字母和特殊字符
+        return DIGIT.matcher(password).find()
+                && LOWER.matcher(password).find()
+                && UPPER.matcher(password).find()
+                && SPECIAL.matcher(password).find();
+    }
+
+    /**
+     * 检查密码是否为常见弱密码（不区分大小写）
+     *
+     * @param password 密码
+     * @return 是否为常见弱密码
+     */
+    public boolean isCommon(String password) {
+        return weakPasswordFilter.mightContain(password);
     }
-    
+
     /**
      * 获取密码策略描述
      *
@@ -1,50 +1,131 @@
 package com.graduate.management.util;
 
+import lombok.extern.slf4j.Slf4j;
+import org.bouncycastle.crypto.InvalidCipherTextException;
+import org.bouncycastle.crypto.digests.SM3Digest;
+import org.bouncycastle.crypto.engines.SM2Engine;
+import org.bouncycastle.crypto.generators.PKCS5S2ParametersGenerator;
+import org.bouncycastle.crypto.params.ECPrivateKeyParameters;
+import org.bouncycastle.crypto.params.ECPublicKeyParameters;
+import org.bouncycastle.crypto.params.KeyParameter;
+import org.bouncycastle.crypto.params.ParametersWithRandom;
+import org.bouncycastle.crypto.util.PrivateKeyFactory;
+import org.bouncycastle.crypto.util.PublicKeyFactory;
 import org.bouncycastle.jce.provider.BouncyCastleProvider;
 import org.bouncycastle.util.encoders.Base64;
+import org.bouncycastle.util.encoders.Hex;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.PostConstruct;
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFilePermissions;
 import java.security.KeyPair;
 import java.security.KeyPairGenerator;
 import java.security.SecureRandom;
 import java.security.Security;
 import java.security.spec.ECGenParameterSpec;
+import java.util.Arrays;
+import java.util.Properties;
 
 /**
  * SM2国密算法工具类
- * 用于高敏感信息的非对称加密
+ * 用于高敏感信息和数据密钥的非对称加密，密文格式为C1C3C2。
+ * 密钥对保存在密钥库文件中，私钥以口令派生的SM4密钥（PBKDF2-HMAC-SM3）加密存储。
+ * 多节点部署时所有节点必须加载同一个密钥库（由运维统一生成后分发或放在共享存储上），
+ * 否则一个节点加密的数据密钥其他节点无法解开；密钥库不存在时默认拒绝启动，
+ * 只在首次部署时通过system.sm2.create-if-missing=true在单个节点上生成一次。
+ * 口令从环境变量SIMS_SM2_KEYSTORE_PASSWORD读取，不在配置文件中保存。
  */
+@Slf4j
 @Component
 public class SM2Util {
-    
-    private KeyPair keyPair;
-    
+
+    private static final String CURVE = "sm2p256v1";
+    private static final String KEY_WRAP_TRANSFORMATION = "SM4/CBC/PKCS5Padding";
+    private static final int KEY_WRAP_ITERATIONS = 10000;
+
+    @Value("${system.sm2.keystore:./keys/sm2-keystore.properties}")
+    private String keystorePath;
+
+    @Value("${system.sm2.keystore-password}")
+    private String keystorePassword;
+
+    @Value("${system.sm2.create-if-missing:false}")
+    private boolean createIfMissing;
+
+    private final SecureRandom random = new SecureRandom();
+
+    private ECPublicKeyParameters publicKey;
+    private ECPrivateKeyParameters privateKey;
+    private String publicKeyFingerprint;
+
     @PostConstruct
     public void init() {
+        if (keystorePassword == null || keystorePassword.isEmpty()) {
+            throw new IllegalStateException("未配置SM2密钥库口令，请设置环境变量SIMS_SM2_KEYSTORE_PASSWORD");
+        }
+        Security.addProvider(new BouncyCastleProvider());
+        Path path = Paths.get(keystorePath);
         try {
-            Security.addProvider(new BouncyCastleProvider());
-            generateKeyPair();
+            if (Files.exists(path)) {
+                loadKeystore(path);
+                log.info("已加载SM2密钥库: {}", path.toAbsolutePath());
+            } else if (createIfMissing) {
+                createKeystore(path);
+                log.warn("SM2密钥库不存在，已生成新的密钥对: {}，请妥善备份该文件", path.toAbsolutePath());
+            } else {
+                throw new IllegalStateException("SM2密钥库不存在: " + path.toAbsolutePath()
+                        + "，请将集群共用的密钥库部署到该路径（首次部署可在单个节点以--system.sm2.create-if-missing=true生成）");
+            }
+        } catch (RuntimeException e) {
+            throw e;
         } catch (Exception e) {
             throw new RuntimeException("初始化SM2工具类失败", e);
         }
     }
-    
+
     /**
-     * 生成SM2密钥对
+     * SM2加密
+     *
+     * @param data 明文
+     * @return 密文（C1C3C2）
      */
-    public void generateKeyPair() {
+    public byte[] encrypt(byte[] data) {
         try {
-            // 使用较新的API生成密钥对
-            KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("EC", "BC");
-            keyPairGenerator.initialize(new ECGenParameterSpec("sm2p256v1"), new SecureRandom());
-            keyPair = keyPairGenerator.generateKeyPair();
-        } catch (Exception e) {
-            throw new RuntimeException("生成SM2密钥对失败", e);
+            SM2Engine engine = new SM2Engine(SM2Engine.Mode.C1C3C2);
+            engine.init(true, new ParametersWithRandom(publicKey, random));
+            return engine.processBlock(data, 0, data.length);
+        } catch (InvalidCipherTextException e) {
+            throw new RuntimeException("SM2加密失败", e);
+        }
+    }
+
+    /**
+     * SM2解密
+     *
+     * @param ciphertext 密文（C1C3C2）
+     * @return 明文
+     */
+    public byte[] decrypt(byte[] ciphertext) {
+        try {
+            SM2Engine engine = new SM2Engine(SM2Engine.Mode.C1C3C2);
+            engine.init(false, privateKey);
+            return engine.processBlock(ciphertext, 0, ciphertext.length);
+        } catch (InvalidCipherTextException e) {
+            throw new RuntimeException("SM2解密失败", e);
         }
     }
-    
+
     /**
      * SM2加密
      *
@@ -55,21 +136,10 @@ public class SM2Util {
         if (plaintext == null || plaintext.isEmpty()) {
             return plaintext;
         }
-        
-        try {
-            byte[] data = plaintext.getBytes(StandardCharsets.UTF_8);
-            
-            // 这里简化实现，实际应使用完整的SM2加密算法
-            // 在生产环境中应该使用更完善的SM2实现
-            
-            // 模拟SM2加密，返回Base64编码的结果
-            byte[] encrypted = Base64.encode(data);
-            return new String(encrypted, StandardCharsets.UTF_8);
-        } catch (Exception e) {
-            throw new RuntimeException("SM2加密失败", e);
-        }
+        byte[] encrypted = encrypt(plaintext.getBytes(StandardCharsets.UTF_8));
+        return new String(Base64.encode(encrypted), StandardCharsets.UTF_8);
     }
-    
+
     /**
      * SM2解密
      *
@@ -80,16 +150,111 @@ public class SM2Util {
         if (ciphertext == null || ciphertext.isEmpty()) {
             return ciphertext;
         }
-        
+        return new String(decrypt(Base64.decode(ciphertext)), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 从密钥库文件加载密钥对，并用一次加解密校验口令是否正确
+     */
+    private void loadKeystore(Path path) throws Exception {
+        Properties props = new Properties();
+        try (InputStream in = Files.newInputStream(path)) {
+            props.load(in);
+        }
+
+        byte[] salt = Base64.decode(props.getProperty("salt"));
+        byte[] iv = Base64.decode(props.getProperty("iv"));
+        int iterations = Integer.parseInt(props.getProperty("iterations", String.valueOf(KEY_WRAP_ITERATIONS)));
+
+        byte[] pkcs8;
         try {
-            // 这里简化实现，实际应使用完整的SM2解密算法
-            // 在生产环境中应该使用更完善的SM2实现
-            
-            // 模拟SM2解密，解析Base64编码
-            byte[] decoded = Base64.decode(ciphertext);
-            return new String(decoded, StandardCharsets.UTF_8);
+            pkcs8 = wrapCipher(Cipher.DECRYPT_MODE, salt, iv, iterations)
+                    .doFinal(Base64.decode(props.getProperty("privateKey")));
         } catch (Exception e) {
-            throw new RuntimeException("SM2解密失败", e);
+            throw new IllegalStateException("SM2密钥库口令错误或文件已损坏: " + path.toAbsolutePath(), e);
+        }
+
+        byte[] encodedPublicKey = Base64.decode(props.getProperty("publicKey"));
+        publicKey = (ECPublicKeyParameters) PublicKeyFactory.createKey(encodedPublicKey);
+        privateKey = (ECPrivateKeyParameters) PrivateKeyFactory.createKey(pkcs8);
+        publicKeyFingerprint = fingerprint(encodedPublicKey);
+        Arrays.fill(pkcs8, (byte) 0);
+
+        byte[] probe = new byte[16];
+        random.nextBytes(probe);
+        if (!Arrays.equals(probe, decrypt(encrypt(probe)))) {
+            throw new IllegalStateException("SM2密钥库中的公钥与私钥不匹配: " + path.toAbsolutePath());
+        }
+    }
+
+    /**
+     * 生成密钥对并写入密钥库文件（私钥加密存储，文件权限尽量限制为仅属主可读写）
+     */
+    private void createKeystore(Path path) throws Exception {
+        KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("EC", BouncyCastleProvider.PROVIDER_NAME);
+        keyPairGenerator.initialize(new ECGenParameterSpec(CURVE), random);
+        KeyPair keyPair = keyPairGenerator.generateKeyPair();
+
+        byte[] salt = new byte[16];
+        byte[] iv = new byte[16];
+        random.nextBytes(salt);
+        random.nextBytes(iv);
+        byte[] wrapped = wrapCipher(Cipher.ENCRYPT_MODE, salt, iv, KEY_WRAP_ITERATIONS)
+                .doFinal(keyPair.getPrivate().getEncoded());
+
+        Properties props = new Properties();
+        props.setProperty("curve", CURVE);
+        props.setProperty("iterations", String.valueOf(KEY_WRAP_ITERATIONS));
+        props.setProperty("salt", Base64.toBase64String(salt));
+        props.setProperty("iv", Base64.toBase64String(iv));
+        props.setProperty("publicKey", Base64.toBase64String(keyPair.getPublic().getEncoded()));
+        props.setProperty("privateKey", Base64.toBase64String(wrapped));
+
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
         }
+        try (OutputStream out = Files.newOutputStream(path)) {
+            props.store(out, "SIMS SM2 keystore");
+        }
+        try {
+            Files.setPosixFilePermissions(path, PosixFilePermissions.fromString("rw-------"));
+        } catch (UnsupportedOperationException | IOException e) {
+            log.warn("无法限制SM2密钥库文件权限: {}", e.getMessage());
+        }
+
+        publicKey = (ECPublicKeyParameters) PublicKeyFactory.createKey(keyPair.getPublic().getEncoded());
+        privateKey = (ECPrivateKeyParameters) PrivateKeyFactory.createKey(keyPair.getPrivate().getEncoded());
+        publicKeyFingerprint = fingerprint(keyPair.getPublic().getEncoded());
+    }
+
+    /**
+     * 公钥指纹（编码后公钥的SM3哈希），用于比对各节点加载的是否为同一密钥
+     *
+     * @return 十六进制指纹
+     */
+    public String getPublicKeyFingerprint() {
+        return publicKeyFingerprint;
+    }
+
+    private static String fingerprint(byte[] encodedPublicKey) {
+        SM3Digest digest = new SM3Digest();
+        digest.update(encodedPublicKey, 0, encodedPublicKey.length);
+        byte[] hash = new byte[digest.getDigestSize()];
+        digest.doFinal(hash, 0);
+        return Hex.toHexString(hash);
+    }
+
+    /**
+     * 由密钥库口令派生保护私钥的SM4密钥
+     */
+    private Cipher wrapCipher(int mode, byte[] salt, byte[] iv, int iterations) throws Exception {
+        PKCS5S2ParametersGenerator generator = new PKCS5S2ParametersGenerator(new SM3Digest());
+        generator.init(keystorePassword.getBytes(StandardCharsets.UTF_8), salt, iterations);
+        KeyParameter derived = (KeyParameter) generator.generateDerivedParameters(128);
+
+        Cipher cipher = Cipher.getInstance(KEY_WRAP_TRANSFORMATION, BouncyCastleProvider.PROVIDER_NAME);
+        cipher.init(mode, new SecretKeySpec(derived.getKey(), "SM4"), new IvParameterSpec(iv));
+        return cipher;
     }
 }
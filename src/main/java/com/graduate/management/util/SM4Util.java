@@ -14,37 +14,75 @@ import java.security.Key;
 import java.security.SecureRandom;
 import java.security.Security;
 import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * SM4国密算法工具类
  * 主要用于身份证号、联系电话、住址等敏感信息加密
+ *
+ * 支持多版本密钥轮换：版本0为system.sm4.key/iv配置的原始密钥，密文不带前缀；
+ * 版本1及以上在system.sm4.keys中配置，密文格式为"v{版本}:Base64(IV+密文)"，每次加密使用随机IV。
+ * 加密使用system.sm4.active-version指定的版本，解密按密文前缀选择密钥。
  */
 @Component
 public class SM4Util {
-    
+
+    private static final String TRANSFORMATION = "SM4/CBC/PKCS5Padding";
+    private static final int IV_LENGTH = 16;
+    private static final char VERSION_PREFIX = 'v';
+    private static final char SEPARATOR = ':';
+
     @Value("${system.sm4.key:a123456789012345}")
     private String keyString;
-    
+
     @Value("${system.sm4.iv:1234567890123456}")
     private String ivString;
-    
+
+    // 轮换密钥，格式为"版本:Base64密钥"，多个以逗号分隔，如：1:xxxx,2:yyyy
+    @Value("${system.sm4.keys:}")
+    private String keyring;
+
+    @Value("${system.sm4.active-version:0}")
+    private int activeVersion;
+
     private Key key;
     private IvParameterSpec iv;
-    
+    private final Map<Integer, Key> versionedKeys = new HashMap<>();
+    private final SecureRandom random = new SecureRandom();
+
     @PostConstruct
     public void init() {
         Security.addProvider(new BouncyCastleProvider());
         try {
             byte[] keyBytes = keyString.getBytes(StandardCharsets.UTF_8);
             byte[] ivBytes = ivString.getBytes(StandardCharsets.UTF_8);
-            
+
             key = new SecretKeySpec(keyBytes, "SM4");
             iv = new IvParameterSpec(ivBytes);
         } catch (Exception e) {
             throw new RuntimeException("SM4初始化失败", e);
         }
+
+        if (keyring != null && !keyring.trim().isEmpty()) {
+            for (String entry : keyring.split(",")) {
+                String[] parts = entry.trim().split(":", 2);
+                if (parts.length != 2) {
+                    throw new IllegalStateException("SM4轮换密钥配置格式错误: " + entry);
+                }
+                int version = Integer.parseInt(parts[0].trim());
+                byte[] keyBytes = Base64.getDecoder().decode(parts[1].trim());
+                if (version < 1 || keyBytes.length != 16) {
+                    throw new IllegalStateException("SM4轮换密钥v" + version + "无效，版本号需大于0且密钥长度为16字节");
+                }
+                versionedKeys.put(version, new SecretKeySpec(keyBytes, "SM4"));
+            }
+        }
+        if (activeVersion != 0 && !versionedKeys.containsKey(activeVersion)) {
+            throw new IllegalStateException("未配置当前使用的SM4密钥版本: v" + activeVersion);
+        }
     }
-    
+
     /**
      * 生成SM4密钥
      *
@@ -60,30 +98,42 @@ public class SM4Util {
             throw new RuntimeException("生成SM4密钥失败", e);
         }
     }
-    
+
     /**
-     * 加密
+     * 加密，使用当前版本的密钥
      *
      * @param plaintext 明文
-     * @return 密文的Base64编码
+     * @return 密文的Base64编码，非0版本带"v{版本}:"前缀
      */
     public String encrypt(String plaintext) {
         if (plaintext == null || plaintext.trim().isEmpty()) {
             return plaintext;
         }
-        
+
         try {
-            Cipher cipher = Cipher.getInstance("SM4/CBC/PKCS5Padding", BouncyCastleProvider.PROVIDER_NAME);
-            cipher.init(Cipher.ENCRYPT_MODE, key, iv);
+            Cipher cipher = Cipher.getInstance(TRANSFORMATION, BouncyCastleProvider.PROVIDER_NAME);
+            if (activeVersion == 0) {
+                cipher.init(Cipher.ENCRYPT_MODE, key, iv);
+                byte[] encrypted = cipher.doFinal(plaintext.getBytes(StandardCharsets.UTF_8));
+                return Base64.getEncoder().encodeToString(encrypted);
+            }
+
+            byte[] ivBytes = new byte[IV_LENGTH];
+            random.nextBytes(ivBytes);
+            cipher.init(Cipher.ENCRYPT_MODE, versionedKeys.get(activeVersion), new IvParameterSpec(ivBytes));
             byte[] encrypted = cipher.doFinal(plaintext.getBytes(StandardCharsets.UTF_8));
-            return Base64.getEncoder().encodeToString(encrypted);
+
+            byte[] payload = new byte[IV_LENGTH + encrypted.length];
+            System.arraycopy(ivBytes, 0, payload, 0, IV_LENGTH);
+            System.arraycopy(encrypted, 0, payload, IV_LENGTH, encrypted.length);
+            return String.valueOf(VERSION_PREFIX) + activeVersion + SEPARATOR + Base64.getEncoder().encodeToString(payload);
         } catch (Exception e) {
             throw new RuntimeException("SM4加密失败", e);
         }
     }
-    
+
     /**
-     * 解密
+     * 解密，按密文前缀选择对应版本的密钥
      *
      * @param ciphertext 密文的Base64编码
      * @return 明文
@@ -92,15 +142,91 @@ public class SM4Util {
         if (ciphertext == null || ciphertext.trim().isEmpty()) {
             return ciphertext;
         }
-        
+
+        int version = versionOf(ciphertext);
+        if (version < 0) {
+            throw new RuntimeException("SM4解密失败: 不是SM4密文");
+        }
+
         try {
-            Cipher cipher = Cipher.getInstance("SM4/CBC/PKCS5Padding", BouncyCastleProvider.PROVIDER_NAME);
-            cipher.init(Cipher.DECRYPT_MODE, key, iv);
-            byte[] encrypted = Base64.getDecoder().decode(ciphertext);
-            byte[] decrypted = cipher.doFinal(encrypted);
+            Cipher cipher = Cipher.getInstance(TRANSFORMATION, BouncyCastleProvider.PROVIDER_NAME);
+            if (version == 0) {
+                cipher.init(Cipher.DECRYPT_MODE, key, iv);
+                byte[] encrypted = Base64.getDecoder().decode(ciphertext);
+                byte[] decrypted = cipher.doFinal(encrypted);
+                return new String(decrypted, StandardCharsets.UTF_8);
+            }
+
+            Key versionKey = versionedKeys.get(version);
+            if (versionKey == null) {
+                throw new IllegalStateException("SM4密钥版本不存在: v" + version);
+            }
+            byte[] payload = Base64.getDecoder().decode(ciphertext.substring(ciphertext.indexOf(SEPARATOR) + 1));
+            cipher.init(Cipher.DECRYPT_MODE, versionKey, new IvParameterSpec(payload, 0, IV_LENGTH));
+            byte[] decrypted = cipher.doFinal(payload, IV_LENGTH, payload.length - IV_LENGTH);
             return new String(decrypted, StandardCharsets.UTF_8);
         } catch (Exception e) {
             throw new RuntimeException("SM4解密失败", e);
         }
     }
+
+    /**
+     * 当前加密使用的密钥版本
+     */
+    public int getActiveVersion() {
+        return activeVersion;
+    }
+
+    /**
+     * 密文使用的密钥版本
+     *
+     * @param ciphertext 密文
+     * @return 版本号，无前缀为0，不是SM4密文（如信封加密的密文）返回-1
+     */
+    public static int versionOf(String ciphertext) {
+        int separator = ciphertext.indexOf(SEPARATOR);
+        if (separator < 0) {
+            return 0;
+        }
+        if (separator < 2 || ciphertext.charAt(0) != VERSION_PREFIX) {
+            return -1;
+        }
+        for (int i = 1; i < separator; i++) {
+            if (!Character.isDigit(ciphertext.charAt(i))) {
+                return -1;
+            }
+        }
+        return Integer.parseInt(ciphertext.substring(1, separator));
+    }
+
+    /**
+     * 判断密文是否为SM4加密（含旧的无前缀格式）
+     */
+    public static boolean isSm4Ciphertext(String ciphertext) {
+        return versionOf(ciphertext) >= 0;
+    }
+
+    /**
+     * 判断密文是否需要轮换到当前版本的密钥
+     *
+     * @param ciphertext 密文
+     * @return 是SM4密文且版本不是当前版本时返回true
+     */
+    public boolean needsRotation(String ciphertext) {
+        if (ciphertext == null || ciphertext.trim().isEmpty()) {
+            return false;
+        }
+        int version = versionOf(ciphertext);
+        return version >= 0 && version != activeVersion;
+    }
+
+    /**
+     * 用当前版本的密钥重新加密
+     *
+     * @param ciphertext 旧版本的密文
+     * @return 当前版本的密文，无需轮换时原样返回
+     */
+    public String rotate(String ciphertext) {
+        return needsRotation(ciphertext) ? encrypt(decrypt(ciphertext)) : ciphertext;
+    }
 }
@@ -0,0 +1,115 @@
+package com.graduate.management.util;
+
+import com.graduate.management.entity.StudentPhoto;
+import com.graduate.management.repository.StudentPhotoRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bouncycastle.util.encoders.Hex;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.List;
+
+/**
+ * 学生照片迁移工具
+ * 旧版本将照片原图保存在student_profiles.photo列中，查询学籍信息时会一并读取。
+ * 启动时将该列中的照片移到student_photos表，补齐照片摘要后清空原列，每批一个事务；
+ * 新建的数据库没有该列，迁移完成后每次启动只执行一次空查询
+ *
+ * 关闭方式：--system.photo.migrate=false
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "system.photo.migrate", havingValue = "true", matchIfMissing = true)
+public class StudentPhotoMigration implements CommandLineRunner {
+
+    private static final int BATCH_SIZE = 50; // 照片较大，每批只处理少量记录
+    private static final String DEFAULT_CONTENT_TYPE = "image/jpeg";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final StudentPhotoRepository studentPhotoRepository;
+    private final SM3Util sm3Util;
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    public void run(String... args) {
+        if (!hasColumn("photo")) {
+            return;
+        }
+        // photo_content_type列只在部分旧版本中存在
+        String contentTypeColumn = hasColumn("photo_content_type") ? "photo_content_type" : "NULL";
+        String selectSql = "SELECT id, photo, photo_hash, " + contentTypeColumn + " AS content_type "
+                + "FROM student_profiles WHERE photo IS NOT NULL AND id > ? ORDER BY id LIMIT " + BATCH_SIZE;
+
+        long afterId = 0;
+        int total = 0;
+        while (true) {
+            List<LegacyPhoto> rows = jdbcTemplate.query(selectSql, (rs, rowNum) -> new LegacyPhoto(
+                    rs.getLong("id"), rs.getBytes("photo"), rs.getString("photo_hash"), rs.getString("content_type")),
+                    afterId);
+            if (rows.isEmpty()) {
+                break;
+            }
+
+            transactionTemplate.executeWithoutResult(status -> rows.forEach(this::migrate));
+            total += rows.size();
+            afterId = rows.get(rows.size() - 1).id;
+        }
+
+        if (total > 0) {
+            log.info("学生照片迁移完成，共{}条", total);
+        }
+    }
+
+    private void migrate(LegacyPhoto row) {
+        // 新版本上传过照片的记录以student_photos中的为准
+        if (!studentPhotoRepository.findByStudentProfileId(row.id).isPresent()) {
+            StudentPhoto photo = new StudentPhoto();
+            photo.setStudentProfileId(row.id);
+            photo.setData(row.data);
+            photo.setContentType(row.contentType != null ? row.contentType : DEFAULT_CONTENT_TYPE);
+            studentPhotoRepository.save(photo);
+        }
+        String hash = row.hash != null ? row.hash : Hex.toHexString(sm3Util.hash(row.data));
+        jdbcTemplate.update("UPDATE student_profiles SET photo = NULL, photo_hash = ? WHERE id = ?", hash, row.id);
+    }
+
+    private boolean hasColumn(String column) {
+        Boolean exists = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            // MySQL保留小写表名，H2默认转为大写
+            for (String table : new String[] {"student_profiles", "STUDENT_PROFILES"}) {
+                for (String name : new String[] {column, column.toUpperCase()}) {
+                    try (ResultSet rs = metaData.getColumns(connection.getCatalog(), null, table, name)) {
+                        if (rs.next()) {
+                            return true;
+                        }
+                    }
+                }
+            }
+            return false;
+        });
+        return Boolean.TRUE.equals(exists);
+    }
+
+    private static final class LegacyPhoto {
+        private final long id;
+        private final byte[] data;
+        private final String hash;
+        private final String contentType;
+
+        private LegacyPhoto(long id, byte[] data, String hash, String contentType) {
+            this.id = id;
+            this.data = data;
+            this.hash = hash;
+            this.contentType = contentType;
+        }
+    }
+}
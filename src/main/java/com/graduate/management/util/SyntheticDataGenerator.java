@@ -0,0 +1,548 @@
+package com.graduate.management.util;
+
+import com.graduate.management.entity.Role;
+import com.graduate.management.entity.SystemLog;
+import com.graduate.management.entity.User;
+import com.graduate.management.repository.RoleRepository;
+import com.graduate.management.service.PendingChangeRequestCounter;
+import com.graduate.management.service.SystemLogService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 大规模测试数据生成工具
+ * 按固定种子生成学院、专业、导师、学生、变更申请和系统日志，相同参数和种子生成的数据完全一致。
+ * 敏感字段使用SM4加密、身份证号生成盲索引、日志计算HMAC，与系统写入的数据格式相同；
+ * 数据通过JDBC批量插入写入（MySQL需开启rewriteBatchedStatements，也可配合h2配置文件使用内嵌数据库）。
+ * 所有生成账号共用同一个密码哈希，避免逐个计算PBKDF2耗费数小时。
+ * 也可生成任意行数的学籍导入Excel文件，学院、专业和导师取自数据库中已有的数据。
+ *
+ * 启用方式：--system.datagen.enabled=true [--spring.profiles.active=h2，需以Maven的h2配置(-Ph2)构建]
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "system.datagen.enabled", havingValue = "true")
+public class SyntheticDataGenerator implements CommandLineRunner {
+
+    private static final String[] SURNAMES = {
+            "王", "李", "张", "刘", "陈", "杨", "黄", "赵", "吴", "周", "徐", "孙", "马", "朱", "胡",
+            "郭", "何", "高", "林", "罗", "郑", "梁", "谢", "宋", "唐", "许", "韩", "冯", "邓", "曹"
+    };
+    private static final String[] GIVEN_NAMES = {
+            "伟", "芳", "娜", "敏", "静", "丽", "强", "磊", "军", "洋", "勇", "艳", "杰", "娟", "涛",
+            "明", "超", "秀英", "霞", "平", "刚", "桂英", "华", "鹏", "宇", "浩", "欣", "晨", "子涵", "思远"
+    };
+    private static final String[] CITIES = {
+            "浙江省杭州市", "江苏省南京市", "广东省广州市", "四川省成都市", "湖北省武汉市",
+            "陕西省西安市", "山东省济南市", "福建省福州市", "湖南省长沙市", "河南省郑州市"
+    };
+    private static final String[] REGION_CODES = {
+            "330106", "320102", "440106", "510104", "420102", "610102", "370102", "350102", "430102", "410102"
+    };
+    private static final String[] DISCIPLINES = {
+            "计算机科学与技术", "软件工程", "电子信息", "机械工程", "材料科学与工程", "化学工程", "数学",
+            "物理学", "管理科学与工程", "工商管理", "法学", "外国语言文学", "建筑学", "环境工程", "生物医学工程"
+    };
+    private static final String[] LOG_OPERATIONS = {"LOGIN", "VIEW", "UPDATE", "CREATE", "EXPORT", "LOGOUT"};
+    private static final String[] LOG_RESOURCES = {"USER", "STUDENT_PROFILE", "CHANGE_REQUEST", "COLLEGE"};
+    private static final String[] CHANGE_FIELDS = {"name", "gender", "degreeType"};
+    private static final String[] IMPORT_HEADERS = {
+            "姓名", "性别", "身份证号", "学院", "专业", "学位类型", "导师", "入学时间", "预计毕业时间",
+            "现居地址", "永久地址", "紧急联系人", "紧急联系人电话", "教育背景", "工作经历"
+    };
+    private static final int[] ID_WEIGHTS = {7, 9, 10, 5, 8, 4, 2, 1, 6, 3, 7, 9, 10, 5, 8, 4, 2};
+    private static final char[] ID_CHECK_CODES = {'1', '0', 'X', '9', '8', '7', '6', '5', '4', '3', '2'};
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final int PROGRESS_INTERVAL = 100_000;
+    private static final String INSERT_USER_SQL = "INSERT INTO users (id, username, password, name, email, phone, " +
+            "enabled, account_non_locked, login_attempts, last_password_change_time, first_login, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_USER_ROLE_SQL = "INSERT INTO user_roles (user_id, role_id) VALUES (?, ?)";
+    private static final String INSERT_PROFILE_SQL = "INSERT INTO student_profiles (id, user_id, student_id, name, " +
+            "gender, id_number, id_number_hash, college_id, major_id, degree_type, supervisor_id, enrollment_date, " +
+            "expected_graduation_date, current_address, permanent_address, emergency_contact, emergency_phone, " +
+            "education_background, approved, approve_time, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final RoleRepository roleRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final SM4Util sm4Util;
+    private final IdNumberBlindIndex idNumberBlindIndex;
+    private final SystemLogService systemLogService;
+    private final PendingChangeRequestCounter pendingCounter;
+
+    @Value("${system.datagen.seed:20240901}")
+    private long seed;
+
+    @Value("${system.datagen.database:true}")
+    private boolean populateDatabase;
+
+    @Value("${system.datagen.colleges:50}")
+    private int collegeCount;
+
+    @Value("${system.datagen.majors-per-college:10}")
+    private int majorsPerCollege;
+
+    @Value("${system.datagen.supervisors:5000}")
+    private int supervisorCount;
+
+    @Value("${system.datagen.students:200000}")
+    private int studentCount;
+
+    @Value("${system.datagen.change-requests:500000}")
+    private int changeRequestCount;
+
+    @Value("${system.datagen.logs:20000000}")
+    private long logCount;
+
+    @Value("${system.datagen.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${system.datagen.password:Sims@2024}")
+    private String defaultPassword;
+
+    @Value("${system.datagen.base-date:2024-09-01}")
+    private String baseDateValue;
+
+    @Value("${system.datagen.xlsx-rows:0}")
+    private int xlsxRows;
+
+    @Value("${system.datagen.xlsx-path:./data/student-import.xlsx}")
+    private String xlsxPath;
+
+    private LocalDateTime baseTime;
+
+    // 生成过程中保存的关联数据，下标为生成顺序
+    private long[] collegeIds;
+    private long[] majorIds;
+    private long[] supervisorIds;
+    private long[] studentUserIds;
+    private long[] profileIds;
+    private int[] profileCollegeIndex;
+    private String[] profileNames;
+
+    @Override
+    public void run(String... args) throws Exception {
+        baseTime = LocalDate.parse(baseDateValue).atStartOfDay();
+        log.info("=========================================");
+        log.info("测试数据生成：种子 {}，基准日期 {}", seed, baseDateValue);
+
+        if (populateDatabase) {
+            long start = System.currentTimeMillis();
+            String passwordHash = passwordEncoder.encode(defaultPassword);
+            long teacherRoleId = ensureRole("ROLE_TEACHER", "导师");
+            long studentRoleId = ensureRole("ROLE_STUDENT", "学生");
+
+            generateColleges();
+            generateMajors();
+            generateSupervisors(passwordHash, teacherRoleId);
+            generateStudents(passwordHash, studentRoleId);
+            generateChangeRequests();
+            generateSystemLogs();
+
+            // 按生成的数据重新统计变更申请计数
+            pendingCounter.rebuild();
+            log.info("数据库数据生成完成，耗时{}s，所有账号密码为 {}",
+                    (System.currentTimeMillis() - start) / 1000, defaultPassword);
+        }
+
+        if (xlsxRows > 0) {
+            generateImportFile();
+        }
+        log.info("=========================================");
+    }
+
+    private void generateColleges() {
+        Random random = random(1);
+        long baseId = maxId("colleges");
+        collegeIds = new long[collegeCount];
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < collegeCount; i++) {
+            long id = baseId + i + 1;
+            collegeIds[i] = id;
+            Timestamp createdAt = timestamp(random, 3650);
+            rows.add(new Object[] {id, DISCIPLINES[i % DISCIPLINES.length] + "学院" + id, "C" + id,
+                    "测试数据", createdAt, createdAt});
+            flushIfFull("INSERT INTO colleges (id, name, code, description, created_at, updated_at) " +
+                    "VALUES (?, ?, ?, ?, ?, ?)", rows);
+        }
+        flush("INSERT INTO colleges (id, name, code, description, created_at, updated_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?)", rows);
+        log.info("学院 {} 条", collegeCount);
+    }
+
+    private void generateMajors() {
+        Random random = random(2);
+        long baseId = maxId("majors");
+        String sql = "INSERT INTO majors (id, name, code, description, college_id, created_at, updated_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?)";
+        majorIds = new long[collegeCount * majorsPerCollege];
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < majorIds.length; i++) {
+            long id = baseId + i + 1;
+            majorIds[i] = id;
+            Timestamp createdAt = timestamp(random, 3650);
+            rows.add(new Object[] {id, DISCIPLINES[random.nextInt(DISCIPLINES.length)] + "专业" + id, "M" + id,
+                    "测试数据", collegeIds[i / majorsPerCollege], createdAt, createdAt});
+            flushIfFull(sql, rows);
+        }
+        flush(sql, rows);
+        log.info("专业 {} 条", majorIds.length);
+    }
+
+    /**
+     * 导师按顺序平均分配到各学院，第i个导师属于第i % 学院数个学院
+     */
+    private void generateSupervisors(String passwordHash, long roleId) {
+        Random random = random(3);
+        long baseId = maxId("users");
+        supervisorIds = new long[supervisorCount];
+        List<Object[]> users = new ArrayList<>();
+        List<Object[]> roles = new ArrayList<>();
+        for (int i = 0; i < supervisorCount; i++) {
+            long id = baseId + i + 1;
+            supervisorIds[i] = id;
+            // 导入时按姓名查找导师，姓名加编号保证唯一
+            String name = randomName(random) + String.format("%04d", i);
+            users.add(userRow(id, "T" + id, passwordHash, name, random));
+            roles.add(new Object[] {id, roleId});
+            if (users.size() >= batchSize) {
+                flush(INSERT_USER_SQL, users);
+                flush(INSERT_USER_ROLE_SQL, roles);
+            }
+        }
+        flush(INSERT_USER_SQL, users);
+        flush(INSERT_USER_ROLE_SQL, roles);
+        log.info("导师 {} 条", supervisorCount);
+    }
+
+    private void generateStudents(String passwordHash, long roleId) {
+        Random random = random(4);
+        long baseUserId = supervisorIds.length > 0 ? supervisorIds[supervisorIds.length - 1] : maxId("users");
+        long baseProfileId = maxId("student_profiles");
+        long existingProfiles = count("student_profiles");
+        int[] sequences = new int[majorIds.length * 10];
+
+        studentUserIds = new long[studentCount];
+        profileIds = new long[studentCount];
+        profileCollegeIndex = new int[studentCount];
+        profileNames = new String[studentCount];
+
+        List<Object[]> users = new ArrayList<>();
+        List<Object[]> roles = new ArrayList<>();
+        List<Object[]> profiles = new ArrayList<>();
+        for (int i = 0; i < studentCount; i++) {
+            long userId = baseUserId + i + 1;
+            long profileId = baseProfileId + i + 1;
+            int majorIndex = random.nextInt(majorIds.length);
+            int collegeIndex = majorIndex / majorsPerCollege;
+            int yearOffset = random.nextInt(5);
+            boolean doctor = random.nextInt(5) == 0;
+            String degreeType = doctor ? "博士" : "硕士";
+
+            // 学号规则与系统一致：年份 + 学院代码 + 专业代码 + 学位类型代码 + 序号
+            int bucket = majorIndex * 10 + yearOffset * 2 + (doctor ? 1 : 0);
+            int year = baseTime.getYear() - yearOffset;
+            String studentId = year + "C" + collegeIds[collegeIndex] + "M" + majorIds[majorIndex]
+                    + (doctor ? "2" : "1") + String.format("%03d", ++sequences[bucket]);
+            String name = randomName(random);
+            String idNumber = idNumber(existingProfiles + i, random);
+            LocalDate enrollmentDate = LocalDate.of(year, 9, 1);
+            long supervisorId = supervisorIds[pickSupervisor(random, collegeIndex)];
+            boolean approved = random.nextInt(10) != 0;
+            Timestamp createdAt = Timestamp.valueOf(enrollmentDate.atStartOfDay().plusMinutes(random.nextInt(20_000)));
+
+            studentUserIds[i] = userId;
+            profileIds[i] = profileId;
+            profileCollegeIndex[i] = collegeIndex;
+            profileNames[i] = name;
+
+            users.add(userRow(userId, studentId, passwordHash, name, random));
+            roles.add(new Object[] {userId, roleId});
+            profiles.add(new Object[] {profileId, userId, studentId, name, random.nextBoolean() ? "男" : "女",
+                    sm4Util.encrypt(idNumber), idNumberBlindIndex.compute(idNumber),
+                    collegeIds[collegeIndex], majorIds[majorIndex], degreeType, supervisorId,
+                    Date.valueOf(enrollmentDate), Date.valueOf(enrollmentDate.plusYears(doctor ? 4 : 3)),
+                    sm4Util.encrypt(address(random)), sm4Util.encrypt(address(random)), randomName(random),
+                    sm4Util.encrypt(phone(random)), "本科", approved,
+                    approved ? Timestamp.valueOf(createdAt.toLocalDateTime().plusDays(3)) : null,
+                    createdAt, createdAt});
+
+            if (profiles.size() >= batchSize) {
+                flush(INSERT_USER_SQL, users);
+                flush(INSERT_USER_ROLE_SQL, roles);
+                flush(INSERT_PROFILE_SQL, profiles);
+            }
+            logProgress("学生", i + 1);
+        }
+        flush(INSERT_USER_SQL, users);
+        flush(INSERT_USER_ROLE_SQL, roles);
+        flush(INSERT_PROFILE_SQL, profiles);
+        log.info("学生 {} 条", studentCount);
+    }
+
+    private void generateChangeRequests() {
+        if (studentCount == 0) {
+            return;
+        }
+        Random random = random(5);
+        long baseId = maxId("change_requests");
+        String sql = "INSERT INTO change_requests (id, student_profile_id, college_id, requester_id, field_name, " +
+                "old_value, new_value, status, reviewer_id, comment, review_time, created_at, updated_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < changeRequestCount; i++) {
+            int student = random.nextInt(studentCount);
+            String field = CHANGE_FIELDS[random.nextInt(CHANGE_FIELDS.length)];
+            String oldValue;
+            String newValue;
+            if ("name".equals(field)) {
+                oldValue = profileNames[student];
+                newValue = randomName(random);
+            } else if ("gender".equals(field)) {
+                oldValue = "男";
+                newValue = "女";
+            } else {
+                oldValue = "硕士";
+                newValue = "博士";
+            }
+
+            // 约10%待审核，其余按4:1通过和驳回
+            int roll = random.nextInt(10);
+            String status = roll == 0 ? "PENDING" : (roll <= 7 ? "APPROVED" : "REJECTED");
+            Timestamp createdAt = timestamp(random, 365);
+            boolean reviewed = !"PENDING".equals(status);
+            Timestamp reviewTime = reviewed ? Timestamp.valueOf(createdAt.toLocalDateTime().plusHours(random.nextInt(72) + 1)) : null;
+
+            rows.add(new Object[] {baseId + i + 1, profileIds[student], collegeIds[profileCollegeIndex[student]],
+                    studentUserIds[student], field, oldValue, newValue, status,
+                    reviewed ? supervisorIds[random.nextInt(supervisorIds.length)] : null,
+                    reviewed ? "测试数据" : null, reviewTime, createdAt, reviewed ? reviewTime : createdAt});
+            flushIfFull(sql, rows);
+            logProgress("变更申请", i + 1);
+        }
+        flush(sql, rows);
+        log.info("变更申请 {} 条", changeRequestCount);
+    }
+
+    /**
+     * 日志HMAC与系统写入时的计算方式相同
+     */
+    private void generateSystemLogs() {
+        if (studentCount == 0) {
+            return;
+        }
+        Random random = random(6);
+        String sql = "INSERT INTO system_logs (operation, resource_type, resource_id, user_id, ip_address, details, " +
+                "success, error_message, hmac_value, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        List<Object[]> rows = new ArrayList<>();
+        User user = new User();
+        for (long i = 0; i < logCount; i++) {
+            String operation = LOG_OPERATIONS[random.nextInt(LOG_OPERATIONS.length)];
+            String resourceType = LOG_RESOURCES[random.nextInt(LOG_RESOURCES.length)];
+            long resourceId = profileIds[random.nextInt(profileIds.length)];
+            boolean success = random.nextInt(50) != 0;
+            user.setId(studentUserIds[random.nextInt(studentUserIds.length)]);
+
+            SystemLog systemLog = new SystemLog();
+            systemLog.setOperation(operation);
+            systemLog.setResourceType(resourceType);
+            systemLog.setResourceId(resourceId);
+            systemLog.setUser(user);
+            systemLog.setIpAddress("10." + random.nextInt(256) + "." + random.nextInt(256) + "." + (random.nextInt(254) + 1));
+            systemLog.setDetails(operation + " " + resourceType + " " + resourceId);
+            systemLog.setSuccess(success);
+
+            rows.add(new Object[] {operation, resourceType, resourceId, user.getId(), systemLog.getIpAddress(),
+                    systemLog.getDetails(), success, success ? null : "测试数据",
+                    systemLogService.calculateLogHmac(systemLog), timestamp(random, 365)});
+            flushIfFull(sql, rows);
+            logProgress("系统日志", i + 1);
+        }
+        flush(sql, rows);
+        log.info("系统日志 {} 条", logCount);
+    }
+
+    /**
+     * 生成学籍导入文件，学院、专业和导师取自数据库，身份证号与库中已有学生不重复
+     */
+    private void generateImportFile() throws IOException {
+        List<String[]> majors = jdbcTemplate.query(
+                "SELECT c.name, m.name FROM majors m JOIN colleges c ON m.college_id = c.id ORDER BY m.id",
+                (rs, rowNum) -> new String[] {rs.getString(1), rs.getString(2)});
+        List<String> supervisors = jdbcTemplate.queryForList(
+                "SELECT u.name FROM users u JOIN user_roles ur ON ur.user_id = u.id JOIN roles r ON r.id = ur.role_id " +
+                "WHERE r.name = 'ROLE_TEACHER' ORDER BY u.id", String.class);
+        if (majors.isEmpty() || supervisors.isEmpty()) {
+            throw new IllegalStateException("数据库中没有学院、专业或导师，无法生成导入文件");
+        }
+
+        Random random = random(7);
+        long existingProfiles = count("student_profiles");
+        Path path = Paths.get(xlsxPath);
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+
+        SXSSFWorkbook workbook = new SXSSFWorkbook(100);
+        workbook.setCompressTempFiles(true);
+        try (OutputStream out = Files.newOutputStream(path)) {
+            SXSSFSheet sheet = workbook.createSheet("学生学籍");
+            Row header = sheet.createRow(0);
+            for (int i = 0; i < IMPORT_HEADERS.length; i++) {
+                header.createCell(i).setCellValue(IMPORT_HEADERS[i]);
+            }
+            for (int i = 0; i < xlsxRows; i++) {
+                String[] major = majors.get(random.nextInt(majors.size()));
+                boolean doctor = random.nextInt(5) == 0;
+                LocalDate enrollmentDate = LocalDate.of(baseTime.getYear(), 9, 1);
+                String[] values = {
+                        randomName(random), random.nextBoolean() ? "男" : "女",
+                        idNumber(existingProfiles + i, random), major[0], major[1], doctor ? "博士" : "硕士",
+                        supervisors.get(random.nextInt(supervisors.size())),
+                        enrollmentDate.format(DATE_FORMAT), enrollmentDate.plusYears(doctor ? 4 : 3).format(DATE_FORMAT),
+                        address(random), address(random), randomName(random), phone(random), "本科", ""
+                };
+                Row row = sheet.createRow(i + 1);
+                for (int c = 0; c < values.length; c++) {
+                    row.createCell(c).setCellValue(values[c]);
+                }
+            }
+            workbook.write(out);
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+        log.info("导入文件已生成：{}，共{}行", path.toAbsolutePath(), xlsxRows);
+    }
+
+    private Object[] userRow(long id, String username, String passwordHash, String name, Random random) {
+        Timestamp createdAt = Timestamp.valueOf(baseTime);
+        // 密码修改时间取当前时间，避免按基准日期计算时账号密码已过期无法登录
+        // 与业务写入一致，用户邮箱和手机号以明文保存
+        return new Object[] {id, username, passwordHash, name,
+                username.toLowerCase() + "@example.edu.cn", phone(random),
+                true, true, 0, Timestamp.valueOf(LocalDateTime.now()), false, createdAt, createdAt};
+    }
+
+    /**
+     * 优先选择同学院的导师
+     */
+    private int pickSupervisor(Random random, int collegeIndex) {
+        int perCollege = supervisorIds.length / collegeCount;
+        if (perCollege == 0) {
+            return random.nextInt(supervisorIds.length);
+        }
+        return random.nextInt(perCollege) * collegeCount + collegeIndex;
+    }
+
+    /**
+     * 生成校验位正确的18位身份证号，出生日期和顺序码由序号唯一确定
+     */
+    private String idNumber(long index, Random random) {
+        return idNumber(REGION_CODES[random.nextInt(REGION_CODES.length)],
+                LocalDate.of(1990, 1, 1).plusDays(index % 3650), index / 3650);
+    }
+
+    /**
+     * 按地区码、出生日期和顺序码组装身份证号并计算校验位
+     */
+    static String idNumber(String regionCode, LocalDate birthDate, long sequence) {
+        String body = regionCode + birthDate.format(DateTimeFormatter.BASIC_ISO_DATE)
+                + String.format("%03d", sequence % 1000);
+        int sum = 0;
+        for (int i = 0; i < 17; i++) {
+            sum += (body.charAt(i) - '0') * ID_WEIGHTS[i];
+        }
+        return body + ID_CHECK_CODES[sum % 11];
+    }
+
+    private String randomName(Random random) {
+        return SURNAMES[random.nextInt(SURNAMES.length)] + GIVEN_NAMES[random.nextInt(GIVEN_NAMES.length)];
+    }
+
+    private String address(Random random) {
+        return CITIES[random.nextInt(CITIES.length)] + SURNAMES[random.nextInt(SURNAMES.length)] + "家路"
+                + (random.nextInt(500) + 1) + "号";
+    }
+
+    private String phone(Random random) {
+        return "1" + (3 + random.nextInt(7)) + String.format("%09d", random.nextInt(1_000_000_000));
+    }
+
+    private Timestamp timestamp(Random random, int maxDaysBefore) {
+        return Timestamp.valueOf(baseTime.minusMinutes(random.nextInt(maxDaysBefore * 24 * 60)));
+    }
+
+    /**
+     * 每类数据使用独立的随机序列，调整某一类的数量不影响其他类的内容
+     */
+    private Random random(int stage) {
+        return new Random(seed * 31 + stage);
+    }
+
+    private long ensureRole(String name, String description) {
+        return roleRepository.findByName(name)
+                .orElseGet(() -> {
+                    Role role = new Role();
+                    role.setName(name);
+                    role.setDescription(description);
+                    return roleRepository.save(role);
+                })
+                .getId();
+    }
+
+    private long maxId(String table) {
+        Long max = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+        return max != null ? max : 0;
+    }
+
+    private long count(String table) {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+        return count != null ? count : 0;
+    }
+
+    private void flushIfFull(String sql, List<Object[]> rows) {
+        if (rows.size() >= batchSize) {
+            flush(sql, rows);
+        }
+    }
+
+    private void flush(String sql, List<Object[]> rows) {
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, rows);
+            rows.clear();
+        }
+    }
+
+    private void logProgress(String label, long done) {
+        if (done % PROGRESS_INTERVAL == 0) {
+            log.info("{}已生成 {} 条", label, done);
+        }
+    }
+}
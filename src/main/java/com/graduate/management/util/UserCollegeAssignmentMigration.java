@@ -0,0 +1,55 @@
+package com.graduate.management.util;
+
+import com.graduate.management.repository.StudentProfileRepository;
+import com.graduate.management.repository.UserCollegeAssignmentRepository;
+import com.graduate.management.service.UserCollegeService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 用户学院分配迁移工具
+ * 旧版本按用户创建的第一条学籍记录推断其所属学院。升级后分配表为空时，
+ * 按同样的规则为学院级用户生成一次分配记录，之后由管理员在学院管理中维护
+ *
+ * 关闭方式：--system.college-assignment.migrate=false
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "system.college-assignment.migrate", havingValue = "true", matchIfMissing = true)
+public class UserCollegeAssignmentMigration implements CommandLineRunner {
+    
+    private final UserCollegeAssignmentRepository assignmentRepository;
+    private final StudentProfileRepository studentProfileRepository;
+    private final UserCollegeService userCollegeService;
+    
+    @Override
+    public void run(String... args) {
+        if (assignmentRepository.count() > 0) {
+            return;
+        }
+        
+        List<Object[]> rows = studentProfileRepository.findFirstCreatedCollegeByCreator();
+        int migrated = 0;
+        for (Object[] row : rows) {
+            Long userId = (Long) row[0];
+            Long collegeId = (Long) row[1];
+            try {
+                userCollegeService.assign(userId, collegeId, null);
+                migrated++;
+            } catch (Exception e) {
+                // 非学院级用户（如研究生院管理员）创建的记录不生成分配
+                log.debug("用户{}不迁移学院分配: {}", userId, e.getMessage());
+            }
+        }
+        
+        if (migrated > 0) {
+            log.info("用户学院分配迁移完成，共{}条", migrated);
+        }
+    }
+}
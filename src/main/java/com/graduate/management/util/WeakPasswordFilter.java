@@ -0,0 +1,139 @@
+package com.graduate.management.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+
+/**
+ * 弱密码布隆过滤器
+ * 启动时以只读内存映射方式加载由{@link WeakPasswordFilterBuilder}生成的过滤器文件，
+ * 位数组留在堆外由操作系统页缓存管理，数百万条常见密码只占用十几MB且不进入Java堆。
+ * 查询只计算一次64位哈希并检查k个位，唯一的分配是含大写字母的密码转小写时生成的新字符串，
+ * 存在一定误判率（把正常密码判为弱密码），不会漏判。
+ * 密码统一转为小写后判断，大小写变体视为同一个密码。
+ *
+ * 文件格式（大端）：魔数"WPBF"(4) | 版本(4) | 哈希函数个数(4) | 位数(8) | 条目数(8) | 位数组
+ * 过滤器文件不存在时不做筛查，只输出警告
+ */
+@Slf4j
+@Component
+public class WeakPasswordFilter {
+
+    static final int MAGIC = 0x57504246; // "WPBF"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 28;
+
+    @Value("${system.password.weak-filter.file:./config/weak-passwords.bloom}")
+    private String filterFile;
+
+    private volatile ByteBuffer bits;
+    private long numBits;
+    private int numHashes;
+
+    @PostConstruct
+    public void load() throws IOException {
+        Path path = Paths.get(filterFile);
+        if (!Files.isRegularFile(path)) {
+            log.warn("弱密码过滤器文件不存在，不进行常见密码筛查: {}", path.toAbsolutePath());
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+                throw new IllegalStateException("弱密码过滤器文件大小不正确: " + size);
+            }
+            // 映射在通道关闭后仍然有效
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IllegalStateException("弱密码过滤器文件格式不正确: " + path);
+            }
+            int hashes = buffer.getInt(8);
+            long bitCount = buffer.getLong(12);
+            long entries = buffer.getLong(20);
+            if (hashes <= 0 || bitCount <= 0 || HEADER_SIZE + (bitCount + 7) / 8 > size) {
+                throw new IllegalStateException("弱密码过滤器文件已损坏: " + path);
+            }
+
+            numHashes = hashes;
+            numBits = bitCount;
+            bits = buffer;
+            log.info("已加载弱密码过滤器：{}条密码，{}个哈希函数，{}KB", entries, hashes, size / 1024);
+        }
+    }
+
+    /**
+     * 过滤器是否已加载
+     */
+    public boolean isEnabled() {
+        return bits != null;
+    }
+
+    /**
+     * 判断密码是否可能在常见弱密码列表中
+     *
+     * @param password 密码
+     * @return 可能是弱密码时返回true；过滤器未加载时返回false
+     */
+    public boolean mightContain(String password) {
+        ByteBuffer buffer = bits;
+        if (buffer == null || password == null) {
+            return false;
+        }
+
+        long h1 = hash(password);
+        long h2 = secondHash(h1);
+        for (int i = 0; i < numHashes; i++) {
+            long bit = bitIndex(h1, h2, i, numBits);
+            if ((buffer.get(HEADER_SIZE + (int) (bit >>> 3)) & (1 << (bit & 7))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 计算第i个哈希函数对应的位，与构建工具共用，修改算法需同步升级文件版本
+     */
+    static long bitIndex(long h1, long h2, int i, long numBits) {
+        return Long.remainderUnsigned(h1 + i * h2, numBits);
+    }
+
+    /**
+     * 密码的64位哈希：小写后按字符做FNV-1a，再经过混合函数打散
+     * 小写转换沿用String.toLowerCase（已是小写时返回原字符串），与构建工具的规则一致，不改为逐字符转换
+     */
+    static long hash(String password) {
+        String normalized = password.toLowerCase(Locale.ROOT);
+        long h = 0xCBF29CE484222325L;
+        for (int i = 0; i < normalized.length(); i++) {
+            h ^= normalized.charAt(i);
+            h *= 0x100000001B3L;
+        }
+        return mix(h);
+    }
+
+    /**
+     * 由第一个哈希派生第二个哈希（奇数），k个位置按h1 + i * h2计算
+     */
+    static long secondHash(long h1) {
+        return mix(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,109 @@
+package com.graduate.management.util;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * 弱密码过滤器构建工具
+ * 从常见密码列表（UTF-8文本，每行一个密码）生成{@link WeakPasswordFilter}使用的过滤器文件，
+ * 按目标误判率计算位数和哈希函数个数。列表先扫描一遍统计条数，再逐行写入位数组，不在内存中保存密码本身。
+ * 生成后立即重新加载过滤器。
+ *
+ * 启用方式：--system.password.weak-filter.build.enabled=true --system.password.weak-filter.build.source=常见密码列表路径
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "system.password.weak-filter.build.enabled", havingValue = "true")
+public class WeakPasswordFilterBuilder implements CommandLineRunner {
+
+    private final WeakPasswordFilter weakPasswordFilter;
+
+    @Value("${system.password.weak-filter.build.source}")
+    private String source;
+
+    @Value("${system.password.weak-filter.build.false-positive-rate:0.001}")
+    private double falsePositiveRate;
+
+    @Value("${system.password.weak-filter.file:./config/weak-passwords.bloom}")
+    private String filterFile;
+
+    @Override
+    public void run(String... args) throws Exception {
+        Path sourcePath = Paths.get(source);
+        long start = System.currentTimeMillis();
+
+        long entries = 0;
+        try (BufferedReader reader = Files.newBufferedReader(sourcePath, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty()) {
+                    entries++;
+                }
+            }
+        }
+        if (entries == 0) {
+            throw new IllegalStateException("常见密码列表为空: " + sourcePath);
+        }
+
+        // m = -n·ln(p) / (ln2)²，k = m/n·ln2
+        long numBits = Math.max(64, (long) Math.ceil(-entries * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2))));
+        int numHashes = Math.max(1, (int) Math.round((double) numBits / entries * Math.log(2)));
+        long numBytes = (numBits + 7) / 8;
+        if (WeakPasswordFilter.HEADER_SIZE + numBytes > Integer.MAX_VALUE) {
+            throw new IllegalStateException("常见密码列表过大，请提高误判率或拆分列表");
+        }
+
+        byte[] bits = new byte[(int) numBytes];
+        try (BufferedReader reader = Files.newBufferedReader(sourcePath, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                long h1 = WeakPasswordFilter.hash(line);
+                long h2 = WeakPasswordFilter.secondHash(h1);
+                for (int i = 0; i < numHashes; i++) {
+                    long bit = WeakPasswordFilter.bitIndex(h1, h2, i, numBits);
+                    bits[(int) (bit >>> 3)] |= (byte) (1 << (bit & 7));
+                }
+            }
+        }
+
+        Path target = Paths.get(filterFile).toAbsolutePath();
+        if (target.getParent() != null) {
+            Files.createDirectories(target.getParent());
+        }
+        // 先写临时文件再替换，避免其他实例读到写了一半的文件
+        Path temp = Files.createTempFile(target.getParent(), "weak-passwords", ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            ByteBuffer header = ByteBuffer.allocate(WeakPasswordFilter.HEADER_SIZE);
+            header.putInt(WeakPasswordFilter.MAGIC)
+                    .putInt(WeakPasswordFilter.VERSION)
+                    .putInt(numHashes)
+                    .putLong(numBits)
+                    .putLong(entries);
+            out.write(header.array());
+            out.write(bits);
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        log.info("弱密码过滤器生成完成：{}条密码，{}位，{}个哈希函数，目标误判率{}，耗时{}ms，输出: {}",
+                entries, numBits, numHashes, falsePositiveRate, System.currentTimeMillis() - start, target);
+        weakPasswordFilter.load();
+    }
+}